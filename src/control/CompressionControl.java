@@ -6,11 +6,19 @@ import model.Digram.BasicDigram;
 import model.Digram.Digram;
 import model.DigramList.AdjacencyDigramList;
 import model.DigramList.BasicDigramList;
-import model.DigramOccurrence.AdjacencyDigramOccurrence;
-import model.DigramOccurrence.DigramOccurrence;
+import model.DigramList.DigramList;
+import model.DigramOccurrence.OccurrenceTable;
 import model.Graph.*;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This is a class for the compression of a HyperGraph Object.
@@ -33,151 +41,953 @@ public class CompressionControl {
 
     private AdjacencyDigramList adjacencyDigramList;
 
+    /**
+     * the nodes of the occurrences which were removed in the current round, because they overlap with an occurrence of
+     * another digram of the batch or one of their edges was replaced. The occurrences around them are searched again
+     * after the round, because an occurrence which overlapped with a removed one can be selected now.
+     */
+    private final BitSet freedNodes = new BitSet();
+
+    /**
+     * the ids of the edges which were added or are incident to a freed node in the current round, whose occurrences
+     * are searched after the round.
+     */
+    private final BitSet newEdges = new BitSet();
+
     private HyperGraph graph;
 
 
     /**
-     * list of all intermediate compression results.
+     * all intermediate compression results.
+     */
+    private final CompressionHistory history = new CompressionHistory();
+
+    /**
+     * true if the intermediate compression results are stored, else only the compressed graph is returned.
+     */
+    private boolean keepIntermediateGraphs = false;
+
+    /**
+     * the listeners which observe the compression step by step.
+     */
+    private final List<CompressionListener> listeners = new ArrayList<>();
+
+    /**
+     * true if the transformed graph is a lazy view of the untransformed graph, else the transformed graph is created.
+     */
+    private boolean lazyTransformation = false;
+
+    /**
+     * the ids of all labels of the edges of the untransformed graph.
+     */
+    private final BitSet edgeLabels = new BitSet();
+
+    /**
+     * true if the digram lists are updated after each replacement, else all digrams are searched again.
+     */
+    private boolean incrementalSearch = true;
+
+    /**
+     * the number of threads of the digram search.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * the pool of the digram search, which exists during the compression.
+     */
+    private ForkJoinPool searchPool;
+
+    /**
+     * the number of digram searches with different orders, of which the best result is taken.
+     */
+    private int portfolioSize = 1;
+
+    /**
+     * the time in milliseconds after which the digram searches of the portfolio are cancelled, 0 for no limit.
+     */
+    private long portfolioTimeBudget = 0;
+
+    /**
+     * true if the digram searches of the portfolio are started on virtual threads, if the JVM supports them.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * the executor of the digram searches of the portfolio, which exists during the compression.
+     */
+    private ExecutorService portfolioExecutor;
+
+    /**
+     * the number of occurrences which the best searches of the portfolio have found in addition to the first search.
+     */
+    private long portfolioGain = 0;
+
+    /**
+     * true if the occurrences of a digram are replaced in parallel by a {@link ReplaceWorker}.
+     */
+    private boolean parallelReplacement = false;
+
+    /**
+     * true if the compressed graph of a transformed compression is decompressed and compared with the input graph.
+     */
+    private boolean roundTripCheck = false;
+
+    /**
+     * the origins of the nodes of the graph, which are recorded for the round trip check, else null.
+     */
+    private NodeOrigins nodeOrigins;
+
+    /**
+     * the maximal number of digrams which are replaced in one round.
+     */
+    private int batchSize = 1;
+
+    /**
+     * the number of replacement rounds of the compression.
+     */
+    private int rounds;
+
+    /**
+     * the time in milliseconds after which the compression is stopped, 0 for no limit.
+     */
+    private long timeBudget = 0;
+
+    /**
+     * the maximal number of rounds, 0 for no limit.
+     */
+    private int maxRounds = 0;
+
+    /**
+     * the number of bytes of used heap above which the compression is stopped, 0 for no limit.
+     */
+    private long memoryBudget = 0;
+
+    /**
+     * the time in nanoseconds at which the time budget is exceeded.
+     */
+    private long deadline;
+
+    /**
+     * set if the compression is cancelled or a budget is exceeded, then no further round is started.
+     */
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * true if the compression replaced digrams until no digram had an occurrence.
+     */
+    private boolean complete;
+
+    /**
+     * the ids of the labels of the graph before the replacements, which the non terminals must not have.
+     */
+    private BitSet inputLabels;
+
+    /**
+     * the degree above which a node is treated as a hub by the search of adjacency digrams.
+     */
+    private int hubDegree = AdjacencyDigramList.DEFAULT_HUB_DEGREE;
+
+    /**
+     * the maximal number of groups of incident edges of a hub which are paired by the search of adjacency digrams.
+     */
+    private int maxHubGroups = AdjacencyDigramList.DEFAULT_MAX_HUB_GROUPS;
+
+    /**
+     * the order in which the digram search visits the edges and nodes.
+     */
+    private OccurrenceOrder occurrenceOrder = OccurrenceOrder.SHUFFLED;
+
+    /**
+     * the seed of the random generator of the compression.
      */
-    private final List<Tuple<HyperGraph, List<Digram>>> allGraphs = new ArrayList<>();
+    private long seed = new SplittableRandom().nextLong();
 
-    private SearchWorker[] workers;
+    /**
+     * the random generator of the compression, which is created from the seed at the start of the compression.
+     */
+    private SplittableRandom random;
 
     /**
      * Standard Constructor.
      */
     public CompressionControl(HyperGraph graph) {
         this.graph = graph;
-        workers = new SearchWorker[/*Runtime.getRuntime().availableProcessors() * 2*/1];
-
     }
 
     /**
      * Execution of the whole grammar based compression method.
+     * <p>
+     * The compression can be stopped by {@link #cancel()} or by a budget. Then no further round is started, a running
+     * digram search is cancelled, and the pruning and edge optimization are done on the current graph, so the result
+     * is a valid grammar which is only compressed less, see {@link #isComplete()}.
+     * <p>
+     * The phases and rounds are reported to the listeners while the compression runs, see
+     * {@link #addCompressionListener(CompressionListener)}.
      *
-     * @return all intermediate compression results  and thus also the compressed graph.
+     * @return the compressed graph with the applied digrams, which is preceded by all intermediate compression results
+     * if they are kept, see {@link #setKeepIntermediateGraphs(boolean)}.
      */
     public List<Tuple<HyperGraph, List<Digram>>> graphCompression(boolean transform) {
-        addCurrentGraph(graph, appliedDigrams);
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        complete = false;
+        cancelled.set(false);
+        HyperGraph input = graph;
+        nodeOrigins = roundTripCheck && transform ? new NodeOrigins() : null;
+        if (keepIntermediateGraphs) {
+            history.addGraph(graph, appliedDigrams);
+        }
+        firePhaseFinished(CompressionPhase.INPUT);
 
         if (transform) {
             graph = transformGraph(graph);
+            if (keepIntermediateGraphs) {
+                history.addGraph(graph, appliedDigrams);
+            }
+        } else if (keepIntermediateGraphs) {
+            history.addChanges(new GraphDelta(), appliedDigrams);
         }
-        addCurrentGraph(graph, appliedDigrams);
+        firePhaseFinished(CompressionPhase.TRANSFORMATION);
 
-        while (true) {
-            findAllDigrams();
-            Digram digramToReplace = null;
-            int maxDigramSize = 0;
-            if (basicDigramList.getMaxDigram() != null) {
-                digramToReplace = basicDigramList.getMaxDigram();
-                maxDigramSize = basicDigramList.getMaxDigram().getSize();
+        random = new SplittableRandom(seed);
+        searchPool = new ForkJoinPool(parallelism);
+        if (portfolioSize > 1) {
+            portfolioExecutor = createPortfolioExecutor();
+        }
+        try {
+            compress();
+        } finally {
+            searchPool.shutdown();
+            searchPool = null;
+            if (portfolioExecutor != null) {
+                portfolioExecutor.shutdownNow();
+                portfolioExecutor = null;
             }
-            if (adjacencyDigramList.getMaxDigram() != null && adjacencyDigramList.getMaxDigram().getSize() > maxDigramSize) {
-                digramToReplace = adjacencyDigramList.getMaxDigram();
+        }
+        firePhaseFinished(CompressionPhase.REPLACEMENT);
+
+        pruning(graph, appliedDigrams);
+        if (keepIntermediateGraphs) {
+            history.addChanges(new GraphDelta(), appliedDigrams);
+        }
+        firePhaseFinished(CompressionPhase.PRUNING);
+
+        GraphDelta delta = startRecording();
+        graph = edgeOptimization(graph);
+        if (roundTripCheck && transform) {
+            checkRoundTrip(input);
+            nodeOrigins = null;
+        }
+        if (keepIntermediateGraphs) {
+            graph.recordChanges(null);
+            history.addChanges(delta, appliedDigrams);
+        }
+        firePhaseFinished(CompressionPhase.EDGE_OPTIMIZATION);
+        if (keepIntermediateGraphs) {
+            return history;
+        }
+
+        return Collections.singletonList(new Tuple<>(graph, new ArrayList<>(appliedDigrams)));
+    }
+
+    /**
+     * Replaces the digrams with the maximal associated occurrences until no digram has an occurrence.
+     */
+    private void compress() {
+        rounds = 0;
+        inputLabels = new BitSet();
+        for (int label = 0; label < LabelDictionary.size(); label++) {
+            if (graph.containsNode(label)) {
+                inputLabels.set(label);
             }
-            if (digramToReplace == null) {
+        }
+        if (isBudgetExceeded()) {
+            return;
+        }
+        findAllDigrams();
+        while (!isBudgetExceeded()) {
+            List<Digram> batch = selectBatch();
+            if (batch.isEmpty()) {
+                complete = true;
                 break;
             }
 
-            replaceAllOccurrences(digramToReplace);
-            appliedDigrams.add(digramToReplace);
+            GraphDelta roundDelta = new GraphDelta();
+            for (Digram digramToReplace : batch) {
+                for (CompressionListener listener : listeners) {
+                    listener.roundStarted(rounds, digramToReplace, graph);
+                }
+                int numOccurrences = digramToReplace.getSize();
+                GraphDelta delta = new GraphDelta();
+                graph.recordChanges(delta);
+                replaceAllOccurrences(digramToReplace);
+                graph.recordChanges(null);
+                digramToReplace.setBeenApplied();
+                appliedDigrams.add(digramToReplace);
+                if (keepIntermediateGraphs) {
+                    history.addRound(delta, digramToReplace);
+                }
+                int nodeDelta = delta.getAddedNodes().size() - delta.getRemovedNodes().size();
+                int edgeDelta = delta.getAddedEdges().size() - delta.getRemovedEdges().size();
+                for (CompressionListener listener : listeners) {
+                    listener.roundFinished(rounds, digramToReplace, numOccurrences, nodeDelta, edgeDelta, graph);
+                }
+                roundDelta.append(delta);
+            }
+            rounds++;
+
+            if (incrementalSearch) {
+                updateAllDigrams(batch, roundDelta);
+            } else {
+                freedNodes.clear();
+                findAllDigrams();
+            }
+        }
+    }
 
-            addCurrentGraph(graph, appliedDigrams);
+    /**
+     * Checks whether the compression is cancelled or a budget is exceeded, then the cancellation is set, so that a
+     * running digram search stops.
+     * @return true if no further round may be started, else false.
+     */
+    private boolean isBudgetExceeded() {
+        if (timeBudget > 0 && System.nanoTime() - deadline >= 0
+                || maxRounds > 0 && rounds >= maxRounds
+                || memoryBudget > 0 && getUsedMemory() > memoryBudget) {
+            cancelled.set(true);
         }
+        return cancelled.get();
+    }
 
-        pruning(graph, appliedDigrams);
-        addCurrentGraph(graph, appliedDigrams);
+    /**
+     * Gets the number of bytes which are used on the heap, including the garbage which is not collected yet.
+     * @return the used heap in bytes.
+     */
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 
-        graph = edgeOptimization(graph);
-        addCurrentGraph(graph, appliedDigrams);
+    /**
+     * Selects the digrams which are replaced in the next round.
+     * <p>
+     * The at most batchSize digrams with the most occurrences of both lists are visited in descending order of their
+     * number of occurrences, a basic digram is preferred over an adjacency digram with the same number. The occurrences
+     * of a digram which overlap with the occurrences of the digrams selected before are removed, i.e. an outer node is
+     * an outer node or a mid node of a selected occurrence or the mid node is an outer node of a selected occurrence.
+     * So the replacement of one digram does not change the occurrences of the others. A digram whose occurrences are
+     * all removed is left out.
+     * <p>
+     * The removed occurrences are only left out of this round. If the digram lists are updated incrementally, the
+     * occurrences around their nodes are searched again after the replacement, like the ones around new edges.
+     *
+     * @return the digrams of the round, empty if no digram has an occurrence.
+     */
+    private List<Digram> selectBatch() {
+        List<Digram> candidates = new ArrayList<>(basicDigramList.getTopDigrams(batchSize));
+        candidates.addAll(adjacencyDigramList.getTopDigrams(batchSize));
+        candidates.sort(Comparator.comparingInt(Digram::getPriority).reversed());
+
+        List<Digram> batch = new ArrayList<>();
+        BitSet outerNodes = new BitSet();
+        BitSet midNodes = new BitSet();
+        for (Digram digram : candidates) {
+            if (batch.size() == batchSize) {
+                break;
+            }
+            DigramList digramList = digram instanceof BasicDigram ? basicDigramList : adjacencyDigramList;
+            OccurrenceTable occurrences = digram.getOccurrences();
+            int conflicts = 0;
+            for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+                if (isConflicting(occurrences, slot, outerNodes, midNodes)) {
+                    conflicts++;
+                }
+            }
+            if (conflicts == digram.getSize()) {
+                continue;
+            }
+            for (int slot = occurrences.next(0); conflicts > 0; slot = occurrences.next(slot + 1)) {
+                if (isConflicting(occurrences, slot, outerNodes, midNodes)) {
+                    freedNodes.set(occurrences.getNode1(slot));
+                    freedNodes.set(occurrences.getNode2(slot));
+                    if (occurrences.getMidNode(slot) != OccurrenceTable.NONE) {
+                        freedNodes.set(occurrences.getMidNode(slot));
+                    }
+                    digramList.removeOccurrence(digram, slot);
+                    conflicts--;
+                }
+            }
+            for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+                outerNodes.set(occurrences.getNode1(slot));
+                outerNodes.set(occurrences.getNode2(slot));
+                if (occurrences.getMidNode(slot) != OccurrenceTable.NONE) {
+                    midNodes.set(occurrences.getMidNode(slot));
+                }
+            }
+            batch.add(digram);
+        }
+        return batch;
+    }
+
+    /**
+     * Checks whether an occurrence overlaps with the occurrences of the digrams selected before.
+     * @param outerNodes the outer nodes of the selected occurrences.
+     * @param midNodes the mid nodes of the selected occurrences.
+     * @return true if an outer node is an outer node or a mid node of a selected occurrence or the mid node is an outer
+     * node of a selected occurrence, else false.
+     */
+    private static boolean isConflicting(OccurrenceTable occurrences, int slot, BitSet outerNodes, BitSet midNodes) {
+        int node1 = occurrences.getNode1(slot);
+        int node2 = occurrences.getNode2(slot);
+        int midNode = occurrences.getMidNode(slot);
+        return outerNodes.get(node1) || outerNodes.get(node2) || midNodes.get(node1) || midNodes.get(node2)
+                || midNode != OccurrenceTable.NONE && outerNodes.get(midNode);
+    }
+
+    /**
+     * Starts the recording of the changes of the graph if the intermediate compression results are stored.
+     * @return the changes which are recorded, null if nothing is recorded.
+     */
+    private GraphDelta startRecording() {
+        if (!keepIntermediateGraphs) {
+            return null;
+        }
+        GraphDelta delta = new GraphDelta();
+        graph.recordChanges(delta);
+        return delta;
+    }
+
+    /**
+     * Setter for keepIntermediateGraphs. If true, the changes of all steps are stored and
+     * {@link #graphCompression(boolean)} returns all intermediate compression results, so the memory grows with the
+     * number of rounds. By default only the compressed graph is returned, the steps can be observed by a
+     * {@link CompressionListener} instead.
+     * @param keepIntermediateGraphs true if the intermediate compression results are stored.
+     */
+    public void setKeepIntermediateGraphs(boolean keepIntermediateGraphs) {
+        this.keepIntermediateGraphs = keepIntermediateGraphs;
+    }
+
+    /**
+     * Adds a listener, which is called for each phase and each replaced digram of the following compressions.
+     * @param listener the listener.
+     */
+    public void addCompressionListener(CompressionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener the listener.
+     */
+    public void removeCompressionListener(CompressionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Calls the listeners for the end of a phase.
+     * @param phase the finished phase.
+     */
+    private void firePhaseFinished(CompressionPhase phase) {
+        List<Digram> digrams = Collections.unmodifiableList(appliedDigrams);
+        for (CompressionListener listener : listeners) {
+            listener.phaseFinished(phase, graph, digrams);
+        }
+    }
+
+    /**
+     * Setter for lazyTransformation. If true, the transformed graph is not created, instead the digram search and the
+     * replacement work on a view of the untransformed graph, so that the number of stored elements stays close to the
+     * size of the input graph.
+     * @param lazyTransformation true if the transformed graph is a lazy view of the untransformed graph.
+     * @see TransformedGraphStore
+     */
+    public void setLazyTransformation(boolean lazyTransformation) {
+        this.lazyTransformation = lazyTransformation;
+    }
+
+    /**
+     * Setter for the number of threads of the digram search. The found digrams do not depend on the number of threads.
+     * @param parallelism the number of threads of the digram search.
+     * @see SearchWorker
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Setter for incrementalSearch. If true, the digrams are only searched once and then the digram lists are updated
+     * after each replacement for the changed part of the graph, so a round takes time proportional to the change. If
+     * false, all digrams are searched again after each replacement.
+     * @param incrementalSearch true if the digram lists are updated after each replacement.
+     */
+    public void setIncrementalSearch(boolean incrementalSearch) {
+        this.incrementalSearch = incrementalSearch;
+    }
+
+    /**
+     * Setter for the number of digram searches of the portfolio. If it is greater than 1, each digram search runs
+     * several searches with different random orders concurrently and takes the best result.
+     * @param portfolioSize the number of digram searches.
+     * @see #setPortfolioTimeBudget(long)
+     */
+    public void setPortfolioSize(int portfolioSize) {
+        this.portfolioSize = portfolioSize;
+    }
+
+    /**
+     * Setter for the time budget of a digram search of the portfolio. When the budget is exceeded, the searches which
+     * are not finished are cancelled, except for the first search.
+     * @param portfolioTimeBudget the time budget in milliseconds, 0 for no limit.
+     */
+    public void setPortfolioTimeBudget(long portfolioTimeBudget) {
+        this.portfolioTimeBudget = portfolioTimeBudget;
+    }
+
+    /**
+     * Setter for virtualThreads. If true, the searches of the portfolio are started on virtual threads, if the JVM
+     * supports them.
+     * @param virtualThreads true if virtual threads are used.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Getter for the gain of the portfolio: the number of occurrences which the maximal digrams of the best searches
+     * have in addition to the maximal digrams of the first searches, summed up over all digram searches.
+     * @return the gain of the portfolio over a single search.
+     */
+    public long getPortfolioGain() {
+        return portfolioGain;
+    }
+
+    /**
+     * Setter for parallelReplacement. If true, the rewriting of the occurrences of a digram is planned in parallel
+     * on the threads of the digram search and then committed to the graph in the order of the occurrences, so the
+     * result does not depend on the number of threads. The new edges get other ids than in the sequential
+     * replacement, so the following rounds may differ from it.
+     * @param parallelReplacement true if the occurrences are replaced in parallel.
+     * @see ReplaceWorker
+     */
+    public void setParallelReplacement(boolean parallelReplacement) {
+        this.parallelReplacement = parallelReplacement;
+    }
+
+    /**
+     * Setter for the number of digrams which are replaced in one round. If it is greater than 1, the digrams with the
+     * most occurrences of both lists are replaced in one round, the occurrences which overlap with occurrences of a
+     * digram with more occurrences are left out, see {@link #selectBatch()}. So fewer rounds are needed, but a few
+     * occurrences may be lost.
+     * @param batchSize the maximal number of digrams of a round, 1 for one digram per round.
+     * @see #getRounds()
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Getter for the number of replacement rounds of the compression.
+     * @return the number of rounds.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Setter for the time budget of the compression, which includes the transformation.
+     * @param timeBudget the time budget in milliseconds, 0 for no limit.
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Setter for the maximal number of rounds of the compression.
+     * @param maxRounds the maximal number of rounds, 0 for no limit.
+     * @see #getRounds()
+     */
+    public void setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Setter for the memory budget of the compression. It is checked before each round against the used heap of the
+     * JVM, so it should be set below the maximal heap with room for one round.
+     * @param memoryBudget the maximal used heap in bytes, 0 for no limit.
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Cancels the compression, which may be called from another thread. The running round is finished and then
+     * {@link #graphCompression(boolean)} returns the grammar of the current graph. The cancellation only applies to
+     * the running compression, the next call of graphCompression starts uncancelled.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Indicates whether the last compression replaced digrams until no digram had an occurrence, i.e. it was neither
+     * cancelled nor stopped by a budget.
+     * @return true if the compression is complete, else false.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Setter for the degree above which a node is treated as a hub by the search of adjacency digrams. The pairs of
+     * incident edges of a hub are not enumerated, instead the edges are grouped and only disjoint pairs of the groups
+     * are taken.
+     * @param hubDegree the degree above which a node is a hub, Integer.MAX_VALUE to enumerate all pairs.
+     * @see AdjacencyDigramList#setHubLimits(int, int)
+     */
+    public void setHubDegree(int hubDegree) {
+        this.hubDegree = hubDegree;
+    }
+
+    /**
+     * Setter for the maximal number of groups of incident edges of a hub which are paired, the smaller groups are left
+     * out.
+     * @param maxHubGroups the maximal number of groups of a hub.
+     * @see AdjacencyDigramList#setHubLimits(int, int)
+     */
+    public void setMaxHubGroups(int maxHubGroups) {
+        this.maxHubGroups = maxHubGroups;
+    }
+
+    /**
+     * Setter for the order in which the digram search visits the edges and nodes, the default is
+     * {@link OccurrenceOrder#SHUFFLED}.
+     * @param occurrenceOrder the order of the digram search.
+     */
+    public void setOccurrenceOrder(OccurrenceOrder occurrenceOrder) {
+        this.occurrenceOrder = occurrenceOrder;
+    }
 
+    /**
+     * Setter for the seed of the random generator. A compression of the same graph with the same seed and order
+     * produces the same result, independent of the number of threads.
+     * @param seed the seed of the random generator.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
 
-        return allGraphs;
+    /**
+     * Getter for the seed of the random generator, which is chosen randomly if it is not set.
+     * @return the seed of the random generator.
+     */
+    public long getSeed() {
+        return seed;
     }
 
+    /**
+     * Finds all active digrams of the graph in parallel, the edges and nodes are visited in the order of the
+     * occurrenceOrder.
+     */
     private void findAllDigrams() {
-        // start all search workers
-        List<String> labels = getAllDuplicatedLabelsLabels(graph);
-        for (int i = 0; i < workers.length; i++) {
-            workers[i] = new SearchWorker(appliedDigrams, graph, labels);
+        BitSet labels = getAllDuplicatedLabelsLabels(graph);
+        int[] edges = graph.getStore().getEdgeIds();
+        int[] nodes = graph.getStore().getNodeIds();
+
+        if (portfolioSize > 1) {
+            findAllDigramsInPortfolio(labels, edges, nodes);
+        } else {
+            occurrenceOrder.order(edges, nodes, graph, random);
+            SearchWorker worker = new SearchWorker(appliedDigrams, graph, labels, edges, nodes, cancelled);
+            worker.setHubLimits(hubDegree, maxHubGroups);
+            invokeSearch(worker);
+            if (cancelled.get()) {
+                // the lists of a cancelled search are incomplete, the previous lists are kept for the pruning
+                return;
+            }
+            this.basicDigramList = worker.digramListBasicDigrams;
+            this.adjacencyDigramList = worker.digramListAdjacencyDigrams;
+        }
+        if (cancelled.get()) {
+            return;
         }
+        if (incrementalSearch) {
+            basicDigramList.indexOccurrences();
+            adjacencyDigramList.indexOccurrences();
+        }
+    }
 
-        for (SearchWorker worker : workers) {
-            worker.run();
+    /**
+     * Runs a digram search in the search pool. If the compression has a time budget, the search is cancelled when the
+     * budget is exceeded.
+     * @param worker the digram search.
+     */
+    private void invokeSearch(SearchWorker worker) {
+        if (timeBudget <= 0) {
+            searchPool.invoke(worker);
+            return;
+        }
+        try {
+            searchPool.submit(worker).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the search stops as soon as possible and is waited for, so that it does not use the pool anymore
+            cancelled.set(true);
+            worker.join();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("digram search failed", e);
         }
+    }
 
-        for (SearchWorker worker : workers) {
+    /**
+     * Runs several digram searches concurrently, each with its own order of the edges and nodes, and takes the digram
+     * lists with the maximal digrams.
+     * <p>
+     * The searches get the seeds of their orders from the random generator of the compression. The first search is
+     * completed unless the compression is stopped, the other searches are cancelled when the time budget of the
+     * portfolio is exceeded. Without a time budget the result only depends on the seed.
+     *
+     * @see #setPortfolioSize(int)
+     */
+    private void findAllDigramsInPortfolio(BitSet labels, int[] edges, int[] nodes) {
+        long portfolioDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(portfolioTimeBudget);
+        AtomicBoolean portfolioCancelled = new AtomicBoolean();
+        List<Future<SearchWorker>> futures = new ArrayList<>();
+        for (int i = 0; i < portfolioSize; i++) {
+            int[] sampleEdges = edges.clone();
+            int[] sampleNodes = nodes.clone();
+            occurrenceOrder.order(sampleEdges, sampleNodes, graph, random.split());
+            SearchWorker worker = new SearchWorker(appliedDigrams, graph, (BitSet) labels.clone(), sampleEdges, sampleNodes,
+                    i == 0 ? cancelled : portfolioCancelled);
+            worker.setHubLimits(hubDegree, maxHubGroups);
+            futures.add(portfolioExecutor.submit(() -> {
+                searchPool.invoke(worker);
+                return worker;
+            }));
+        }
+
+        List<SearchWorker> workers = new ArrayList<>();
+        for (Future<SearchWorker> future : futures) {
+            if (cancelled.get()) {
+                portfolioCancelled.set(true);
+            }
+            // the first search only stops at the time budget of the compression, the others at the portfolio budget
+            boolean first = workers.isEmpty();
+            long waitUntil = first ? deadline : portfolioDeadline;
             try {
-                worker.join();
-            } catch (InterruptedException e) {
-                System.out.println("error");
+                if (first ? timeBudget <= 0 : (portfolioTimeBudget <= 0 || portfolioCancelled.get())) {
+                    workers.add(future.get());
+                } else {
+                    workers.add(future.get(Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS));
+                }
+            } catch (TimeoutException e) {
+                // the remaining searches stop as soon as possible and are waited for, so that they do not use the pool anymore
+                if (first) {
+                    cancelled.set(true);
+                }
+                portfolioCancelled.set(true);
+                try {
+                    workers.add(future.get());
+                } catch (InterruptedException | ExecutionException e1) {
+                    throw new IllegalStateException("digram search failed", e1);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("digram search failed", e);
             }
         }
 
-        // gather and compare the results of the workers
-        List<BasicDigramList> digramLists = new ArrayList<>();
+        if (cancelled.get()) {
+            return;
+        }
+        SearchWorker best = workers.get(0);
+        BasicDigramList bestDigramList = best.digramListBasicDigrams;
+        AdjacencyDigramList bestAdjDigramList = best.digramListAdjacencyDigrams;
         for (SearchWorker worker : workers) {
-            digramLists.add(worker.digramListBasicDigrams);
+            if (worker.isSearchCancelled()) {
+                continue;
+            }
+            if (getSize(worker.digramListBasicDigrams) > getSize(bestDigramList)) {
+                bestDigramList = worker.digramListBasicDigrams;
+            }
+            if (getSize(worker.digramListAdjacencyDigrams) > getSize(bestAdjDigramList)) {
+                bestAdjDigramList = worker.digramListAdjacencyDigrams;
+            }
         }
+        portfolioGain += Math.max(getSize(bestDigramList), getSize(bestAdjDigramList))
+                - Math.max(getSize(best.digramListBasicDigrams), getSize(best.digramListAdjacencyDigrams));
+        this.basicDigramList = bestDigramList;
+        this.adjacencyDigramList = bestAdjDigramList;
+    }
 
-        BasicDigramList bestDigramList = digramLists.get(0);
-        int bestNoOcc = 0;
-        for (BasicDigramList digramList : digramLists) {
-            BasicDigram maxDigram = (BasicDigram) digramList.getMaxDigram();
-            if (maxDigram != null) {
-                if (maxDigram.getOccurrences().size() > bestNoOcc) {
-                    bestDigramList = digramList;
-                    bestNoOcc = maxDigram.getOccurrences().size();
-                }
+    /**
+     * Gets the number of occurrences of the maximal digram of a digram list.
+     * @param digramList the digram list.
+     * @return the number of occurrences of the maximal digram, 0 if the list has no digram.
+     */
+    private static int getSize(DigramList digramList) {
+        Digram maxDigram = digramList.getMaxDigram();
+        return maxDigram == null ? 0 : maxDigram.getSize();
+    }
+
+    /**
+     * Creates the executor of the digram searches of the portfolio. Virtual threads are used if they are requested
+     * and the JVM provides them, else a thread is started for each search.
+     * @return the executor.
+     */
+    private ExecutorService createPortfolioExecutor() {
+        if (virtualThreads) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // the JVM has no virtual threads, so platform threads are used
             }
         }
-        this.basicDigramList = bestDigramList;
+        return Executors.newFixedThreadPool(portfolioSize);
+    }
 
-        List<AdjacencyDigramList> adjacencyDigramLists = new ArrayList<>();
-        for (SearchWorker worker : workers) {
-            adjacencyDigramLists.add(worker.digramListAdjacencyDigrams);
+    /**
+     * Updates the digram lists after the replacement of the digrams of a round, like in RePair.
+     * <p>
+     * The occurrences which contain a removed edge are removed and the occurrences which contain a new edge are added,
+     * i.e. only the occurrences around the new non terminal nodes are searched. The occurrences which contain an edge
+     * of a freed node are searched again, too.
+     *
+     * @param batch the replaced digrams.
+     * @param delta the changes of the graph by the replacements.
+     */
+    private void updateAllDigrams(List<Digram> batch, GraphDelta delta) {
+        for (Digram appliedDigram : batch) {
+            basicDigramList.removeDigram(appliedDigram);
+            adjacencyDigramList.removeDigram(appliedDigram);
+        }
+        for (Edge edge : delta.getRemovedEdges()) {
+            basicDigramList.removeOccurrences(edge, freedNodes);
+            adjacencyDigramList.removeOccurrences(edge, freedNodes);
         }
 
-        AdjacencyDigramList bestAdjDigramList = adjacencyDigramLists.get(0);
-        bestNoOcc = 0;
-        for (AdjacencyDigramList digramList : adjacencyDigramLists) {
-            AdjacencyDigram maxDigram = (AdjacencyDigram) digramList.getMaxDigram();
-            if (maxDigram != null) {
-                if (maxDigram.getOccurrences().size() > bestNoOcc) {
-                    bestAdjDigramList = digramList;
-                    bestNoOcc = maxDigram.getOccurrences().size();
-                }
+        for (Node node : delta.getRemovedNodes()) {
+            updateLabel(node.getLabelId());
+        }
+        for (Digram appliedDigram : batch) {
+            updateLabel(appliedDigram.getNonterminalId());
+        }
+
+        List<Edge> edges = new ArrayList<>(delta.getAddedEdges());
+        Map<Integer, Node> nodes = graph.getAllNodes();
+        for (int nodeId = freedNodes.nextSetBit(0); nodeId >= 0; nodeId = freedNodes.nextSetBit(nodeId + 1)) {
+            Node node = nodes.get(nodeId);
+            if (node != null) {
+                edges.addAll(graph.getAllIncidentEdges(node));
             }
         }
-        this.adjacencyDigramList = bestAdjDigramList;
+        freedNodes.clear();
+
+        Map<Integer, Node> midNodes = new LinkedHashMap<>();
+        for (Edge edge : edges) {
+            SimpleEdge simpleEdge = (SimpleEdge) edge;
+            if (newEdges.get(simpleEdge.getId())) {
+                continue;
+            }
+            newEdges.set(simpleEdge.getId());
+            basicDigramList.addOccurrence(simpleEdge, appliedDigrams);
+            midNodes.putIfAbsent(simpleEdge.getStartnode().getId(), simpleEdge.getStartnode());
+            midNodes.putIfAbsent(simpleEdge.getEndnode().getId(), simpleEdge.getEndnode());
+        }
+        for (Node midNode : midNodes.values()) {
+            adjacencyDigramList.addDigrams(midNode, newEdges, appliedDigrams, graph);
+        }
+        newEdges.clear();
+    }
+
+    /**
+     * Adds the label to the necessary labels of the digram lists if it occurs at least twice in the graph, else removes it.
+     * @param labelId the id of the label.
+     */
+    private void updateLabel(int labelId) {
+        if (graph.getLabelCount(labelId) > 1) {
+            basicDigramList.addNewLabel(labelId);
+            adjacencyDigramList.addNewLabel(labelId);
+        } else {
+            basicDigramList.removeLabel(labelId);
+            adjacencyDigramList.removeLabel(labelId);
+        }
+    }
+
+
+    /**
+     * Setter for roundTripCheck. If true, the compressed graph of a compression with the transformation is decompressed
+     * after the compression and compared exactly with the input graph. For this the compression records from which
+     * input nodes each node of the compressed graph derives, see {@link NodeOrigins}.
+     * The input graph is not changed by such a compression, so no copy is needed.
+     * @param roundTripCheck true if the round trip is checked.
+     */
+    public void setRoundTripCheck(boolean roundTripCheck) {
+        this.roundTripCheck = roundTripCheck;
+    }
+
+    /**
+     * Getter for the ids of the labels of the edges of the untransformed graph, which are set by the transformation.
+     * @return a copy of the ids of the edge labels.
+     * @see DecompressionControl
+     */
+    public BitSet getEdgeLabels() {
+        return (BitSet) edgeLabels.clone();
     }
 
+    /**
+     * Decompresses the compressed graph and compares it with the input graph.
+     * @param input the input graph of the compression.
+     * @throws IllegalStateException if the decompressed graph differs from the input graph.
+     */
+    private void checkRoundTrip(HyperGraph input) {
+        DecompressionControl decompression = new DecompressionControl(appliedDigrams, edgeLabels);
+        decompression.setParallelism(parallelism);
+        if (!decompression.isRoundTrip(input, graph, nodeOrigins)) {
+            throw new IllegalStateException("the decompressed graph differs from the input graph");
+        }
+    }
 
     /**
      * Trasformation of the uncompressed graph to another graph model.
      * <p>
      * The graph is transformed to a graph which has no hyperedge and no edge labels.
      * This is realized by transforming the graph in such a way that all incident elements become adjacent elements.
+     * In the lazy mode the transformed graph is only a view of the untransformed graph, see {@link #setLazyTransformation(boolean)}.
      *
      * @param untransformedGraph the untransformed graph.
      * @return the transformed graph.
      */
     public HyperGraph transformGraph(HyperGraph untransformedGraph) {
-        HyperGraph graph = new HyperGraph();
-        graph.addAll(untransformedGraph.getAllNodes());
-        HashMap<Integer, Edge> oldEdges = untransformedGraph.getAllEdges();
+        Map<Integer, Edge> oldEdges = untransformedGraph.getAllEdges();
+        for (Edge edge : oldEdges.values()) {
+            edgeLabels.set(((HyperEdge) edge).getLabelId());
+        }
+        if (lazyTransformation) {
+            return new HyperGraph(new TransformedGraphStore(untransformedGraph.getStore()));
+        }
+
+        HyperGraph graph = new HyperGraph(untransformedGraph.getStore().newInstance());
+        IdAllocator ids = graph.getIdAllocator();
+
+        //the nodes get new dense ids in the transformed graph
+        Map<Integer, Node> newNodes = new HashMap<>();
+        for (Node node : untransformedGraph.getAllNodes().values()) {
+            Node newNode = new Node(ids.nextNodeId(), node.getLabelId());
+            newNodes.put(node.getId(), newNode);
+            graph.add(newNode);
+            if (nodeOrigins != null) {
+                nodeOrigins.setInputNode(newNode.getId(), node.getId());
+            }
+        }
 
         //Foreach HyperEdge "edge"  in the untransformed HyperGraph
         for (Map.Entry<Integer, Edge> entry : oldEdges.entrySet()) {
             HyperEdge edge = (HyperEdge) entry.getValue();
-            Node node = new Node(edge.getLabel());
+            Node node = new Node(ids.nextNodeId(), edge.getLabelId());
             graph.add(node);
             for (Node startnode : edge.getStartnodes()) {
-                graph.add(new SimpleEdge(startnode, 1, node, 1));
+                graph.add(new SimpleEdge(ids, newNodes.get(startnode.getId()), 1, node, 1));
             }
             for (Node endnode : edge.getEndnodes()) {
-                graph.add(new SimpleEdge(node, 1, endnode, 1));
+                graph.add(new SimpleEdge(ids, node, 1, newNodes.get(endnode.getId()), 1));
             }
 
         }
@@ -186,114 +996,98 @@ public class CompressionControl {
     }
 
 
-    /**
-     * @param edge
-     * @param occ
-     * @return
-     */
-    private Node getNodeInEdgeAndOccurrence(SimpleEdge edge, DigramOccurrence occ) {
-        for (Node nodeOcc : occ.getNodes()) {
-            if (nodeOcc.equals(edge.getStartnode()) || nodeOcc.equals(edge.getEndnode())) {
-                return nodeOcc;
-            }
+    private static Node getNodeInEdge(SimpleEdge edge, int nodeId) {
+        if (edge.getStartnode().getId() == nodeId) {
+            return edge.getStartnode();
         }
-        return null;
+        return edge.getEndnode().getId() == nodeId ? edge.getEndnode() : null;
     }
 
-    /**
-     * For the given edge compute a new equiv class at start or end node.
-     *
-     * @param tuples         Contains all equiv class mapping inner -> outer
-     * @param edge           The relevant edge
-     * @param endOrStartNode one of the nodes of the edge
-     * @return the new equiv class number
-     */
-    private int getNewEquivClassForEdge(List<Tuple<Integer, Integer>> tuples, SimpleEdge edge, Node endOrStartNode) {
-        for (Tuple<Integer, Integer> equivTuple : tuples) {
-            if (equivTuple.x == edge.getEquivalenceClass(endOrStartNode)) {
-                return equivTuple.y;
-            }
-        }
-        // this never happens
-        throw new RuntimeException("unable to compute new equiv class");
-    }
-
-
     /**
      * This method replaces all associated appliedDigrams of the digram in the graph.
+     * <p>
+     * Each occurrence only visits the incident edges of its two outer nodes, so a replacement takes time proportional
+     * to the sum of the degrees of the occurrences. The outer nodes are replaced by a new non terminal node and their
+     * incident edges are redirected to it. An edge between the two outer nodes which is not an internal edge becomes
+     * a loop of the new node, so no edge keeps a removed node.
      *
      * @param digram the digram for which the method will be executed.
      */
     private void replaceAllOccurrences(Digram digram) {
 
-        digram.setNonterminal();
-        for (DigramOccurrence occ : digram.getOccurrences()) {
-            Node newNode = new Node(digram.getNonterminal());
+        IdAllocator ids = graph.getIdAllocator();
+        int nonterminalNumber;
+        int nonterminalId;
+        do {
+            // the label of a non terminal is unique in the graph, but not in the process
+            nonterminalNumber = ids.nextNonterminal();
+            nonterminalId = LabelDictionary.getId("A_" + nonterminalNumber);
+        } while (inputLabels.get(nonterminalId));
+        digram.setNonterminal(nonterminalId, nonterminalNumber);
+        if (parallelReplacement) {
+            ReplaceWorker worker = new ReplaceWorker(digram, graph);
+            if (nodeOrigins != null) {
+                worker.recordNodeOrigins(nodeOrigins);
+            }
+            searchPool.invoke(worker);
+            worker.commit();
+            return;
+        }
+        Map<Integer, Edge> edges = graph.getAllEdges();
+        OccurrenceTable occurrences = digram.getOccurrences();
+        for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+            int nodeId1 = occurrences.getNode1(slot);
+            int nodeId2 = occurrences.getNode2(slot);
+            SimpleEdge edge1 = (SimpleEdge) edges.get(occurrences.getEdge1(slot));
+            Node node1 = getNodeInEdge(edge1, nodeId1);
+            Node node2 = occurrences.getEdge2(slot) == OccurrenceTable.NONE ? getNodeInEdge(edge1, nodeId2)
+                    : getNodeInEdge((SimpleEdge) edges.get(occurrences.getEdge2(slot)), nodeId2);
+            Node newNode = new Node(ids, digram.getNonterminal());
             graph.add(newNode);
-            List<Edge> allEdges = new ArrayList<>(graph.getAllEdges().values());
-
-            boolean edgeForMidNodeAlreadyCreated = false;
-            for (int i = 0; i < allEdges.size(); i++) {
-                SimpleEdge oldEdge = (SimpleEdge) allEdges.get(i);
-                Node nodeOcc = getNodeInEdgeAndOccurrence(oldEdge, occ);
-                if (nodeOcc == null) {
-                    // in this case the oldEdge is not incident to occ, so nothing to do
-                    continue;
+            if (nodeOrigins != null) {
+                nodeOrigins.addNonterminal(newNode.getId(), nodeId1, nodeId2);
+            }
+
+            List<SimpleEdge> incidentEdges = graph.getAllIncidentEdges(node1);
+            for (SimpleEdge edge : graph.getAllIncidentEdges(node2)) {
+                // an edge between the outer nodes is already incident to the first node
+                if (getNodeInEdge(edge, nodeId1) == null) {
+                    incidentEdges.add(edge);
                 }
-                if (occ.getEdges().contains(oldEdge)) {
-                    // in this case, the edge is removed and no new edge is inserted
-
-                    if ((occ instanceof AdjacencyDigramOccurrence) && !edgeForMidNodeAlreadyCreated) {
-                        Node nodeMiddle;
-                        if (nodeOcc.equals(oldEdge.getStartnode())) {
-                            nodeMiddle = oldEdge.getEndnode();
-                        } else {
-                            nodeMiddle = oldEdge.getStartnode();
-                        }
-
-                        if (!edgeForMidNodeAlreadyCreated) {
-                            int equivClassMidNode = digram.getMapEquivClasses().get("midNode").get(0).y;
-                            SimpleEdge newEdge = new SimpleEdge(nodeMiddle, oldEdge.getEquivalenceClass(nodeMiddle), newNode, equivClassMidNode);
-                            allEdges.remove(i);
-                            allEdges.add(i, newEdge);
-                            graph.getAllNodes().remove(nodeOcc.getId(), nodeOcc);
-                            edgeForMidNodeAlreadyCreated = true;
-                        }
-                    } else {
-
-                        graph.getAllNodes().remove(nodeOcc.getId(), nodeOcc);
-                        allEdges.remove(i);
-                        i--;
+            }
+
+            for (SimpleEdge oldEdge : incidentEdges) {
+                graph.delete(oldEdge);
+                if (occurrences.containsEdge(slot, oldEdge.getId())) {
+                    // in this case, the edge is removed and only the mid node is connected to the new node, by one
+                    // edge for each outer node if the mid node is split
+                    int midEquivClass = oldEdge.getId() == edge1.getId() ? digram.getMidEquivClass() : digram.getMidEquivClass2();
+                    if (occurrences.getMidNode(slot) != OccurrenceTable.NONE
+                            && (oldEdge.getId() == edge1.getId() || midEquivClass != digram.getMidEquivClass())) {
+                        Node nodeMiddle = getNodeInEdge(oldEdge, occurrences.getMidNode(slot));
+                        graph.add(new SimpleEdge(ids, nodeMiddle, oldEdge.getEquivalenceClass(nodeMiddle), newNode, midEquivClass));
                     }
                     continue;
                 }
 
-
                 // now we have an oldEdge incident to occ
-                // we want to construct a newEdge to replace oldEdge
-                SimpleEdge newEdge = null;
-                String mapKey = nodeOcc.equals(occ.getNode1()) ? "startNode" : "endNode";
-                List<Tuple<Integer, Integer>> tuples = digram.getMapEquivClasses().get(mapKey);
-
-                if (nodeOcc.equals(oldEdge.getStartnode())) {
-                    int newEquivClass = getNewEquivClassForEdge(tuples, oldEdge, oldEdge.getStartnode());
-                    newEdge = new SimpleEdge(newNode, newEquivClass, oldEdge.getEndnode(), oldEdge.getEquivalenceClass(oldEdge.getEndnode()));
-                } else if (nodeOcc.equals(oldEdge.getEndnode())) {
-                    int newEquivClass = getNewEquivClassForEdge(tuples, oldEdge, oldEdge.getEndnode());
-                    newEdge = new SimpleEdge(oldEdge.getStartnode(), oldEdge.getEquivalenceClass(oldEdge.getStartnode()),
-                            newNode, newEquivClass);
+                // we want to construct a newEdge to replace oldEdge, each end in occ is moved to the new node
+                Node startNode = oldEdge.getStartnode();
+                Node endNode = oldEdge.getEndnode();
+                int startEquivClass = oldEdge.getStartEquivalenceClass();
+                int endEquivClass = oldEdge.getEndEquivalenceClass();
+                if (startNode.getId() == nodeId1 || startNode.getId() == nodeId2) {
+                    startEquivClass = digram.getNewEquivClass(startNode.getId() == nodeId1, startEquivClass);
+                    startNode = newNode;
                 }
-
-                graph.getAllNodes().remove(nodeOcc.getId(), nodeOcc);
-                allEdges.remove(i);
-                allEdges.add(i, newEdge);
-
-            }
-            graph.getAllEdges().clear();
-            for (Edge edge : allEdges) {
-                graph.getAllEdges().put(edge.getId(), edge);
+                if (endNode.getId() == nodeId1 || endNode.getId() == nodeId2) {
+                    endEquivClass = digram.getNewEquivClass(endNode.getId() == nodeId1, endEquivClass);
+                    endNode = newNode;
+                }
+                graph.add(new SimpleEdge(ids, startNode, startEquivClass, endNode, endEquivClass));
             }
-
+            graph.delete(node1);
+            graph.delete(node2);
         }
     }
 
@@ -326,44 +1120,13 @@ public class CompressionControl {
      * This method finds all labels in the graph which are necessary for the compression.
      * <p>
      * A label is called necessary iff the label occurs at least twice in the graph.
+     * The labels are counted by the graph itself, so this takes O(#labels).
      *
      * @param graph the graph for which the method will be executed.
-     * @return all necessary different labels.
+     * @return the ids of all necessary different labels.
      */
-    public LinkedList<String> getAllDuplicatedLabelsLabels(HyperGraph graph) {
-        HashMap<String, Integer> labelCounter = new HashMap<>();
-
-        //Find All different Labels with more then 2 occurences
-        //foreach Node in graph
-        for (Map.Entry<Integer, Node> entry : graph.getAllNodes().entrySet()) {
-            Node node = entry.getValue();
-            if (!labelCounter.containsKey(node.getLabel())) {
-                labelCounter.put(node.getLabel(), 0);
-            }
-            labelCounter.replace(node.getLabel(), labelCounter.get(node.getLabel()) + 1);
-        }
-        LinkedList<String> labels = new LinkedList<>();
-        for (Map.Entry<String, Integer> entry : labelCounter.entrySet()) {
-            if (entry.getValue() > 1) {
-                labels.add(entry.getKey());
-            }
-        }
-        return labels;
-    }
-
-    /**
-     * This method checks if the edge overlaps with a digram and perhaps adds a new digram.
-     * <p>
-     * This method checks whether the corresponding occurrence in the digram contains some of the incident nodes of the edge.
-     * If the digram does not contain some of the node, an occurrence for the edge is added to the corresponding digram.
-     *
-     * @param edge the edge for which the method will be executed.
-     */
-    public static void checkAndAddEdgeToDigram(SimpleEdge edge, BasicDigramList digramList, List<Digram> appliedDigrams) {
-        BasicDigram digram = digramList.getDigram(edge, appliedDigrams);
-        if (digram != null && !digram.containsNode(edge.getStartnode().getId()) && !digram.containsNode(edge.getEndnode().getId())) {
-            digram.addOccurrence(edge);
-        }
+    public BitSet getAllDuplicatedLabelsLabels(HyperGraph graph) {
+        return graph.getDuplicatedLabels();
     }
 
     /**
@@ -377,7 +1140,7 @@ public class CompressionControl {
     private void pruning(HyperGraph graph, LinkedList<Digram> digrams) {
         LinkedList<Digram> tmpDigrams = (LinkedList<Digram>) digrams.clone();
         for (Digram digram : tmpDigrams) {
-            String nt = digram.getNonterminal();
+            int nt = digram.getNonterminalId();
             Tuple<BasicDigram, Integer> occurrences = getNTOccurrencesDigram(nt);
             if (!graph.containsNode(nt) && occurrences.y == 1) {
                 occurrences.x.inlineDigram(digram);
@@ -388,88 +1151,105 @@ public class CompressionControl {
 
     /**
      * This method optimizes the number of elements by replacing two edges with an incedent node to a new edge with a label.
+     * The new edge has no equivalence classes, so only edges with the equivalence class 1 at both ends are replaced.
+     * <p>
+     * The degrees of all nodes are counted in one pass over the edges, so the method takes time linear in the size of
+     * the graph. The graph is read by the ids, so objects are only created for the replaced nodes and edges. The edges
+     * of a replaced node are marked as consumed, so no edge is replaced twice. All replacements are applied at the end
+     * and the consumed edges are deleted at once.
      *
      * @param graph the graph for which the method will be executed.
      * @return the optimized graph.
      */
     private HyperGraph edgeOptimization(HyperGraph graph) {
-        LinkedList<SimpleEdge> usedEdges = new LinkedList<>();
-        LinkedList<Object[]> nodeDigrams = new LinkedList<>();
+        GraphStore store = graph.getStore();
+        IdAllocator ids = graph.getIdAllocator();
+        int[] inDegrees = new int[ids.getNodeIdBound()];
+        int[] outDegrees = new int[ids.getNodeIdBound()];
+        int[] incomingEdges = new int[ids.getNodeIdBound()];
+        int[] outgoingEdges = new int[ids.getNodeIdBound()];
+        for (int edgeId : store.getEdgeIds()) {
+            if (store.isSimpleEdge(edgeId)) {
+                int startNodeId = store.getStartNodeId(edgeId);
+                int endNodeId = store.getEndNodeId(edgeId);
+                outDegrees[startNodeId]++;
+                outgoingEdges[startNodeId] = edgeId;
+                inDegrees[endNodeId]++;
+                incomingEdges[endNodeId] = edgeId;
+            }
+        }
 
         //find all nodes for which the edgeOptimization can be applied.
-
         //find first all nodes which have been edges in the untransformed graph. It results in a better efficiency.
-        for (Map.Entry<Integer, Node> entry : graph.getAllNodes().entrySet()) {
-            Node node = entry.getValue();
-            LinkedList<SimpleEdge> incidentEdges = graph.getAllIncidentEdges(node);
-            if (node.getLabel().charAt(0) == 'e' && incidentEdges.size() == 2 && checkCorrectDirection(incidentEdges, node) && !usedEdges.contains(incidentEdges.getFirst()) && !usedEdges.contains(incidentEdges.getLast())) {
-                usedEdges.add(incidentEdges.getFirst());
-                usedEdges.add(incidentEdges.getLast());
-                nodeDigrams.add(new Object[]{incidentEdges.getFirst(), node, incidentEdges.getLast()});
+        BitSet consumedEdges = new BitSet(ids.getEdgeIdBound());
+        int[] nodeIds = store.getNodeIds();
+        int[] replacedNodes = new int[nodeIds.length];
+        int numReplacedNodes = 0;
+        for (boolean formerEdges : new boolean[]{true, false}) {
+            for (int id : nodeIds) {
+                int incomingEdge = incomingEdges[id];
+                int outgoingEdge = outgoingEdges[id];
+                if (edgeLabels.get(store.getNodeLabelId(id)) == formerEdges && inDegrees[id] == 1 && outDegrees[id] == 1
+                        && incomingEdge != outgoingEdge && hasDefaultEquivalenceClasses(store, incomingEdge, outgoingEdge)
+                        && !consumedEdges.get(incomingEdge) && !consumedEdges.get(outgoingEdge)) {
+                    consumedEdges.set(incomingEdge);
+                    consumedEdges.set(outgoingEdge);
+                    replacedNodes[numReplacedNodes++] = id;
+                }
             }
         }
 
-        //find all other necessary nodes.
-        for (Map.Entry<Integer, Node> entry : graph.getAllNodes().entrySet()) {
-            Node node = entry.getValue();
-            LinkedList<SimpleEdge> incidentEdges = graph.getAllIncidentEdges(node);
-            if (incidentEdges.size() == 2 && checkCorrectDirection(incidentEdges, node) && !usedEdges.contains(incidentEdges.getFirst()) && !usedEdges.contains(incidentEdges.getLast())) {
-                usedEdges.add(incidentEdges.getFirst());
-                usedEdges.add(incidentEdges.getLast());
-                nodeDigrams.add(new Object[]{incidentEdges.getFirst(), node, incidentEdges.getLast()});
+        //execute for all replaced nodes the replacement, only the objects of the replaced elements are created.
+        Map<Integer, Node> nodes = graph.getAllNodes();
+        Map<Integer, Edge> edges = graph.getAllEdges();
+        List<Edge> removedEdges = new ArrayList<>(2 * numReplacedNodes);
+        List<Node> removedNodes = new ArrayList<>(numReplacedNodes);
+        for (int i = 0; i < numReplacedNodes; i++) {
+            int id = replacedNodes[i];
+            int incomingEdge = incomingEdges[id];
+            int outgoingEdge = outgoingEdges[id];
+            Node node = nodes.get(id);
+            HyperEdge hyperEdge = new HyperEdge(ids, new Node[]{nodes.get(store.getStartNodeId(incomingEdge))},
+                    new Node[]{nodes.get(store.getEndNodeId(outgoingEdge))}, node.getLabel());
+            graph.add(hyperEdge);
+            if (nodeOrigins != null) {
+                nodeOrigins.addReplacedNode(hyperEdge.getId(), id);
             }
+            removedEdges.add(edges.get(incomingEdge));
+            removedEdges.add(edges.get(outgoingEdge));
+            removedNodes.add(node);
         }
-
-
-        //execute for all node in nodeDigrams the replacement.
-        for (Object[] nodeDigram : nodeDigrams) {
-            SimpleEdge incommingEdge = (SimpleEdge) nodeDigram[0];
-            SimpleEdge outcommingEdge = (SimpleEdge) nodeDigram[2];
-            Node node = (Node) nodeDigram[1];
-            graph.add(new HyperEdge(new Node[]{incommingEdge.getStartnode()}, new Node[]{outcommingEdge.getEndnode()}, node.getLabel()));
-
-            graph.delete(incommingEdge);
-            graph.delete(outcommingEdge);
+        graph.deleteAll(removedEdges);
+        for (Node node : removedNodes) {
             graph.delete(node);
         }
         return graph;
     }
 
     /**
-     * Checks if two edges are incident to the node and one is an incoming edge and the other one is an outgoing edge.
+     * Checks if all edges have the equivalence class 1 at both ends, which is the class that the decompression gives to
+     * the two edges of a node which was replaced by an edge.
      *
-     * @param edges the edges for which the method will be executed.
-     * @param node  the node for which the method will be executed.
-     * @return true if the edges are both incident to the node an one is an incoming and the other one is an outgoing edge, else false.
+     * @param store the store of the graph.
+     * @param edgeIds the ids of the simple edges for which the method will be executed.
+     * @return true if all edges have the equivalence class 1 at both ends, else false.
      */
-    private boolean checkCorrectDirection(LinkedList<SimpleEdge> edges, Node node) {
-        SimpleEdge enteringEdge = null;
-        SimpleEdge leavingEdge = null;
-        for (SimpleEdge edge : edges) {
-            if (edge.getStartnode().equals(node)) {
-                leavingEdge = edge;
-            } else if (edge.getEndnode().equals(node)) {
-                enteringEdge = edge;
+    private boolean hasDefaultEquivalenceClasses(GraphStore store, int... edgeIds) {
+        for (int edgeId : edgeIds) {
+            if (store.getStartEquivalenceClass(edgeId) != 1 || store.getEndEquivalenceClass(edgeId) != 1) {
+                return false;
             }
-
-        }
-        if (leavingEdge != null) {
-            edges.remove(leavingEdge);
-            edges.addLast(leavingEdge);
         }
-
-
-        return (enteringEdge != null && leavingEdge != null);
-
+        return true;
     }
 
     /**
      * Counts how often the label is contained in the appliedDigrams.
      *
-     * @param nt the label for which the method will be executed.
+     * @param nt the label id for which the method will be executed.
      * @return the number of occurrences in all appliedDigrams.
      */
-    private Tuple<BasicDigram, Integer> getNTOccurrencesDigram(String nt) {
+    private Tuple<BasicDigram, Integer> getNTOccurrencesDigram(int nt) {
         BasicDigram currentDigram = null;
         int counter = 0;
         for (Digram digram : basicDigramList.getAllActiveDigrams()) {
@@ -484,15 +1264,9 @@ public class CompressionControl {
     }
 
     /**
-     * add a graph and its applied appliedDigrams to the intermediate results.
-     *
-     * @param graph   the current graph for the compression interstate.
-     * @param digrams the current appliedDigrams for the compression interstate.
+     * Getter for the graph of the compression, which is the compressed graph after the compression.
+     * @return the graph.
      */
-    private void addCurrentGraph(HyperGraph graph, LinkedList<Digram> digrams) {
-        allGraphs.add(new Tuple<>(graph.clone(), (LinkedList<Digram>) digrams.clone()));
-    }
-
     public HyperGraph getGraph() {
         return graph;
     }
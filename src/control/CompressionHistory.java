@@ -0,0 +1,144 @@
+package control;
+
+import model.Digram.Digram;
+import model.Graph.GraphDelta;
+import model.Graph.HyperGraph;
+import model.Tuple;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a class for all intermediate compression results.
+ *
+ * Instead of a copy of the graph for each step, only copies of the input graphs of the compression (checkpoints) and
+ * the changes of all following steps are stored. A step is materialized on demand by applying the changes to a copy of
+ * its checkpoint. Consecutive steps are materialized from the previously requested step, so a sequential pass over all
+ * steps copies each graph only once.
+ *
+ * @see CompressionControl
+ */
+class CompressionHistory extends AbstractList<Tuple<HyperGraph, List<Digram>>> {
+
+    /**
+     * A step of the compression.
+     */
+    private static class Step {
+
+        /**
+         * the index of the step with the checkpoint on which this step is based.
+         */
+        private final int checkpointStep;
+
+        /**
+         * the copy of the graph for a checkpoint, else null.
+         */
+        private final HyperGraph checkpoint;
+
+        /**
+         * the changes in comparison to the previous step, null for a checkpoint.
+         */
+        private final GraphDelta delta;
+
+        /**
+         * the applied digrams of the step, null if the digrams are the first digrams applied in the rounds.
+         */
+        private final List<Digram> digrams;
+
+        /**
+         * the number of round digrams which are applied in this step.
+         */
+        private final int numRoundDigrams;
+
+        Step(int checkpointStep, HyperGraph checkpoint, GraphDelta delta, List<Digram> digrams, int numRoundDigrams) {
+            this.checkpointStep = checkpointStep;
+            this.checkpoint = checkpoint;
+            this.delta = delta;
+            this.digrams = digrams;
+            this.numRoundDigrams = numRoundDigrams;
+        }
+    }
+
+    /**
+     * all steps of the compression.
+     */
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * the digrams applied in the replacement rounds in the order of their application.
+     */
+    private final List<Digram> roundDigrams = new ArrayList<>();
+
+    /**
+     * the graph of the last materialized step.
+     */
+    private HyperGraph cursorGraph;
+
+    /**
+     * the index of the last materialized step.
+     */
+    private int cursorStep = -1;
+
+    /**
+     * Adds a step with a copy of the whole graph.
+     * @param graph the graph of the step.
+     * @param digrams the applied digrams of the step.
+     */
+    void addGraph(HyperGraph graph, List<Digram> digrams) {
+        steps.add(new Step(steps.size(), graph.clone(), null, new ArrayList<>(digrams), 0));
+    }
+
+    /**
+     * Adds a replacement round, the applied digrams are the digrams of all previous rounds and the new digram.
+     * @param delta the changes of the graph in this round.
+     * @param digram the digram which is applied in this round.
+     */
+    void addRound(GraphDelta delta, Digram digram) {
+        roundDigrams.add(digram);
+        steps.add(new Step(getLastCheckpointStep(), null, delta, null, roundDigrams.size()));
+    }
+
+    /**
+     * Adds a step which is based on the changes of the graph.
+     * @param delta the changes of the graph in comparison to the previous step.
+     * @param digrams the applied digrams of the step.
+     */
+    void addChanges(GraphDelta delta, List<Digram> digrams) {
+        steps.add(new Step(getLastCheckpointStep(), null, delta, new ArrayList<>(digrams), 0));
+    }
+
+    /**
+     * Getter for the index of the last checkpoint step.
+     * @return the index of the last checkpoint step.
+     */
+    private int getLastCheckpointStep() {
+        return steps.get(steps.size() - 1).checkpointStep;
+    }
+
+    /**
+     * Materializes the graph and the applied digrams of a step.
+     * @param index the index of the step.
+     * @return a new copy of the graph of the step and its applied digrams.
+     */
+    @Override
+    public Tuple<HyperGraph, List<Digram>> get(int index) {
+        Step step = steps.get(index);
+        if (cursorGraph == null || cursorStep > index || steps.get(cursorStep).checkpointStep != step.checkpointStep) {
+            cursorGraph = steps.get(step.checkpointStep).checkpoint.clone();
+            cursorStep = step.checkpointStep;
+        }
+        while (cursorStep < index) {
+            cursorStep++;
+            steps.get(cursorStep).delta.applyTo(cursorGraph);
+        }
+
+        List<Digram> digrams = step.digrams != null ? step.digrams : roundDigrams.subList(0, step.numRoundDigrams);
+        return new Tuple<>(cursorGraph.clone(), new ArrayList<>(digrams));
+    }
+
+    @Override
+    public int size() {
+        return steps.size();
+    }
+}
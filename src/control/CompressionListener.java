@@ -0,0 +1,50 @@
+package control;
+
+import model.Digram.Digram;
+import model.Graph.HyperGraph;
+
+import java.util.List;
+
+/**
+ * This is an interface for the observation of a compression step by step.
+ *
+ * The methods are called on the thread of the compression while the compression waits, so the graph must not be
+ * changed and must not be used after the call returns, because the compression changes it. A listener can stop the
+ * compression by {@link CompressionControl#cancel()}. Nothing is stored for the listener, so a compression with a
+ * listener needs no more memory than without.
+ *
+ * @see CompressionControl#addCompressionListener(CompressionListener)
+ */
+public interface CompressionListener {
+
+    /**
+     * Called when a phase of the compression is finished.
+     * @param phase the phase.
+     * @param graph the graph after the phase.
+     * @param appliedDigrams the applied digrams after the phase, which must not be changed.
+     */
+    default void phaseFinished(CompressionPhase phase, HyperGraph graph, List<Digram> appliedDigrams) {
+    }
+
+    /**
+     * Called before the occurrences of a digram are replaced.
+     * @param round the index of the replacement round, starting with 0, a round may replace several digrams.
+     * @param digram the digram, whose associated occurrences are replaced.
+     * @param graph the graph before the replacement.
+     */
+    default void roundStarted(int round, Digram digram, HyperGraph graph) {
+    }
+
+    /**
+     * Called after the occurrences of a digram were replaced.
+     * @param round the index of the replacement round, starting with 0, a round may replace several digrams.
+     * @param digram the applied digram.
+     * @param numOccurrences the number of replaced occurrences.
+     * @param nodeDelta the change of the number of nodes of the graph.
+     * @param edgeDelta the change of the number of edges of the graph.
+     * @param graph the graph after the replacement.
+     */
+    default void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta, int edgeDelta,
+                               HyperGraph graph) {
+    }
+}
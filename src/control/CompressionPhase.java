@@ -0,0 +1,34 @@
+package control;
+
+/**
+ * This is an enum for the phases of a compression, in the order in which they are executed.
+ *
+ * @see CompressionListener#phaseFinished(CompressionPhase, model.Graph.HyperGraph, java.util.List)
+ */
+public enum CompressionPhase {
+
+    /**
+     * the compression started with the input graph.
+     */
+    INPUT,
+
+    /**
+     * the input graph was transformed, the graph is not changed by a compression without the transformation.
+     */
+    TRANSFORMATION,
+
+    /**
+     * the replacement rounds are finished, because no digram has an occurrence or the compression was stopped.
+     */
+    REPLACEMENT,
+
+    /**
+     * the applied digrams were pruned, the graph is not changed.
+     */
+    PRUNING,
+
+    /**
+     * the edges were optimized, the graph is the compressed graph.
+     */
+    EDGE_OPTIMIZATION
+}
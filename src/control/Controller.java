@@ -3,15 +3,15 @@ package control;
 import model.*;
 import model.Digram.BasicDigram;
 import model.Digram.Digram;
+import model.DigramOccurrence.OccurrenceTable;
 import model.Graph.Edge;
 import model.Graph.Node;
 import model.Graph.HyperGraph;
-import model.Graph.SimpleEdge;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 
 /**
  * This is a class for the controlling of the compression-process for a
@@ -19,13 +19,14 @@ import java.util.Map.Entry;
  *
  * This class manages all necessary things for the compression, like the import
  * of new graphs and manages the step-by-step-simulation of the compression. For
- * the step-by-step-simulation of the compression the entire compression process
- * is executed first and then the all steps are simulated step-by-step.
+ * the step-by-step-simulation the Controller listens to the compression, which
+ * is paused at each step until the next step is requested, so the first step
+ * is displayed at once and no intermediate graph is stored.
  *
  * @author Matthias Duerksen
  *
  */
-class Controller extends Thread {
+class Controller extends Thread implements CompressionListener {
 
 	/**
 	 * Indicates whether the compression is started.
@@ -48,6 +49,12 @@ class Controller extends Thread {
 	 */
 	private final MyFrame guiController;
 
+	/**
+	 * The description of the current graph, which is displayed at the next
+	 * event of the compression, null if the current graph is displayed.
+	 */
+	private String pendingText;
+
 	/**
 	 * Constructor for Controller.
 	 * 
@@ -91,95 +98,107 @@ class Controller extends Thread {
 	public void graphCompression() {
 		if (graph != null) {
 			CompressionControl compressionControl = new CompressionControl(graph);
-
-			List<Tuple<HyperGraph, List<Digram>>> tuples = compressionControl.graphCompression(true);
+			compressionControl.addCompressionListener(this);
+			pendingText = null;
 			guiController.setButtonNextStep();
-			displayCompression(tuples);
+			compressionControl.graphCompression(true);
 		} else {
 			System.out.println("NoGraphInput");
 		}
 	}
 
-	/**
-	 * Performs the whole step-by-step simulation for the executed compression
-	 * of the input graph.
-	 * 
-	 * @param tuples
-	 *            compression results of the compression of the graph.
-	 */
-	private void displayCompression(List<Tuple<HyperGraph, List<Digram>>> tuples) {
-		for (Tuple<HyperGraph, List<Digram>> tuple : tuples) {
-			HyperGraph graph = tuple.x;
-			List<Digram> digrams = tuple.y;
-
-			String textAreaLine = "";
-			int currentIndex = tuples.indexOf(tuple);
-
-			if (currentIndex == 0) {
-				textAreaLine += "Untransformed Graph " + graph.getAllNodes().size() + " Nodes, "
-						+ graph.getAllEdges().size() + " Edges";
-			} else if (currentIndex == 1) {
-				textAreaLine += "Transformed Graph";
-			} else if (currentIndex == tuples.size() - 1) {
-				textAreaLine += "Compressed Graph\nFinished";
-				guiController.compressionFinished();
-			} else if (currentIndex == tuples.size() - 2) {
-				textAreaLine += "Pruning";
-			} else {
-				BasicDigram lastDigram = (BasicDigram) digrams.get(digrams.size()-1);
-				textAreaLine += lastDigram.toStringUnpruned();
-			}
-
-			Tuple<List<Node>, List<Edge>> markedElements = getNodesToMark(tuples, currentIndex + 1);
-			BasicDigram currentDigram = null;
-			if (0 < currentIndex && currentIndex < tuples.size() - 3 && tuples.get(currentIndex + 1).y.size() > 0)
-				currentDigram = (BasicDigram) tuples.get(currentIndex + 1).y.get(tuples.get(currentIndex + 1).y.size()-1);
+	@Override
+	public void phaseFinished(CompressionPhase phase, HyperGraph graph, List<Digram> appliedDigrams) {
+		switch (phase) {
+		case INPUT:
+			displayStep(graph, "Untransformed Graph " + graph.getAllNodes().size() + " Nodes, "
+					+ graph.getAllEdges().size() + " Edges", null);
+			break;
+		case TRANSFORMATION:
+			pendingText = "Transformed Graph";
+			break;
+		case PRUNING:
+			displayPendingStep(graph, null);
+			displayStep(graph, "Pruning", null);
+			break;
+		case EDGE_OPTIMIZATION:
+			guiController.refreshGraph(graph, "Compressed Graph\nFinished", getElementsToMark(graph, null), null);
+			guiController.compressionFinished();
+			guiController.showAllDigrams(appliedDigrams);
+			break;
+		default:
+			break;
+		}
+	}
 
-			guiController.refreshGraph(graph, textAreaLine, markedElements, currentDigram);
+	@Override
+	public void roundStarted(int round, Digram digram, HyperGraph graph) {
+		displayPendingStep(graph, digram);
+	}
 
-			if (currentIndex == tuples.size() - 1)
-				guiController.showAllDigrams(digrams);
-			if (tuples.indexOf(tuple) != tuples.size() - 1) {// Not the last
-																// element
-				waitForNextStep();
+	@Override
+	public void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta, int edgeDelta,
+			HyperGraph graph) {
+		pendingText = digram instanceof BasicDigram ? ((BasicDigram) digram).toStringUnpruned() : digram.toString();
+	}
 
-			}
+	/**
+	 * Displays the current graph with the pending text, if it is not
+	 * displayed yet.
+	 * 
+	 * @param graph
+	 *            the current graph.
+	 * @param nextDigram
+	 *            the digram which is replaced next, null if there is none.
+	 */
+	private void displayPendingStep(HyperGraph graph, Digram nextDigram) {
+		if (pendingText != null) {
+			displayStep(graph, pendingText, nextDigram);
+			pendingText = null;
 		}
 	}
 
 	/**
-	 * Selects all nodes and edges that should be marked.
+	 * Displays a compression step and waits until the next step is requested,
+	 * so the compression is paused while the step is displayed.
 	 * 
-	 * @param tuples
-	 *            all applied digrams and the current HyperGraph from each
-	 *            compression step.
-	 * @param currentSimulationStepIndex
-	 *            the current simulation step from the step-by-step-simulation.
+	 * @param graph
+	 *            the HyperGraph of the step.
+	 * @param text
+	 *            the description of the step.
+	 * @param nextDigram
+	 *            the digram which is replaced next, null if there is none.
+	 */
+	private void displayStep(HyperGraph graph, String text, Digram nextDigram) {
+		BasicDigram nextBasicDigram = nextDigram instanceof BasicDigram ? (BasicDigram) nextDigram : null;
+		guiController.refreshGraph(graph, text, getElementsToMark(graph, nextDigram), nextBasicDigram);
+		waitForNextStep();
+	}
+
+	/**
+	 * Selects all nodes and edges that should be marked, which are the
+	 * occurrences that are replaced next.
+	 * 
+	 * @param graph
+	 *            the HyperGraph of the current compression step.
+	 * @param nextDigram
+	 *            the digram which is replaced next, null if there is none.
 	 * @return all nodes and edges that should be marked.
 	 */
-	private Tuple<List<Node>, List<Edge>> getNodesToMark(
-			List<Tuple<HyperGraph, List<Digram>>> tuples, int currentSimulationStepIndex) {
+	private Tuple<List<Node>, List<Edge>> getElementsToMark(HyperGraph graph, Digram nextDigram) {
 		List<Node> nodes = new ArrayList<>();
 		List<Edge> edges = new ArrayList<>();
 
-		if (0 < currentSimulationStepIndex && currentSimulationStepIndex < tuples.size() - 2) {
-			Tuple<HyperGraph, List<Digram>> tuple = tuples.get(currentSimulationStepIndex);
-			HyperGraph graph = tuples.get(currentSimulationStepIndex - 1).x;
-
-			if (tuple.y.size() > 0) {
-				BasicDigram newDigram = (BasicDigram) tuple.y.get(tuple.y.size()-1);
-				for (Entry<Integer, Edge> entry : graph.getAllEdges().entrySet()) {
-					Edge edgeObject = entry.getValue();
-					SimpleEdge edge = (SimpleEdge) edgeObject;
-					if (edge.getStartnode().getLabel().equals(newDigram.getStartNodelabel())
-							&& edge.getEndnode().getLabel().equals(newDigram.getEndNodelabel())) {
-						if (!nodes.contains(edge.getStartnode()) && !nodes.contains(edge.getEndnode())) {
-							nodes.add(edge.getStartnode());
-							nodes.add(edge.getEndnode());
-							edges.add(edge);
-						}
-					}
-
+		if (nextDigram != null) {
+			Map<Integer, Node> allNodes = graph.getAllNodes();
+			Map<Integer, Edge> allEdges = graph.getAllEdges();
+			OccurrenceTable occurrences = nextDigram.getOccurrences();
+			for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+				nodes.add(allNodes.get(occurrences.getNode1(slot)));
+				nodes.add(allNodes.get(occurrences.getNode2(slot)));
+				edges.add(allEdges.get(occurrences.getEdge1(slot)));
+				if (occurrences.getEdge2(slot) != OccurrenceTable.NONE) {
+					edges.add(allEdges.get(occurrences.getEdge2(slot)));
 				}
 			}
 		}
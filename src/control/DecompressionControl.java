@@ -0,0 +1,880 @@
+package control;
+
+import model.Digram.AdjacencyDigram;
+import model.Digram.BasicDigram;
+import model.Digram.Digram;
+import model.Graph.Edge;
+import model.Graph.GraphSink;
+import model.Graph.HyperEdge;
+import model.Graph.HyperGraph;
+import model.Graph.HyperGraphBuilder;
+import model.Graph.Node;
+import model.Graph.SimpleEdge;
+import model.Tuple;
+
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This is a class for the decompression of a graph which was compressed by a CompressionControl.
+ * <p>
+ * The compressed graph and the applied digrams form a grammar: a node whose label is the non terminal of a digram
+ * derives the two outer nodes of the digram, which are connected by the internal edge of a basic digram or by the
+ * edges to the mid node of an adjacency digram. An edge of a non terminal node is derived into an edge of an outer node
+ * or into the edges of the mid node by the mapping of the equivalence classes of the digram. The inlined digrams of
+ * the pruning are derived in the same way.
+ * <p>
+ * The derivation of each top level element gets a consecutive block of node ids whose size is known in advance, so
+ * the elements are expanded independently of each other in parallel and the result is streamed to a {@link GraphSink}
+ * without holding the decompressed graph. A top level element is a node of the compressed graph or an edge of the edge
+ * optimization, which is expanded like the node which it replaced. Each element gives its terminal nodes and the edges
+ * which it owns to the sink: an edge is owned by its end node if that was an edge of the untransformed graph, else by
+ * its start node. The nodes which were edges of the untransformed graph are given as hyperedges with the sources of
+ * their incoming edges as start nodes and the targets of their outgoing edges as end nodes.
+ * <p>
+ * The labels of the nodes and the labels of the edges of the untransformed graph must be disjoint.
+ *
+ * @see CompressionControl#getEdgeLabels()
+ */
+public class DecompressionControl {
+
+    /**
+     * the minimal number of derived nodes of a part of the top level elements which is split by the expansion.
+     */
+    private static final int GRAIN = 4096;
+
+    /**
+     * the number of rounds of the refinement of the fingerprint.
+     */
+    private static final int FINGERPRINT_ROUNDS = 2;
+
+    /**
+     * the child of a rule for an equivalence class which belongs to the edges of the mid node.
+     */
+    private static final int MID = 2;
+
+    /**
+     * the rule of each non terminal, indexed by its label id.
+     */
+    private final Rule[] rules;
+
+    /**
+     * the ids of all labels of the edges of the untransformed graph.
+     */
+    private final BitSet edgeLabels;
+
+    /**
+     * the number of threads for the expansion.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructor of DecompressionControl.
+     * @param digrams the applied digrams of the compression, their inlined digrams are added.
+     * @param edgeLabels the ids of the labels of the edges of the untransformed graph, empty if the graph was not
+     *                   transformed.
+     * @throws IllegalArgumentException if a digram was not applied.
+     */
+    public DecompressionControl(List<Digram> digrams, BitSet edgeLabels) {
+        this.edgeLabels = (BitSet) edgeLabels.clone();
+        Map<Integer, Rule> ruleMap = new HashMap<>();
+        Deque<Digram> stack = new ArrayDeque<>(digrams);
+        int maxLabel = -1;
+        while (!stack.isEmpty()) {
+            Digram digram = stack.pop();
+            if (digram.getNonterminalId() < 0) {
+                throw new IllegalArgumentException("the digram " + digram + " was not applied");
+            }
+            if (ruleMap.putIfAbsent(digram.getNonterminalId(), new Rule(digram)) == null) {
+                maxLabel = Math.max(maxLabel, digram.getNonterminalId());
+                stack.addAll(digram.getInlinedDigrams());
+            }
+        }
+        rules = new Rule[maxLabel + 1];
+        for (Map.Entry<Integer, Rule> entry : ruleMap.entrySet()) {
+            rules[entry.getKey()] = entry.getValue();
+        }
+        for (Rule rule : ruleMap.values()) {
+            getNumNodes(rule.nonterminal);
+        }
+    }
+
+    /**
+     * Setter for the number of threads of the expansion.
+     * @param parallelism the number of threads, at least 1.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Decompresses a graph into a new graph.
+     * @param graph the compressed graph, which is not changed.
+     * @return the decompressed graph.
+     * @see #decompress(HyperGraph, GraphSink)
+     */
+    public HyperGraph decompress(HyperGraph graph) {
+        HyperGraphBuilder builder = new HyperGraphBuilder();
+        decompress(graph, builder);
+        return builder.getGraph();
+    }
+
+    /**
+     * Decompresses a graph and streams the nodes and edges of the decompressed graph to a sink. The nodes get the
+     * dense ids from 0 to the number of nodes - 1, independent of the number of threads.
+     * @param graph the compressed graph, which is not changed.
+     * @param sink the sink, which is called concurrently.
+     * @throws IllegalStateException if the decompressed graph has more than Integer.MAX_VALUE nodes.
+     */
+    public void decompress(HyperGraph graph, GraphSink sink) {
+        Node[] nodes = graph.getAllNodes().values().toArray(new Node[0]);
+        List<HyperEdge> hyperEdges = new ArrayList<>();
+        for (Edge edge : graph.getAllEdges().values()) {
+            if (edge instanceof HyperEdge) {
+                hyperEdges.add((HyperEdge) edge);
+            }
+        }
+
+        int numItems = nodes.length + hyperEdges.size();
+        int[] bases = new int[numItems + 1];
+        int[] nodeBases = new int[graph.getIdAllocator().getNodeIdBound()];
+        long base = 0;
+        for (int item = 0; item < numItems; item++) {
+            bases[item] = (int) base;
+            int label;
+            if (item < nodes.length) {
+                nodeBases[nodes[item].getId()] = (int) base;
+                label = nodes[item].getLabelId();
+            } else {
+                label = hyperEdges.get(item - nodes.length).getLabelId();
+            }
+            base += getNumNodes(label);
+            if (base > Integer.MAX_VALUE) {
+                throw new IllegalStateException("the decompressed graph has too many nodes");
+            }
+        }
+        bases[numItems] = (int) base;
+
+        // the hyperedges of each node, the index of the hyperedge is shifted by one bit which is set for an end node
+        Map<Integer, List<Integer>> nodeHyperEdges = new HashMap<>();
+        for (int i = 0; i < hyperEdges.size(); i++) {
+            for (Node node : hyperEdges.get(i).getStartnodes()) {
+                nodeHyperEdges.computeIfAbsent(node.getId(), id -> new ArrayList<>()).add(i << 1);
+            }
+            for (Node node : hyperEdges.get(i).getEndnodes()) {
+                nodeHyperEdges.computeIfAbsent(node.getId(), id -> new ArrayList<>()).add(i << 1 | 1);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ExpansionTask(graph, nodes, hyperEdges, bases, nodeBases, nodeHyperEdges, sink));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Gets the number of terminal nodes which a label derives.
+     * @param labelId the id of the label.
+     * @return the number of terminal nodes, 1 for a terminal label.
+     */
+    private long getNumNodes(int labelId) {
+        Rule rule = getRule(labelId);
+        if (rule == null) {
+            return 1;
+        }
+        if (rule.numNodes == 0) {
+            rule.numNodes1 = getNumNodes(rule.label1);
+            rule.numNodes = Math.addExact(rule.numNodes1, getNumNodes(rule.label2));
+        }
+        return rule.numNodes;
+    }
+
+    private Rule getRule(int labelId) {
+        return labelId >= 0 && labelId < rules.length ? rules[labelId] : null;
+    }
+
+    /**
+     * Expands a node: the internal edges of the derivation are given to the edge buffer and the labels of the terminal
+     * nodes are stored in the edge buffer.
+     * @param labelId the label id of the node.
+     * @param base the first id of the derived nodes.
+     * @param edges the edge buffer of the top level element.
+     */
+    private void expandNode(int labelId, int base, EdgeBuffer edges) {
+        Rule rule = getRule(labelId);
+        if (rule == null) {
+            edges.setLabel(base, labelId);
+            return;
+        }
+        int base2 = base + (int) rule.numNodes1;
+        if (!rule.adjacency) {
+            expandEdge(rule.label1, base, rule.equivClass1, rule.label2, base2, rule.equivClass2, edges);
+        }
+        expandNode(rule.label1, base, edges);
+        expandNode(rule.label2, base2, edges);
+    }
+
+    /**
+     * Expands an edge until both ends are terminal nodes, which are given to the edge buffer. The ends are given by
+     * the label, the first id of the derived nodes and the equivalence class of the edge at the end.
+     * <p>
+     * The ends are derived to the outer nodes first. An edge to the mid node of an adjacency digram takes its direction
+     * from the digram, but an edge which two non terminals kept for their mid nodes, which happens for a split mid
+     * node, only got its direction from the edge which the older one kept. So the newer one is expanded first and the
+     * older one decides the directions of the terminal edges.
+     */
+    private void expandEdge(int startLabel, int startBase, int startClass, int endLabel, int endBase, int endClass,
+                            EdgeBuffer edges) {
+        Rule startRule = getRule(startLabel);
+        Rule endRule = getRule(endLabel);
+        boolean startMid = startRule != null && startRule.getChild(startClass) == MID;
+        boolean endMid = endRule != null && endRule.getChild(endClass) == MID;
+        if (startRule != null && !startMid) {
+            int innerClass = startRule.innerClasses[startClass];
+            if (startRule.getChild(startClass) == 0) {
+                expandEdge(startRule.label1, startBase, innerClass, endLabel, endBase, endClass, edges);
+            } else {
+                expandEdge(startRule.label2, startBase + (int) startRule.numNodes1, innerClass, endLabel, endBase, endClass, edges);
+            }
+        } else if (endRule != null && !endMid) {
+            int innerClass = endRule.innerClasses[endClass];
+            if (endRule.getChild(endClass) == 0) {
+                expandEdge(startLabel, startBase, startClass, endRule.label1, endBase, innerClass, edges);
+            } else {
+                expandEdge(startLabel, startBase, startClass, endRule.label2, endBase + (int) endRule.numNodes1, innerClass, edges);
+            }
+        } else if (startMid && (!endMid || startRule.nonterminalNumber > endRule.nonterminalNumber)) {
+            expandMidEdges(startRule, startRule.innerClasses[startClass], startBase, endLabel, endBase, endClass, edges);
+        } else if (endMid) {
+            expandMidEdges(endRule, endRule.innerClasses[endClass], endBase, startLabel, startBase, startClass, edges);
+        } else {
+            edges.add(startBase, endBase, endLabel);
+        }
+    }
+
+    /**
+     * Expands the edge between a node of an adjacency digram and its mid node into the edges of the outer nodes.
+     * @param rule the rule of the adjacency digram.
+     * @param innerClass 1 for the edge of the first outer node, which is also the edge of the second outer node unless
+     *                   the mid node is split, 2 for the edge of the second outer node of a split mid node.
+     * @param base the first id of the derived nodes of the node.
+     */
+    private void expandMidEdges(Rule rule, int innerClass, int base, int midLabel, int midBase, int midClass, EdgeBuffer edges) {
+        int base2 = base + (int) rule.numNodes1;
+        if (innerClass == 1) {
+            if (rule.ingoing1) {
+                expandEdge(midLabel, midBase, midClass, rule.label1, base, rule.equivClass1, edges);
+            } else {
+                expandEdge(rule.label1, base, rule.equivClass1, midLabel, midBase, midClass, edges);
+            }
+            if (rule.splitMid) {
+                return;
+            }
+        }
+        if (rule.ingoing2) {
+            expandEdge(midLabel, midBase, midClass, rule.label2, base2, rule.equivClass2, edges);
+        } else {
+            expandEdge(rule.label2, base2, rule.equivClass2, midLabel, midBase, midClass, edges);
+        }
+    }
+
+    /**
+     * Checks whether a compressed graph derives exactly the input graph of its compression. The derived nodes are
+     * mapped back to the input nodes by the origins which the compression recorded, so the labels of the nodes and the
+     * labels and the ends of the edges are compared exactly. The start nodes and the end nodes of a hyperedge are
+     * compared as sets.
+     * @param input the input graph of the compression.
+     * @param compressed the compressed graph, which is not changed.
+     * @param origins the origins of the nodes of the compressed graph.
+     * @return true if the decompressed graph equals the input graph, else false.
+     */
+    boolean isRoundTrip(HyperGraph input, HyperGraph compressed, NodeOrigins origins) {
+        long numNodes = 0;
+        for (Node node : compressed.getAllNodes().values()) {
+            numNodes += getNumNodes(node.getLabelId());
+        }
+        for (Edge edge : compressed.getAllEdges().values()) {
+            if (edge instanceof HyperEdge) {
+                numNodes += getNumNodes(((HyperEdge) edge).getLabelId());
+            }
+        }
+        if (numNodes > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        // the derived nodes in the order of decompress(HyperGraph, GraphSink)
+        int[] inputNodeIds = new int[(int) numNodes];
+        int base = 0;
+        for (Node node : compressed.getAllNodes().values()) {
+            base = origins.mapDerivedNodes(node.getId(), base, inputNodeIds);
+        }
+        for (Edge edge : compressed.getAllEdges().values()) {
+            if (edge instanceof HyperEdge) {
+                base = origins.mapDerivedNodes(origins.getReplacedNode(edge.getId()), base, inputNodeIds);
+            }
+        }
+        if (base != numNodes) {
+            return false;
+        }
+
+        RoundTripSink sink = new RoundTripSink(input, inputNodeIds);
+        decompress(compressed, sink);
+        return sink.isRoundTrip();
+    }
+
+    /**
+     * Checks whether a decompressed graph can be equal to the original graph by their fingerprints. This is only a
+     * necessary condition: isomorphic graphs have equal fingerprints, but the refinement of the fingerprint does not
+     * distinguish all graphs which are not isomorphic, e.g. regular graphs with the same labels and degrees.
+     * @param original the original graph.
+     * @param decompressed the decompressed graph.
+     * @return false if the graphs are different, true if their fingerprints are equal.
+     * @see #fingerprint(HyperGraph)
+     * @see #isRoundTrip(HyperGraph, HyperGraph, NodeOrigins)
+     */
+    public static boolean isRoundTrip(HyperGraph original, HyperGraph decompressed) {
+        return fingerprint(original) == fingerprint(decompressed);
+    }
+
+    /**
+     * Computes a fingerprint of a graph which does not depend on the ids of the nodes and edges. The color of each
+     * node starts with its label and is refined in some rounds by the labels of its edges and the colors of the nodes
+     * on the other side of them, the colors are combined by sums, so the order of the elements does not matter.
+     * This is a bounded colour refinement, so different graphs can have the same fingerprint.
+     * @param graph the graph.
+     * @return the fingerprint of the graph.
+     */
+    public static long fingerprint(HyperGraph graph) {
+        Collection<Node> nodes = graph.getAllNodes().values();
+        Collection<Edge> edges = graph.getAllEdges().values();
+        long[] colors = new long[graph.getIdAllocator().getNodeIdBound()];
+        for (Node node : nodes) {
+            colors[node.getId()] = mix(node.getLabelId());
+        }
+        for (int round = 0; round < FINGERPRINT_ROUNDS; round++) {
+            long[] next = colors.clone();
+            for (Edge edge : edges) {
+                Tuple<Node[], Node[]> ends = getEnds(edge);
+                long edgeColor = mix(getLabelId(edge));
+                long startSum = sumColors(colors, ends.x);
+                long endSum = sumColors(colors, ends.y);
+                for (Node node : ends.x) {
+                    next[node.getId()] += mix(edgeColor + 3 * endSum + 1);
+                }
+                for (Node node : ends.y) {
+                    next[node.getId()] += mix(edgeColor + 5 * startSum + 2);
+                }
+            }
+            for (Node node : nodes) {
+                colors[node.getId()] = mix(next[node.getId()]);
+            }
+        }
+
+        long fingerprint = mix(nodes.size()) + 7 * mix(edges.size());
+        for (Node node : nodes) {
+            fingerprint += mix(colors[node.getId()]);
+        }
+        for (Edge edge : edges) {
+            Tuple<Node[], Node[]> ends = getEnds(edge);
+            fingerprint += mix(mix(getLabelId(edge)) + 3 * sumColors(colors, ends.x) + 5 * sumColors(colors, ends.y));
+        }
+        return fingerprint;
+    }
+
+    private static Tuple<Node[], Node[]> getEnds(Edge edge) {
+        if (edge instanceof HyperEdge) {
+            return new Tuple<>(((HyperEdge) edge).getStartnodes(), ((HyperEdge) edge).getEndnodes());
+        }
+        SimpleEdge simpleEdge = (SimpleEdge) edge;
+        return new Tuple<>(new Node[]{simpleEdge.getStartnode()}, new Node[]{simpleEdge.getEndnode()});
+    }
+
+    private static int getLabelId(Edge edge) {
+        return edge instanceof HyperEdge ? ((HyperEdge) edge).getLabelId() : -1;
+    }
+
+    private static long sumColors(long[] colors, Node[] nodes) {
+        long sum = 0;
+        for (Node node : nodes) {
+            sum += mix(colors[node.getId()]);
+        }
+        return sum;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * This is a class for the derivation of a non terminal, which is compiled from its digram.
+     */
+    private static final class Rule {
+
+        private final int nonterminal;
+
+        /**
+         * the number of the non terminal, the rule of a larger number was applied later.
+         */
+        private final int nonterminalNumber;
+
+        /**
+         * the labels of the first and the second outer node.
+         */
+        private final int label1, label2;
+
+        /**
+         * true for an adjacency digram, false for a basic digram.
+         */
+        private final boolean adjacency;
+
+        /**
+         * the equivalence classes of the internal edge at the first and second outer node.
+         */
+        private final int equivClass1, equivClass2;
+
+        /**
+         * true if the edge of the first or second outer node of an adjacency digram starts at the mid node.
+         */
+        private final boolean ingoing1, ingoing2;
+
+        /**
+         * true if the mid node of an adjacency digram has an edge for each outer node.
+         */
+        private final boolean splitMid;
+
+        /**
+         * the child for each equivalence class at the non terminal: 0 for the first outer node, 1 for the second outer
+         * node, MID for the edges of the mid node and -1 for an unknown class.
+         */
+        private int[] children = new int[0];
+
+        /**
+         * the equivalence class at the child for each equivalence class at the non terminal.
+         */
+        private int[] innerClasses = new int[0];
+
+        /**
+         * the number of terminal nodes which the first outer node and the non terminal derive, 0 until computed.
+         */
+        private long numNodes1, numNodes;
+
+        private Rule(Digram digram) {
+            nonterminal = digram.getNonterminalId();
+            nonterminalNumber = digram.getNonterminalNumber();
+            if (digram instanceof BasicDigram) {
+                BasicDigram basicDigram = (BasicDigram) digram;
+                label1 = basicDigram.getStartNodeLabelId();
+                label2 = basicDigram.getEndNodeLabelId();
+                equivClass1 = basicDigram.getEquivStartNode();
+                equivClass2 = basicDigram.getEquivEndNode();
+                adjacency = false;
+                ingoing1 = false;
+                ingoing2 = false;
+                splitMid = false;
+            } else {
+                AdjacencyDigram adjacencyDigram = (AdjacencyDigram) digram;
+                label1 = adjacencyDigram.getLabelId1();
+                label2 = adjacencyDigram.getLabelId2();
+                equivClass1 = adjacencyDigram.getEquivClass1();
+                equivClass2 = adjacencyDigram.getEquivClass2();
+                adjacency = true;
+                ingoing1 = adjacencyDigram.getDirection1() == AdjacencyDigram.EdgeDirection.INGOING;
+                ingoing2 = adjacencyDigram.getDirection2() == AdjacencyDigram.EdgeDirection.INGOING;
+                splitMid = adjacencyDigram.isSplitMid();
+            }
+            Map<String, List<Tuple<Integer, Integer>>> mapEquivClasses = digram.getMapEquivClasses();
+            putChild(mapEquivClasses.get("startNode"), 0);
+            putChild(mapEquivClasses.get("endNode"), 1);
+            if (adjacency) {
+                putChild(mapEquivClasses.get("midNode"), MID);
+            }
+        }
+
+        /**
+         * Inverts the mapping of the equivalence classes of an outer node or of the mid node.
+         * @param tuples the mapping old class -> new class.
+         * @param child the child of the new classes.
+         */
+        private void putChild(List<Tuple<Integer, Integer>> tuples, int child) {
+            for (Tuple<Integer, Integer> tuple : tuples) {
+                if (tuple.y >= children.length) {
+                    int length = children.length;
+                    children = Arrays.copyOf(children, tuple.y + 1);
+                    innerClasses = Arrays.copyOf(innerClasses, tuple.y + 1);
+                    Arrays.fill(children, length, children.length, -1);
+                }
+                children[tuple.y] = child;
+                innerClasses[tuple.y] = tuple.x;
+            }
+        }
+
+        /**
+         * Gets the child of an equivalence class at the non terminal.
+         * @param equivClass the equivalence class.
+         * @return 0 for the first outer node, 1 for the second outer node, MID for the edges of the mid node.
+         */
+        private int getChild(int equivClass) {
+            if (equivClass < 0 || equivClass >= children.length || children[equivClass] < 0) {
+                throw new IllegalStateException("unknown equivalence class " + equivClass + " of the non terminal " + nonterminal);
+            }
+            return children[equivClass];
+        }
+    }
+
+    /**
+     * This is a class for the edges and the labels of the nodes of the derivation of one top level element.
+     */
+    private final class EdgeBuffer {
+
+        /**
+         * the first id and the id after the last id of the derived nodes of the element.
+         */
+        private int from, to;
+
+        /**
+         * the label of each derived node, indexed by id - from.
+         */
+        private int[] labels = new int[16];
+
+        /**
+         * the start and end node of each edge.
+         */
+        private int[] ends = new int[16];
+        private int size;
+
+        private void reset(int from, int to) {
+            this.from = from;
+            this.to = to;
+            if (labels.length < to - from) {
+                labels = new int[to - from];
+            }
+            size = 0;
+        }
+
+        private void setLabel(int nodeId, int labelId) {
+            labels[nodeId - from] = labelId;
+        }
+
+        private int getLabel(int nodeId) {
+            return labels[nodeId - from];
+        }
+
+        private boolean contains(int nodeId) {
+            return nodeId >= from && nodeId < to;
+        }
+
+        /**
+         * Adds an edge between terminal nodes if the element owns it.
+         * @param endLabel the label of the end node, which decides the owner of the edge.
+         */
+        private void add(int startNode, int endNode, int endLabel) {
+            if (!contains(edgeLabels.get(endLabel) ? endNode : startNode)) {
+                return;
+            }
+            if (2 * size + 2 > ends.length) {
+                ends = Arrays.copyOf(ends, 2 * ends.length);
+            }
+            ends[2 * size] = startNode;
+            ends[2 * size + 1] = endNode;
+            size++;
+        }
+    }
+
+    /**
+     * This is a sink which compares the decompressed graph with the input graph. The derived nodes are mapped to the
+     * input nodes, each edge of the input graph must be given once and each node of the input graph must be given
+     * once with its label. The methods are called concurrently, so they are synchronized.
+     */
+    private static final class RoundTripSink implements GraphSink {
+
+        private final HyperGraph input;
+
+        /**
+         * the input node of each derived node, -1 if the derived node was an edge of the input graph.
+         */
+        private final int[] inputNodeIds;
+
+        /**
+         * the input nodes which were given.
+         */
+        private final Set<Integer> givenNodes = new HashSet<>();
+
+        /**
+         * the number of the edges of the input graph which are not given yet, by their label and their ends.
+         */
+        private final Map<IntBuffer, Integer> missingEdges = new HashMap<>();
+
+        private boolean equal = true;
+
+        private RoundTripSink(HyperGraph input, int[] inputNodeIds) {
+            this.input = input;
+            this.inputNodeIds = inputNodeIds;
+            for (Edge edge : input.getAllEdges().values()) {
+                Tuple<Node[], Node[]> ends = getEnds(edge);
+                int[] startNodeIds = new int[ends.x.length];
+                for (int i = 0; i < startNodeIds.length; i++) {
+                    startNodeIds[i] = ends.x[i].getId();
+                }
+                int[] endNodeIds = new int[ends.y.length];
+                for (int i = 0; i < endNodeIds.length; i++) {
+                    endNodeIds[i] = ends.y[i].getId();
+                }
+                missingEdges.merge(getEdgeKey(getLabelId(edge), startNodeIds, endNodeIds), 1, Integer::sum);
+            }
+        }
+
+        @Override
+        public synchronized void addNode(int nodeId, int labelId) {
+            int inputNodeId = inputNodeIds[nodeId];
+            if (inputNodeId < 0 || !givenNodes.add(inputNodeId) || !input.getStore().getNodes().containsKey(inputNodeId)
+                    || input.getStore().getNodeLabelId(inputNodeId) != labelId) {
+                equal = false;
+            }
+        }
+
+        @Override
+        public synchronized void addEdge(int labelId, int[] startNodeIds, int[] endNodeIds) {
+            int[] startInputNodeIds = new int[startNodeIds.length];
+            for (int i = 0; i < startNodeIds.length; i++) {
+                startInputNodeIds[i] = inputNodeIds[startNodeIds[i]];
+            }
+            int[] endInputNodeIds = new int[endNodeIds.length];
+            for (int i = 0; i < endNodeIds.length; i++) {
+                endInputNodeIds[i] = inputNodeIds[endNodeIds[i]];
+            }
+            IntBuffer key = getEdgeKey(labelId, startInputNodeIds, endInputNodeIds);
+            Integer missing = missingEdges.get(key);
+            if (missing == null) {
+                equal = false;
+            } else if (missing == 1) {
+                missingEdges.remove(key);
+            } else {
+                missingEdges.put(key, missing - 1);
+            }
+        }
+
+        /**
+         * Checks whether all nodes and edges of the input graph were given and nothing else.
+         * @return true if the decompressed graph equals the input graph.
+         */
+        private synchronized boolean isRoundTrip() {
+            return equal && missingEdges.isEmpty() && givenNodes.size() == input.getAllNodes().size();
+        }
+
+        /**
+         * Gets the key of an edge, which holds the label and the sorted start nodes and end nodes.
+         */
+        private static IntBuffer getEdgeKey(int labelId, int[] startNodeIds, int[] endNodeIds) {
+            int[] key = new int[2 + startNodeIds.length + endNodeIds.length];
+            key[0] = labelId;
+            key[1] = startNodeIds.length;
+            System.arraycopy(startNodeIds, 0, key, 2, startNodeIds.length);
+            System.arraycopy(endNodeIds, 0, key, 2 + startNodeIds.length, endNodeIds.length);
+            Arrays.sort(key, 2, 2 + startNodeIds.length);
+            Arrays.sort(key, 2 + startNodeIds.length, key.length);
+            // an IntBuffer compares and hashes its remaining ints
+            return IntBuffer.wrap(key);
+        }
+    }
+
+    /**
+     * This is a fork join task for the expansion of a range of top level elements, which are split by the number of
+     * their derived nodes.
+     */
+    private final class ExpansionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final HyperGraph graph;
+        private final Node[] nodes;
+        private final List<HyperEdge> hyperEdges;
+
+        /**
+         * the first id of the derived nodes of each element and the number of all derived nodes at the end.
+         */
+        private final int[] bases;
+
+        /**
+         * the first id of the derived nodes of each node, indexed by the node id.
+         */
+        private final int[] nodeBases;
+
+        /**
+         * the hyperedges of each node, the index of the hyperedge is shifted by one bit which is set for an end node.
+         */
+        private final Map<Integer, List<Integer>> nodeHyperEdges;
+        private final GraphSink sink;
+        private final int from, to;
+
+        private ExpansionTask(HyperGraph graph, Node[] nodes, List<HyperEdge> hyperEdges, int[] bases, int[] nodeBases,
+                              Map<Integer, List<Integer>> nodeHyperEdges, GraphSink sink) {
+            this.graph = graph;
+            this.nodes = nodes;
+            this.hyperEdges = hyperEdges;
+            this.bases = bases;
+            this.nodeBases = nodeBases;
+            this.nodeHyperEdges = nodeHyperEdges;
+            this.sink = sink;
+            this.from = 0;
+            this.to = bases.length - 1;
+        }
+
+        private ExpansionTask(ExpansionTask parent, int from, int to) {
+            this.graph = parent.graph;
+            this.nodes = parent.nodes;
+            this.hyperEdges = parent.hyperEdges;
+            this.bases = parent.bases;
+            this.nodeBases = parent.nodeBases;
+            this.nodeHyperEdges = parent.nodeHyperEdges;
+            this.sink = parent.sink;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && bases[to] - bases[from] > GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ExpansionTask(this, from, mid), new ExpansionTask(this, mid, to));
+                return;
+            }
+            EdgeBuffer edges = new EdgeBuffer();
+            for (int item = from; item < to; item++) {
+                expandItem(item, edges);
+            }
+        }
+
+        /**
+         * Expands a top level element with all its incident edges and gives its nodes and owned edges to the sink.
+         */
+        private void expandItem(int item, EdgeBuffer edges) {
+            edges.reset(bases[item], bases[item + 1]);
+            if (item < nodes.length) {
+                Node node = nodes[item];
+                expandNode(node.getLabelId(), bases[item], edges);
+                for (SimpleEdge edge : graph.getAllIncidentEdges(node)) {
+                    Node start = edge.getStartnode();
+                    Node end = edge.getEndnode();
+                    expandEdge(start.getLabelId(), nodeBases[start.getId()], edge.getStartEquivalenceClass(),
+                            end.getLabelId(), nodeBases[end.getId()], edge.getEndEquivalenceClass(), edges);
+                }
+                for (int hyperEdge : nodeHyperEdges.getOrDefault(node.getId(), Collections.emptyList())) {
+                    expandHyperEdge(node, hyperEdge >> 1, (hyperEdge & 1) == 1, edges);
+                }
+            } else {
+                HyperEdge hyperEdge = hyperEdges.get(item - nodes.length);
+                expandNode(hyperEdge.getLabelId(), bases[item], edges);
+                for (Node node : hyperEdge.getStartnodes()) {
+                    expandHyperEdge(node, item - nodes.length, false, edges);
+                }
+                for (Node node : hyperEdge.getEndnodes()) {
+                    expandHyperEdge(node, item - nodes.length, true, edges);
+                }
+            }
+            emit(edges);
+        }
+
+        /**
+         * Expands the edge between a node and the node which a hyperedge of the edge optimization replaced.
+         * @param node the node.
+         * @param index the index of the hyperedge.
+         * @param endNode true if the node is an end node of the hyperedge.
+         */
+        private void expandHyperEdge(Node node, int index, boolean endNode, EdgeBuffer edges) {
+            int edgeLabel = hyperEdges.get(index).getLabelId();
+            int edgeBase = bases[nodes.length + index];
+            if (endNode) {
+                expandEdge(edgeLabel, edgeBase, 1, node.getLabelId(), nodeBases[node.getId()], 1, edges);
+            } else {
+                expandEdge(node.getLabelId(), nodeBases[node.getId()], 1, edgeLabel, edgeBase, 1, edges);
+            }
+        }
+
+        /**
+         * Gives the derived nodes and the owned edges of an element to the sink.
+         */
+        private void emit(EdgeBuffer edges) {
+            int numNodes = edges.to - edges.from;
+            int[] offsets = new int[numNodes + 1];
+            for (int nodeId = edges.from; nodeId < edges.to; nodeId++) {
+                if (!edgeLabels.get(edges.getLabel(nodeId))) {
+                    sink.addNode(nodeId, edges.getLabel(nodeId));
+                }
+            }
+
+            // the edges of the nodes which were edges are grouped by a counting sort
+            int[] ends = edges.ends;
+            for (int i = 0; i < edges.size; i++) {
+                int owner = getOwner(edges, ends[2 * i], ends[2 * i + 1]);
+                if (owner < 0) {
+                    sink.addEdge(-1, new int[]{ends[2 * i]}, new int[]{ends[2 * i + 1]});
+                } else {
+                    offsets[owner - edges.from + 1]++;
+                }
+            }
+            for (int i = 0; i < numNodes; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] grouped = new int[2 * offsets[numNodes]];
+            int[] next = Arrays.copyOf(offsets, numNodes);
+            for (int i = 0; i < edges.size; i++) {
+                int owner = getOwner(edges, ends[2 * i], ends[2 * i + 1]);
+                if (owner >= 0) {
+                    int k = next[owner - edges.from]++;
+                    grouped[2 * k] = ends[2 * i];
+                    grouped[2 * k + 1] = ends[2 * i + 1];
+                }
+            }
+
+            for (int nodeId = edges.from; nodeId < edges.to; nodeId++) {
+                int labelId = edges.getLabel(nodeId);
+                if (!edgeLabels.get(labelId)) {
+                    continue;
+                }
+                int first = offsets[nodeId - edges.from];
+                int last = offsets[nodeId - edges.from + 1];
+                int numStartNodes = 0;
+                for (int k = first; k < last; k++) {
+                    if (grouped[2 * k + 1] == nodeId) {
+                        numStartNodes++;
+                    }
+                }
+                int[] startNodes = new int[numStartNodes];
+                int[] endNodes = new int[last - first - numStartNodes];
+                int s = 0;
+                int e = 0;
+                for (int k = first; k < last; k++) {
+                    if (grouped[2 * k + 1] == nodeId) {
+                        startNodes[s++] = grouped[2 * k];
+                    } else {
+                        endNodes[e++] = grouped[2 * k + 1];
+                    }
+                }
+                sink.addEdge(labelId, startNodes, endNodes);
+            }
+        }
+
+        /**
+         * Gets the node which was an edge of the untransformed graph and owns an edge.
+         * @return the id of the owner, -1 if the edge connects two nodes.
+         */
+        private int getOwner(EdgeBuffer edges, int startNode, int endNode) {
+            if (edges.contains(endNode) && edgeLabels.get(edges.getLabel(endNode))) {
+                return endNode;
+            }
+            if (edges.contains(startNode) && edgeLabels.get(edges.getLabel(startNode))) {
+                return startNode;
+            }
+            return -1;
+        }
+    }
+}
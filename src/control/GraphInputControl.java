@@ -58,7 +58,7 @@ class GraphInputControl {
                 String[] endnodesIDs = parts[1].split(";");
                 Node[] startnodes = convertToNodes(graph, startnodesIDs);
                 Node[] endnode = convertToNodes(graph, endnodesIDs);
-                graph.add(new HyperEdge(startnodes, endnode, edge[0]));
+                graph.add(new HyperEdge(graph.getIdAllocator(), startnodes, endnode, edge[0]));
             }
         }
 
@@ -5,7 +5,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -374,7 +373,7 @@ public class MyFrame extends JFrame {
      * @param graph the graph which is to be displayed.
      * @param nodes the nodes which should be displayed.
      */
-    private void displayNodes(Graph graph, HashMap<Integer, Node> nodes) {
+    private void displayNodes(Graph graph, Map<Integer, Node> nodes) {
         for (Map.Entry<Integer, Node> entry : nodes.entrySet()) {
             Node graphNode = entry.getValue();
 
@@ -391,7 +390,7 @@ public class MyFrame extends JFrame {
      * @param graph the graph which is to be displayed.
      * @param edges the edges which should be displayed.
      */
-    private void displayEdges(Graph graph, HashMap<Integer, Edge> edges) {
+    private void displayEdges(Graph graph, Map<Integer, Edge> edges) {
         for (Map.Entry<Integer, Edge> entry : edges.entrySet()) {
             if (entry.getValue() instanceof SimpleEdge) {
                 SimpleEdge myEdge = (SimpleEdge) entry.getValue();
@@ -0,0 +1,106 @@
+package control;
+
+import model.Graph.HyperGraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This is a class for the origins of the nodes of a compressed graph, so that each node of the decompressed graph can
+ * be mapped back to the node of the input graph from which it was derived.
+ *
+ * The grammar itself does not keep the ids of the input graph. So the compression records the two outer nodes which
+ * each non terminal node replaced, the node which each hyperedge of the edge optimization replaced and the input node
+ * of each node of the transformed graph. The decompression derives the nodes in the same order, see
+ * {@link DecompressionControl#isRoundTrip(HyperGraph, HyperGraph, NodeOrigins)}.
+ */
+class NodeOrigins {
+
+    /**
+     * the input node of each node of the transformed graph, null if the nodes kept the ids of the input graph.
+     */
+    private int[] inputNodeIds;
+
+    /**
+     * the ids of the first and the second outer node of each non terminal node, -1 for a terminal node.
+     */
+    private int[] outerNodeIds = new int[0];
+
+    /**
+     * the id of the node which each hyperedge of the edge optimization replaced.
+     */
+    private final Map<Integer, Integer> replacedNodeIds = new HashMap<>();
+
+    /**
+     * Sets the input node of a node of the transformed graph.
+     * @param nodeId the id of the node of the transformed graph.
+     * @param inputNodeId the id of the node of the input graph.
+     */
+    void setInputNode(int nodeId, int inputNodeId) {
+        if (inputNodeIds == null) {
+            inputNodeIds = new int[0];
+        }
+        if (nodeId >= inputNodeIds.length) {
+            int length = inputNodeIds.length;
+            inputNodeIds = Arrays.copyOf(inputNodeIds, Math.max(nodeId + 1, 2 * length));
+            Arrays.fill(inputNodeIds, length, inputNodeIds.length, -1);
+        }
+        inputNodeIds[nodeId] = inputNodeId;
+    }
+
+    /**
+     * Adds a non terminal node, which replaced the two outer nodes of an occurrence.
+     * @param nodeId the id of the non terminal node.
+     * @param nodeId1 the id of the first outer node of the occurrence.
+     * @param nodeId2 the id of the second outer node of the occurrence.
+     */
+    void addNonterminal(int nodeId, int nodeId1, int nodeId2) {
+        if (2 * nodeId + 1 >= outerNodeIds.length) {
+            int length = outerNodeIds.length;
+            outerNodeIds = Arrays.copyOf(outerNodeIds, Math.max(2 * nodeId + 2, 2 * length));
+            Arrays.fill(outerNodeIds, length, outerNodeIds.length, -1);
+        }
+        outerNodeIds[2 * nodeId] = nodeId1;
+        outerNodeIds[2 * nodeId + 1] = nodeId2;
+    }
+
+    /**
+     * Adds a hyperedge of the edge optimization, which replaced a node.
+     * @param edgeId the id of the hyperedge.
+     * @param nodeId the id of the replaced node.
+     */
+    void addReplacedNode(int edgeId, int nodeId) {
+        replacedNodeIds.put(edgeId, nodeId);
+    }
+
+    /**
+     * Getter for the node which a hyperedge of the edge optimization replaced.
+     * @param edgeId the id of the hyperedge.
+     * @return the id of the replaced node.
+     */
+    int getReplacedNode(int edgeId) {
+        return replacedNodeIds.get(edgeId);
+    }
+
+    /**
+     * Maps the nodes which a node derives to the nodes of the input graph. The derived nodes get consecutive ids in the
+     * order of the derivation: first the nodes of the first outer node, then the nodes of the second outer node.
+     * @param nodeId the id of the node.
+     * @param base the id of the first derived node.
+     * @param derivedInputNodeIds the input node for each id of a derived node, which is filled.
+     * @return the id after the last derived node.
+     */
+    int mapDerivedNodes(int nodeId, int base, int[] derivedInputNodeIds) {
+        if (2 * nodeId < outerNodeIds.length && outerNodeIds[2 * nodeId] >= 0) {
+            base = mapDerivedNodes(outerNodeIds[2 * nodeId], base, derivedInputNodeIds);
+            return mapDerivedNodes(outerNodeIds[2 * nodeId + 1], base, derivedInputNodeIds);
+        }
+        if (base < derivedInputNodeIds.length) {
+            // a node which was an edge of the input graph has no input node
+            derivedInputNodeIds[base] = inputNodeIds == null ? nodeId
+                    : nodeId < inputNodeIds.length ? inputNodeIds[nodeId] : -1;
+        }
+        return base + 1;
+    }
+}
@@ -0,0 +1,92 @@
+package control;
+
+import model.Graph.GraphStore;
+import model.Graph.HyperGraph;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * This is an interface for the order in which the digram search visits the edges and nodes of a graph.
+ *
+ * The greedy selection of the occurrences of a digram depends on this order, see {@link SearchWorker}. An order must
+ * only depend on the graph and the given random generator, so that a compression can be repeated with the same seed.
+ *
+ * @see CompressionControl#setOccurrenceOrder(OccurrenceOrder)
+ */
+public interface OccurrenceOrder {
+
+    /**
+     * Orders the edges and nodes for the digram search.
+     * @param edges the ids of the edges of the graph, which are reordered.
+     * @param nodes the ids of the nodes of the graph, which are reordered.
+     * @param graph the graph.
+     * @param random the random generator of the compression.
+     */
+    void order(int[] edges, int[] nodes, HyperGraph graph, SplittableRandom random);
+
+    /**
+     * a uniformly random order, which is computed by a Fisher-Yates shuffle in O(n).
+     */
+    OccurrenceOrder SHUFFLED = (edges, nodes, graph, random) -> {
+        shuffle(edges, random);
+        shuffle(nodes, random);
+    };
+
+    /**
+     * the order of the nodes by ascending degree and the order of the edges by the ascending sum of the degrees of
+     * their nodes, elements with the same degree are ordered by their ids. So occurrences with small degree are
+     * preferred, which leave more of the neighbourhood to other occurrences.
+     */
+    OccurrenceOrder DEGREE_ASCENDING = (edges, nodes, graph, random) -> {
+        GraphStore store = graph.getStore();
+        int[] degrees = new int[graph.getIdAllocator().getNodeIdBound()];
+        for (int edge : edges) {
+            if (store.isSimpleEdge(edge)) {
+                degrees[store.getStartNodeId(edge)]++;
+                degrees[store.getEndNodeId(edge)]++;
+            }
+        }
+        sortByKeys(edges, edge -> store.isSimpleEdge(edge)
+                ? degrees[store.getStartNodeId(edge)] + degrees[store.getEndNodeId(edge)] : 0);
+        sortByKeys(nodes, node -> degrees[node]);
+    };
+
+    /**
+     * the order in which the graph returns its edges and nodes.
+     */
+    OccurrenceOrder IDENTITY = (edges, nodes, graph, random) -> {
+    };
+
+    /**
+     * Shuffles an array in O(n).
+     * @param ids the array.
+     * @param random the random generator.
+     */
+    static void shuffle(int[] ids, SplittableRandom random) {
+        for (int i = ids.length - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            int id = ids[i];
+            ids[i] = ids[k];
+            ids[k] = id;
+        }
+    }
+
+    /**
+     * Sorts ids by ascending keys and ids with the same key by ascending ids. The keys and ids are packed into longs,
+     * so that the ids are not boxed.
+     * @param ids the non negative ids.
+     * @param keys the non negative key of each id.
+     */
+    static void sortByKeys(int[] ids, IntUnaryOperator keys) {
+        long[] packed = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            packed[i] = (long) keys.applyAsInt(ids[i]) << 32 | ids[i];
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) packed[i];
+        }
+    }
+}
@@ -1,18 +1,19 @@
 package control;
 
-import model.Graph.Edge;
 import model.Graph.HyperEdge;
 import model.Graph.HyperGraph;
+import model.Graph.IdAllocator;
+import model.Graph.MappedGraphStore;
 import model.Graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 public class RDFReader {
 
@@ -21,8 +22,9 @@ public class RDFReader {
         Model model1 = model.read(path);
         ExtendedIterator<Triple> tripleExtendedIterator = model1.getGraph().find();
 
+        HyperGraph graph = new HyperGraph(new MappedGraphStore());
+        IdAllocator ids = graph.getIdAllocator();
         Map<String, Node> mapUriToNode = new HashMap<>();
-        Set<Edge> edges = new HashSet<>();
         int counter = 0;
         while (tripleExtendedIterator.hasNext()) {
             if (counter >= 10000) {
@@ -35,8 +37,9 @@ public class RDFReader {
             if (mapUriToNode.containsKey(label)) {
                 subject = mapUriToNode.get(label);
             } else {
-                subject = new Node(label);
+                subject = new Node(ids, label);
                 mapUriToNode.put(label, subject);
+                graph.add(subject);
             }
 
             label = triple.getSubject().getURI();
@@ -44,22 +47,15 @@ public class RDFReader {
             if (mapUriToNode.containsKey(label)) {
                 object = mapUriToNode.get(label);
             } else {
-                object = new Node(label);
+                object = new Node(ids, label);
                 mapUriToNode.put(label, object);
+                graph.add(object);
             }
 
-            edges.add(new HyperEdge(subject, object, triple.getPredicate().getURI()));
+            graph.add(new HyperEdge(ids, subject, object, triple.getPredicate().getURI()));
             counter++;
         }
 
-        HyperGraph graph = new HyperGraph();
-        for (Node node : mapUriToNode.values()) {
-            graph.add(node);
-        }
-        for (Edge edge : edges) {
-            graph.add(edge);
-        }
-
         System.out.println(graph.getAllNodes().size());
         System.out.println(graph.getAllEdges().size());
 
@@ -67,8 +63,26 @@ public class RDFReader {
 
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         HyperGraph graph = readFromRDFFile("/Users/philipfrerk/Downloads/person_graph/outputfile_3.9.ttl");
-        new CompressionControl(graph).graphCompression(true);
+        CompressionControl control = new CompressionControl(graph);
+        try {
+            control.setKeepIntermediateGraphs(false);
+            control.setLazyTransformation(true);
+            control.graphCompression(true);
+            closeStore(control.getGraph());
+        } finally {
+            closeStore(graph);
+        }
+    }
+
+    /**
+     * Closes the store of a graph if it holds resources, e.g. the files of a MappedGraphStore.
+     * @param graph the graph, which must not be used afterwards.
+     */
+    private static void closeStore(HyperGraph graph) throws IOException {
+        if (graph.getStore() instanceof Closeable) {
+            ((Closeable) graph.getStore()).close();
+        }
     }
 }
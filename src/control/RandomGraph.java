@@ -44,7 +44,7 @@ class RandomGraph {
     private static void createNodes(HyperGraph graph, int numNodes, int numNodeLabels) {
         String[] nodeLabels = createNodeLabels(numNodeLabels);
         for (int i = 0; i < numNodes; i++) {
-            graph.add(new Node(getRandomLabel(nodeLabels)));
+            graph.add(new Node(graph.getIdAllocator(), getRandomLabel(nodeLabels)));
         }
 
     }
@@ -79,7 +79,7 @@ class RandomGraph {
             Node endnode = (Node) values[generator.nextInt(values.length)];
 
 
-            graph.add(new HyperEdge(new Node[]{startnode}, new Node[]{endnode}, getRandomLabel(edgeLabels)));
+            graph.add(new HyperEdge(graph.getIdAllocator(), new Node[]{startnode}, new Node[]{endnode}, getRandomLabel(edgeLabels)));
         }
     }
 
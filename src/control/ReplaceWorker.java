@@ -0,0 +1,257 @@
+package control;
+
+import model.Digram.Digram;
+import model.DigramOccurrence.OccurrenceTable;
+import model.Graph.Edge;
+import model.Graph.HyperGraph;
+import model.Graph.IdAllocator;
+import model.Graph.Node;
+import model.Graph.SimpleEdge;
+
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This is a fork join task for the replacement of all associated occurrences of a digram.
+ *
+ * The occurrences of a digram are node disjoint and no mid node is an outer node of another occurrence, so each
+ * occurrence only rewrites the incident edges of its own outer nodes. The task splits the occurrences into consecutive
+ * parts, which plan their rewriting in parallel: each part reads the graph and collects the edges which are removed
+ * and the edges which are added in its own buffers. The graph is changed by {@link #commit()} after all parts are
+ * planned, in the order of the occurrences.
+ *
+ * An edge between the outer nodes of two occurrences is rewritten only by the first of them, which moves both ends to
+ * the new nodes. The new nodes get their ids from one block and the new edges get their ids in the order of the
+ * commit, so the result does not depend on the number of threads.
+ */
+public class ReplaceWorker extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * the maximal number of occurrences which are planned without splitting.
+     */
+    private static final int THRESHOLD = 1024;
+
+    private final Digram digram;
+    private final HyperGraph graph;
+
+    /**
+     * the slots of the occurrences in the order of the occurrence table.
+     */
+    private final int[] slots;
+
+    /**
+     * the new non terminal node of each occurrence.
+     */
+    private final Node[] newNodes;
+
+    /**
+     * the two outer nodes of each occurrence, which are removed by the commit.
+     */
+    private final Node[] outerNodes;
+
+    /**
+     * the index of the occurrence of each outer node, shifted by one bit which is set for the second outer node.
+     */
+    private final Map<Integer, Integer> outerNodeIndices;
+
+    private final int from, to;
+
+    private ReplaceWorker left, right;
+
+    /**
+     * the edges which are removed by the occurrences of this task.
+     */
+    private final List<SimpleEdge> removedEdges = new ArrayList<>();
+
+    /**
+     * the start and end node of each edge which is added by the occurrences of this task.
+     */
+    private final List<Node> addedEnds = new ArrayList<>();
+
+    /**
+     * the equivalence classes at the start and end node of each added edge.
+     */
+    private int[] addedEquivClasses = new int[16];
+
+    /**
+     * Constructor of ReplaceWorker. The non terminal of the digram must be set.
+     * @param digram the digram whose associated occurrences are replaced.
+     * @param graph the graph, which is not changed until the commit.
+     */
+    public ReplaceWorker(Digram digram, HyperGraph graph) {
+        this.digram = digram;
+        this.graph = graph;
+        OccurrenceTable occurrences = digram.getOccurrences();
+        slots = new int[occurrences.size()];
+        newNodes = new Node[slots.length];
+        outerNodes = new Node[2 * slots.length];
+        outerNodeIndices = new HashMap<>(4 * slots.length);
+        int firstNodeId = graph.getIdAllocator().nextNodeIds(slots.length);
+        int index = 0;
+        for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+            slots[index] = slot;
+            newNodes[index] = new Node(firstNodeId + index, digram.getNonterminalId());
+            outerNodeIndices.put(occurrences.getNode1(slot), index << 1);
+            outerNodeIndices.put(occurrences.getNode2(slot), index << 1 | 1);
+            index++;
+        }
+        from = 0;
+        to = slots.length;
+    }
+
+    /**
+     * Records the outer nodes which each new non terminal node replaces, e.g. for the round trip check.
+     * @param origins the origins of the nodes of the graph.
+     */
+    void recordNodeOrigins(NodeOrigins origins) {
+        OccurrenceTable occurrences = digram.getOccurrences();
+        for (int index = 0; index < slots.length; index++) {
+            origins.addNonterminal(newNodes[index].getId(), occurrences.getNode1(slots[index]),
+                    occurrences.getNode2(slots[index]));
+        }
+    }
+
+    private ReplaceWorker(ReplaceWorker parent, int from, int to) {
+        this.digram = parent.digram;
+        this.graph = parent.graph;
+        this.slots = parent.slots;
+        this.newNodes = parent.newNodes;
+        this.outerNodes = parent.outerNodes;
+        this.outerNodeIndices = parent.outerNodeIndices;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            for (int index = from; index < to; index++) {
+                planOccurrence(index);
+            }
+        } else {
+            int mid = (from + to) >>> 1;
+            left = new ReplaceWorker(this, from, mid);
+            right = new ReplaceWorker(this, mid, to);
+            invokeAll(left, right);
+        }
+    }
+
+    /**
+     * Plans the rewriting of one occurrence: the internal edges are removed, the mid node is connected to the new
+     * node and the other incident edges of the outer nodes are redirected to the new nodes.
+     * @param index the index of the occurrence.
+     */
+    private void planOccurrence(int index) {
+        OccurrenceTable occurrences = digram.getOccurrences();
+        int slot = slots[index];
+        Map<Integer, Edge> edges = graph.getAllEdges();
+        SimpleEdge edge1 = (SimpleEdge) edges.get(occurrences.getEdge1(slot));
+        Node node1 = getNodeInEdge(edge1, occurrences.getNode1(slot));
+        Node node2 = occurrences.getEdge2(slot) == OccurrenceTable.NONE ? getNodeInEdge(edge1, occurrences.getNode2(slot))
+                : getNodeInEdge((SimpleEdge) edges.get(occurrences.getEdge2(slot)), occurrences.getNode2(slot));
+        outerNodes[2 * index] = node1;
+        outerNodes[2 * index + 1] = node2;
+
+        List<SimpleEdge> incidentEdges = graph.getAllIncidentEdges(node1);
+        for (SimpleEdge edge : graph.getAllIncidentEdges(node2)) {
+            // an edge between the outer nodes is already incident to the first node
+            if (getNodeInEdge(edge, node1.getId()) == null) {
+                incidentEdges.add(edge);
+            }
+        }
+
+        for (SimpleEdge oldEdge : incidentEdges) {
+            if (occurrences.containsEdge(slot, oldEdge.getId())) {
+                removedEdges.add(oldEdge);
+                int midEquivClass = oldEdge.getId() == edge1.getId() ? digram.getMidEquivClass() : digram.getMidEquivClass2();
+                if (occurrences.getMidNode(slot) != OccurrenceTable.NONE
+                        && (oldEdge.getId() == edge1.getId() || midEquivClass != digram.getMidEquivClass())) {
+                    Node nodeMiddle = getNodeInEdge(oldEdge, occurrences.getMidNode(slot));
+                    addEdge(nodeMiddle, oldEdge.getEquivalenceClass(nodeMiddle), newNodes[index], midEquivClass);
+                }
+                continue;
+            }
+
+            int start = getOuterNodeIndex(oldEdge.getStartnode().getId());
+            int end = getOuterNodeIndex(oldEdge.getEndnode().getId());
+            if (start >= 0 && start >> 1 < index || end >= 0 && end >> 1 < index) {
+                // the edge is rewritten by the first occurrence which it is incident to
+                continue;
+            }
+            removedEdges.add(oldEdge);
+            Node startNode = oldEdge.getStartnode();
+            Node endNode = oldEdge.getEndnode();
+            int startEquivClass = oldEdge.getStartEquivalenceClass();
+            int endEquivClass = oldEdge.getEndEquivalenceClass();
+            if (start >= 0) {
+                startEquivClass = digram.getNewEquivClass((start & 1) == 0, startEquivClass);
+                startNode = newNodes[start >> 1];
+            }
+            if (end >= 0) {
+                endEquivClass = digram.getNewEquivClass((end & 1) == 0, endEquivClass);
+                endNode = newNodes[end >> 1];
+            }
+            addEdge(startNode, startEquivClass, endNode, endEquivClass);
+        }
+    }
+
+    /**
+     * Gets the index of the occurrence of an outer node.
+     * @param nodeId the id of the node.
+     * @return the index of the occurrence shifted by one bit which is set for the second outer node, -1 if the node is
+     * not an outer node.
+     */
+    private int getOuterNodeIndex(int nodeId) {
+        return digram.containsNode(nodeId) ? outerNodeIndices.get(nodeId) : -1;
+    }
+
+    private void addEdge(Node startNode, int startEquivClass, Node endNode, int endEquivClass) {
+        int i = addedEnds.size();
+        if (i + 2 > addedEquivClasses.length) {
+            addedEquivClasses = Arrays.copyOf(addedEquivClasses, 2 * addedEquivClasses.length);
+        }
+        addedEnds.add(startNode);
+        addedEnds.add(endNode);
+        addedEquivClasses[i] = startEquivClass;
+        addedEquivClasses[i + 1] = endEquivClass;
+    }
+
+    private static Node getNodeInEdge(SimpleEdge edge, int nodeId) {
+        if (edge.getStartnode().getId() == nodeId) {
+            return edge.getStartnode();
+        }
+        return edge.getEndnode().getId() == nodeId ? edge.getEndnode() : null;
+    }
+
+    /**
+     * Applies the planned rewriting to the graph, which must be called after the task is completed. The new nodes
+     * are added first, then the edges of the parts are replaced in the order of the occurrences and finally the outer
+     * nodes are removed.
+     */
+    public void commit() {
+        for (Node newNode : newNodes) {
+            graph.add(newNode);
+        }
+        commitEdges();
+        for (Node outerNode : outerNodes) {
+            graph.delete(outerNode);
+        }
+    }
+
+    private void commitEdges() {
+        if (left != null) {
+            left.commitEdges();
+            right.commitEdges();
+            return;
+        }
+        for (SimpleEdge edge : removedEdges) {
+            graph.delete(edge);
+        }
+        IdAllocator ids = graph.getIdAllocator();
+        for (int i = 0; i < addedEnds.size(); i += 2) {
+            graph.add(new SimpleEdge(ids, addedEnds.get(i), addedEquivClasses[i], addedEnds.get(i + 1), addedEquivClasses[i + 1]));
+        }
+    }
+}
@@ -3,91 +3,183 @@ package control;
 import model.Digram.Digram;
 import model.DigramList.AdjacencyDigramList;
 import model.DigramList.BasicDigramList;
-import model.DigramList.DigramList;
-import model.Graph.Edge;
-import model.Graph.Node;
+import model.Graph.GraphStore;
 import model.Graph.HyperGraph;
-import model.Graph.SimpleEdge;
 
 import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This is a fork join task for the search of all active digrams of a graph.
+ *
+ * The ids of the edges and nodes are given in the order in which they are visited. The task splits them into
+ * consecutive parts, which are searched in parallel, and each part collects the possible occurrences in its own digram
+ * lists. The lists are merged in the order of the parts, so the possible occurrences of each digram are in the order of
+ * the edges and nodes. Finally the non overlapping occurrences are selected from them. Therefore the result only
+ * depends on the order of the edges and nodes and not on the number of threads.
+ *
+ * The graph is only accessed by the ids through its store, see {@link GraphStore#getIncidentEdgeIds(int)}, so a
+ * search over a CompactGraphStore or a MappedGraphStore does not create node and edge objects.
+ */
+public class SearchWorker extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
 
-
-public class SearchWorker extends Thread {
+    /**
+     * the maximal number of edges and nodes which are searched without splitting.
+     */
+    private static final int THRESHOLD = 4096;
 
     private final List<Digram> appliedDigrams;
-    private HyperGraph graph;
-    public BasicDigramList digramListBasicDigrams;
-    public AdjacencyDigramList digramListAdjacencyDigrams;
 
-    private List<String> labels;
+    /**
+     * the store of the graph, which is only accessed by the ids, so that no node and edge objects are created for a
+     * store which does not keep them.
+     */
+    private final GraphStore store;
 
+    public BasicDigramList digramListBasicDigrams;
+    public AdjacencyDigramList digramListAdjacencyDigrams;
 
-    public SearchWorker(List<Digram> appliedDigrams, HyperGraph graph, List<String> labels) {
-        this.appliedDigrams = appliedDigrams;
-        this.graph = graph;
-        this.labels = labels;
-    }
+    private BitSet labels;
 
-    @Override
-    public void run() {
-         findAllBaseDigrams();
-         findAllAdjacencyDigrams();
-    }
+    /**
+     * the ids of the edges in the order in which they are visited.
+     */
+    private final int[] edges;
 
     /**
-     * This method finds all active basic appliedDigrams of a graph and stores them in the DigramList.
+     * the ids of the nodes in the order in which they are visited.
      */
-    private DigramList findAllBaseDigrams() {
+    private final int[] nodes;
 
-        digramListBasicDigrams = new BasicDigramList(labels);
+    private final int edgesFrom, edgesTo, nodesFrom, nodesTo;
 
-        // compute random permutation
-        List<Edge> edgesCopy = new ArrayList<>(graph.getAllEdges().values());
-        List<Edge> edgesInRandomOrder = new ArrayList<>();
+    /**
+     * true if the occurrences are selected after the search, which is only done by the first task.
+     */
+    private final boolean selectOccurrences;
 
-        int numEdges = edgesCopy.size();
-        while (edgesInRandomOrder.size() < numEdges) {
-            int randomIndex = 0;
-            if (edgesCopy.size() > 1) {
-                randomIndex = new Random().nextInt(edgesCopy.size() - 1);
-            }
+    /**
+     * true if the search is cancelled, then the tasks stop as soon as possible and the results are incomplete.
+     */
+    private final AtomicBoolean cancelled;
 
-            edgesInRandomOrder.add(edgesCopy.get(randomIndex));
-            edgesCopy.remove(randomIndex);
-        }
+    /**
+     * the limits of the hub handling of the adjacency digram lists.
+     * @see AdjacencyDigramList#setHubLimits(int, int)
+     */
+    private int hubDegree = AdjacencyDigramList.DEFAULT_HUB_DEGREE;
+    private int maxHubGroups = AdjacencyDigramList.DEFAULT_MAX_HUB_GROUPS;
 
-        for (Edge edge : edgesInRandomOrder) {
-            CompressionControl.checkAndAddEdgeToDigram((SimpleEdge) edge, digramListBasicDigrams, appliedDigrams);
-        }
+    /**
+     * Constructor of SearchWorker.
+     * @param edges the ids of the edges of the graph in the order in which they are visited.
+     * @param nodes the ids of the nodes of the graph in the order in which they are visited.
+     */
+    public SearchWorker(List<Digram> appliedDigrams, HyperGraph graph, BitSet labels, int[] edges, int[] nodes) {
+        this(appliedDigrams, graph, labels, edges, nodes, new AtomicBoolean());
+    }
 
-        return digramListBasicDigrams;
+    /**
+     * Constructor of SearchWorker for a search which can be cancelled.
+     * @param edges the ids of the edges of the graph in the order in which they are visited.
+     * @param nodes the ids of the nodes of the graph in the order in which they are visited.
+     * @param cancelled the flag which cancels the search if it is set.
+     * @see #isSearchCancelled()
+     */
+    public SearchWorker(List<Digram> appliedDigrams, HyperGraph graph, BitSet labels, int[] edges, int[] nodes, AtomicBoolean cancelled) {
+        this(appliedDigrams, graph.getStore(), labels, edges, nodes, 0, edges.length, 0, nodes.length, true, cancelled);
+    }
 
+    private SearchWorker(List<Digram> appliedDigrams, GraphStore store, BitSet labels, int[] edges, int[] nodes,
+                         int edgesFrom, int edgesTo, int nodesFrom, int nodesTo, boolean selectOccurrences, AtomicBoolean cancelled) {
+        this.appliedDigrams = appliedDigrams;
+        this.store = store;
+        this.labels = labels;
+        this.edges = edges;
+        this.nodes = nodes;
+        this.edgesFrom = edgesFrom;
+        this.edgesTo = edgesTo;
+        this.nodesFrom = nodesFrom;
+        this.nodesTo = nodesTo;
+        this.selectOccurrences = selectOccurrences;
+        this.cancelled = cancelled;
     }
 
-    private DigramList findAllAdjacencyDigrams(){
-        digramListAdjacencyDigrams = new AdjacencyDigramList(labels);
+    /**
+     * Setter for the limits of the hub handling of the adjacency digram lists, which must be set before the task is
+     * started.
+     * @param hubDegree the degree above which a mid node is treated as a hub.
+     * @param maxHubGroups the maximal number of groups of a hub which are paired.
+     * @see AdjacencyDigramList#setHubLimits(int, int)
+     */
+    public void setHubLimits(int hubDegree, int maxHubGroups) {
+        this.hubDegree = hubDegree;
+        this.maxHubGroups = maxHubGroups;
+    }
 
-        // compute random permutation
-        List<Node> nodesCopy = new ArrayList<>(graph.getAllNodes().values());
-        List<Node> nodesInRandomOrder = new ArrayList<>();
+    /**
+     * Indicates whether the search was cancelled, then the digram lists are incomplete or null.
+     * @return true if the search was cancelled, else false.
+     */
+    public boolean isSearchCancelled() {
+        return cancelled.get();
+    }
 
-        int numNodes = nodesCopy.size();
-        while (nodesInRandomOrder.size() < numNodes) {
-            int randomIndex = 0;
-            if (nodesCopy.size() > 1) {
-                randomIndex = new Random().nextInt(nodesCopy.size() - 1);
+    @Override
+    protected void compute() {
+        if (cancelled.get()) {
+            return;
+        }
+        if (edgesTo - edgesFrom + nodesTo - nodesFrom <= THRESHOLD) {
+            findAllBaseDigrams();
+            findAllAdjacencyDigrams();
+        } else {
+            int edgesMid = (edgesFrom + edgesTo) >>> 1;
+            int nodesMid = (nodesFrom + nodesTo) >>> 1;
+            SearchWorker left = new SearchWorker(appliedDigrams, store, labels, edges, nodes, edgesFrom, edgesMid, nodesFrom, nodesMid, false, cancelled);
+            SearchWorker right = new SearchWorker(appliedDigrams, store, labels, edges, nodes, edgesMid, edgesTo, nodesMid, nodesTo, false, cancelled);
+            left.setHubLimits(hubDegree, maxHubGroups);
+            right.setHubLimits(hubDegree, maxHubGroups);
+            invokeAll(left, right);
+            if (cancelled.get()) {
+                return;
             }
 
-            nodesInRandomOrder.add(nodesCopy.get(randomIndex));
-            nodesCopy.remove(randomIndex);
+            digramListBasicDigrams = left.digramListBasicDigrams;
+            digramListBasicDigrams.merge(right.digramListBasicDigrams);
+            digramListAdjacencyDigrams = left.digramListAdjacencyDigrams;
+            digramListAdjacencyDigrams.merge(right.digramListAdjacencyDigrams);
         }
 
-        for (Node node : nodesInRandomOrder) {
-            digramListAdjacencyDigrams.addDigrams(node, appliedDigrams, graph);
+        if (selectOccurrences && !cancelled.get()) {
+            digramListBasicDigrams.selectOccurrences();
+            digramListAdjacencyDigrams.selectOccurrences();
         }
-
-        return digramListBasicDigrams;
     }
 
+    /**
+     * This method finds the possible occurrences of the basic digrams for the edges of this task.
+     */
+    private void findAllBaseDigrams() {
+        digramListBasicDigrams = new BasicDigramList(labels);
+        for (int i = edgesFrom; i < edgesTo; i++) {
+            if (store.isSimpleEdge(edges[i])) {
+                digramListBasicDigrams.addCandidate(edges[i], store, appliedDigrams);
+            }
+        }
+    }
 
+    /**
+     * This method finds the possible occurrences of the adjacency digrams for the mid nodes of this task.
+     */
+    private void findAllAdjacencyDigrams(){
+        digramListAdjacencyDigrams = new AdjacencyDigramList(labels);
+        digramListAdjacencyDigrams.setHubLimits(hubDegree, maxHubGroups);
+        for (int i = nodesFrom; i < nodesTo; i++) {
+            digramListAdjacencyDigrams.addDigrams(nodes[i], appliedDigrams, store);
+        }
+    }
 }
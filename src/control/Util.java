@@ -3,6 +3,7 @@ package control;
 import model.Graph.Node;
 import model.Graph.HyperEdge;
 import model.Graph.HyperGraph;
+import model.Graph.IdAllocator;
 import model.Graph.SimpleEdge;
 
 /**
@@ -13,27 +14,28 @@ class Util {
 
     public static HyperGraph createAdjacencyGraphFromThesis(){
         HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
 
         Node[] nodes = new Node[8];
-        nodes[0]= new Node("u");
-        nodes[1]= new Node("v1");
-        nodes[2]= new Node("w");
-        nodes[3]= new Node("u");
-        nodes[4]= new Node("w");
-        nodes[5]= new Node("v2");
-        nodes[6]= new Node("w");
-        nodes[7]= new Node("u");
+        nodes[0]= new Node(ids, "u");
+        nodes[1]= new Node(ids, "v1");
+        nodes[2]= new Node(ids, "w");
+        nodes[3]= new Node(ids, "u");
+        nodes[4]= new Node(ids, "w");
+        nodes[5]= new Node(ids, "v2");
+        nodes[6]= new Node(ids, "w");
+        nodes[7]= new Node(ids, "u");
 
 
 
         SimpleEdge[] edges = new SimpleEdge[7];
-        edges[0] = new SimpleEdge(nodes[0], nodes[1]);
-        edges[1] = new SimpleEdge(nodes[1], nodes[2]);
-        edges[2] = new SimpleEdge(nodes[3], nodes[1]);
-        edges[3] = new SimpleEdge(nodes[3], nodes[5]);
-        edges[4] = new SimpleEdge(nodes[5], nodes[4]);
-        edges[5] = new SimpleEdge(nodes[5], nodes[6]);
-        edges[6] = new SimpleEdge(nodes[7], nodes[5]);
+        edges[0] = new SimpleEdge(ids, nodes[0], nodes[1]);
+        edges[1] = new SimpleEdge(ids, nodes[1], nodes[2]);
+        edges[2] = new SimpleEdge(ids, nodes[3], nodes[1]);
+        edges[3] = new SimpleEdge(ids, nodes[3], nodes[5]);
+        edges[4] = new SimpleEdge(ids, nodes[5], nodes[4]);
+        edges[5] = new SimpleEdge(ids, nodes[5], nodes[6]);
+        edges[6] = new SimpleEdge(ids, nodes[7], nodes[5]);
 
         for (Node node : nodes) {
             graph.add(node);
@@ -42,6 +44,7 @@ class Util {
             graph.add(edge);
         }
         CompressionControl control = new CompressionControl(graph);
+        control.setKeepIntermediateGraphs(false);
         control.graphCompression(false);
 
         return graph;
@@ -49,17 +52,18 @@ class Util {
 
     public static HyperGraph createOtherGraphFromThesis(){
         HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
 
         Node[] nodes = new Node[4];
-        nodes[0]= new Node("n2");
-        nodes[1]= new Node("n1");
-        nodes[2]= new Node("n2");
-        nodes[3]= new Node("n1");
+        nodes[0]= new Node(ids, "n2");
+        nodes[1]= new Node(ids, "n1");
+        nodes[2]= new Node(ids, "n2");
+        nodes[3]= new Node(ids, "n1");
 
         SimpleEdge[] edges = new SimpleEdge[3];
-        edges[0] = new SimpleEdge(nodes[1], nodes[0]);
-        edges[1] = new SimpleEdge(nodes[1], nodes[2]);
-        edges[2] = new SimpleEdge(nodes[3], nodes[2]);
+        edges[0] = new SimpleEdge(ids, nodes[1], nodes[0]);
+        edges[1] = new SimpleEdge(ids, nodes[1], nodes[2]);
+        edges[2] = new SimpleEdge(ids, nodes[3], nodes[2]);
 
         for (Node node : nodes) {
             graph.add(node);
@@ -68,6 +72,7 @@ class Util {
             graph.add(edge);
         }
         CompressionControl control = new CompressionControl(graph);
+        control.setKeepIntermediateGraphs(false);
         control.graphCompression(false);
 
         return graph;
@@ -75,24 +80,25 @@ class Util {
 
     public static HyperGraph createGraphFromThesis(){
         HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
 
         Node[] nodes = new Node[7];
-        nodes[0]= new Node("x");
-        nodes[1]= new Node("x");
-        nodes[2]= new Node("z");
-        nodes[3]= new Node("y");
-        nodes[4]= new Node("y");
-        nodes[5]= new Node("z");
-        nodes[6]= new Node("w");
+        nodes[0]= new Node(ids, "x");
+        nodes[1]= new Node(ids, "x");
+        nodes[2]= new Node(ids, "z");
+        nodes[3]= new Node(ids, "y");
+        nodes[4]= new Node(ids, "y");
+        nodes[5]= new Node(ids, "z");
+        nodes[6]= new Node(ids, "w");
 
         SimpleEdge[] edges = new SimpleEdge[7];
-        edges[0] = new SimpleEdge(nodes[0], nodes[1]);
-        edges[1] = new SimpleEdge(nodes[1], nodes[2]);
-        edges[2] = new SimpleEdge(nodes[2], nodes[3]);
-        edges[3] = new SimpleEdge(nodes[3], nodes[4]);
-        edges[4] = new SimpleEdge(nodes[5], nodes[4]);
-        edges[5] = new SimpleEdge(nodes[0], nodes[5]);
-        edges[6] = new SimpleEdge(nodes[5], nodes[6]);
+        edges[0] = new SimpleEdge(ids, nodes[0], nodes[1]);
+        edges[1] = new SimpleEdge(ids, nodes[1], nodes[2]);
+        edges[2] = new SimpleEdge(ids, nodes[2], nodes[3]);
+        edges[3] = new SimpleEdge(ids, nodes[3], nodes[4]);
+        edges[4] = new SimpleEdge(ids, nodes[5], nodes[4]);
+        edges[5] = new SimpleEdge(ids, nodes[0], nodes[5]);
+        edges[6] = new SimpleEdge(ids, nodes[5], nodes[6]);
 
         for (Node node : nodes) {
             graph.add(node);
@@ -101,6 +107,7 @@ class Util {
             graph.add(edge);
         }
         CompressionControl control = new CompressionControl(graph);
+        control.setKeepIntermediateGraphs(false);
         control.graphCompression(false);
 
         return graph;
@@ -116,89 +123,90 @@ class Util {
      */
     public static HyperGraph createSampleGraph() {
         HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
 
-        Node n6 = new Node("n6");
+        Node n6 = new Node(ids, "n6");
         graph.add(n6);
 
         //Left Side
-        Node n1 = new Node("n1");
+        Node n1 = new Node(ids, "n1");
         graph.add(n1);
-        Node n2 = new Node("n2");
+        Node n2 = new Node(ids, "n2");
         graph.add(n2);
-        Node n3 = new Node("n3");
+        Node n3 = new Node(ids, "n3");
         graph.add(n3);
-        Node n4 = new Node("n4");
+        Node n4 = new Node(ids, "n4");
         graph.add(n4);
-        Node n5 = new Node("n5");
+        Node n5 = new Node(ids, "n5");
         graph.add(n5);
 
 
-        HyperEdge e1 = new HyperEdge(new Node[]{n2}, new Node[]{n1}, "e1");
+        HyperEdge e1 = new HyperEdge(ids, new Node[]{n2}, new Node[]{n1}, "e1");
         graph.add(e1);
-        HyperEdge e2 = new HyperEdge(new Node[]{n2}, new Node[]{n3}, "e2");
+        HyperEdge e2 = new HyperEdge(ids, new Node[]{n2}, new Node[]{n3}, "e2");
         graph.add(e2);
-        HyperEdge e3 = new HyperEdge(new Node[]{n4}, new Node[]{n3}, "e3");
+        HyperEdge e3 = new HyperEdge(ids, new Node[]{n4}, new Node[]{n3}, "e3");
         graph.add(e3);
-        HyperEdge e5 = new HyperEdge(new Node[]{n1}, new Node[]{n5}, "e5");
+        HyperEdge e5 = new HyperEdge(ids, new Node[]{n1}, new Node[]{n5}, "e5");
         graph.add(e5);
-        HyperEdge e7 = new HyperEdge(new Node[]{n5}, new Node[]{n6}, "e7");
+        HyperEdge e7 = new HyperEdge(ids, new Node[]{n5}, new Node[]{n6}, "e7");
         graph.add(e7);
-        HyperEdge e8 = new HyperEdge(new Node[]{n4}, new Node[]{n6}, "e3");
+        HyperEdge e8 = new HyperEdge(ids, new Node[]{n4}, new Node[]{n6}, "e3");
         graph.add(e8);
 
         for (int i = 0; i < 4; i++) {
-            Node n7 = new Node("n7");
+            Node n7 = new Node(ids, "n7");
             graph.add(n7);
-            Node n8 = new Node("n8");
+            Node n8 = new Node(ids, "n8");
             graph.add(n8);
 
-            HyperEdge e10 = new HyperEdge(new Node[]{n4}, new Node[]{n7}, "e10");
+            HyperEdge e10 = new HyperEdge(ids, new Node[]{n4}, new Node[]{n7}, "e10");
             graph.add(e10);
-            HyperEdge e11 = new HyperEdge(new Node[]{n7}, new Node[]{n8}, "e11");
+            HyperEdge e11 = new HyperEdge(ids, new Node[]{n7}, new Node[]{n8}, "e11");
             graph.add(e11);
-            HyperEdge e12 = new HyperEdge(new Node[]{n8}, new Node[]{n8}, "e12");
+            HyperEdge e12 = new HyperEdge(ids, new Node[]{n8}, new Node[]{n8}, "e12");
             graph.add(e12);
         }
 
 
         //Right Side
-        n1 = new Node("n1");
+        n1 = new Node(ids, "n1");
         graph.add(n1);
-        n2 = new Node("n2");
+        n2 = new Node(ids, "n2");
         graph.add(n2);
-        n3 = new Node("n3");
+        n3 = new Node(ids, "n3");
         graph.add(n3);
-        n4 = new Node("n4");
+        n4 = new Node(ids, "n4");
         graph.add(n4);
-        n5 = new Node("n5");
+        n5 = new Node(ids, "n5");
         graph.add(n5);
 
 
-        e1 = new HyperEdge(new Node[]{n2}, new Node[]{n1}, "e1");
+        e1 = new HyperEdge(ids, new Node[]{n2}, new Node[]{n1}, "e1");
         graph.add(e1);
 
-        e3 = new HyperEdge(new Node[]{n4}, new Node[]{n3}, "e3");
+        e3 = new HyperEdge(ids, new Node[]{n4}, new Node[]{n3}, "e3");
         graph.add(e3);
-        HyperEdge e4 = new HyperEdge(new Node[]{n2}, new Node[]{n3}, "e4");
+        HyperEdge e4 = new HyperEdge(ids, new Node[]{n2}, new Node[]{n3}, "e4");
         graph.add(e4);
-        HyperEdge e6 = new HyperEdge(new Node[]{n1}, new Node[]{n5}, "e6");
+        HyperEdge e6 = new HyperEdge(ids, new Node[]{n1}, new Node[]{n5}, "e6");
         graph.add(e6);
-        e7 = new HyperEdge(new Node[]{n5}, new Node[]{n6}, "e7");
+        e7 = new HyperEdge(ids, new Node[]{n5}, new Node[]{n6}, "e7");
         graph.add(e7);
-        HyperEdge e9 = new HyperEdge(new Node[]{n4}, new Node[]{n6}, "e9");
+        HyperEdge e9 = new HyperEdge(ids, new Node[]{n4}, new Node[]{n6}, "e9");
         graph.add(e9);
 
         for (int i = 0; i < 4; i++) {
-            Node n7 = new Node("n7");
+            Node n7 = new Node(ids, "n7");
             graph.add(n7);
-            Node n8 = new Node("n8");
+            Node n8 = new Node(ids, "n8");
             graph.add(n8);
 
-            HyperEdge e10 = new HyperEdge(new Node[]{n4}, new Node[]{n7}, "e10");
+            HyperEdge e10 = new HyperEdge(ids, new Node[]{n4}, new Node[]{n7}, "e10");
             graph.add(e10);
-            HyperEdge e11 = new HyperEdge(new Node[]{n7}, new Node[]{n8}, "e11");
+            HyperEdge e11 = new HyperEdge(ids, new Node[]{n7}, new Node[]{n8}, "e11");
             graph.add(e11);
-            HyperEdge e12 = new HyperEdge(new Node[]{n8}, new Node[]{n8}, "e12");
+            HyperEdge e12 = new HyperEdge(ids, new Node[]{n8}, new Node[]{n8}, "e12");
             graph.add(e12);
         }
 
@@ -1,24 +1,46 @@
 package model.Digram;
 
+import model.Graph.Node;
+import model.Graph.SimpleEdge;
+import model.LabelDictionary;
 import model.Tuple;
 
-import java.awt.datatransfer.StringSelection;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 public class AdjacencyDigram extends Digram {
 
-    private String label1, label2;
+    private int label1, label2;
     private int equivClass1, equivClass2;
     private EdgeDirection direction1, direction2;
 
+    /**
+     * true if the two edges have different equivalence classes at the mid node.
+     */
+    private boolean splitMid;
+
     public AdjacencyDigram(String label1, String label2, int equivClass1, int equivClass2, EdgeDirection direction1, EdgeDirection direction2, List<Digram> appliedDigrams) {
+        this(LabelDictionary.getId(label1), LabelDictionary.getId(label2), equivClass1, equivClass2, direction1, direction2, appliedDigrams);
+    }
+
+    public AdjacencyDigram(int label1, int label2, int equivClass1, int equivClass2, EdgeDirection direction1, EdgeDirection direction2, List<Digram> appliedDigrams) {
+        this(label1, label2, equivClass1, equivClass2, direction1, direction2, false, appliedDigrams);
+    }
+
+    /**
+     * Constructor for an AdjacencyDigram whose edges may have different equivalence classes at the mid node. Then the
+     * replacement keeps an edge to the mid node for each outer node, so the mid node gets a second equivalence class.
+     * @param splitMid true if the two edges have different equivalence classes at the mid node.
+     */
+    public AdjacencyDigram(int label1, int label2, int equivClass1, int equivClass2, EdgeDirection direction1, EdgeDirection direction2, boolean splitMid, List<Digram> appliedDigrams) {
         this.label1 = label1;
         this.label2 = label2;
         this.equivClass1 = equivClass1;
         this.equivClass2 = equivClass2;
         this.direction1 = direction1;
         this.direction2 = direction2;
+        this.splitMid = splitMid;
 
         putTuplesForNodeWithLabel(appliedDigrams, label1, true);
         putTuplesForNodeWithLabel(appliedDigrams, label2, false);
@@ -27,20 +49,40 @@ public class AdjacencyDigram extends Digram {
         // TODO: This could be done nicer, but it should work
         List<Tuple<Integer,Integer>> list = new ArrayList<>();
         list.add(new Tuple<>(1,equivClassCounter++));
+        if (splitMid) {
+            list.add(new Tuple<>(2, equivClassCounter++));
+        }
         mapEquivClasses.put("midNode", list);
 
 
     }
 
     @Override
-    public int getNumOccurrences(String label) {
-        throw  new RuntimeException();
+    public boolean hasNecessaryLabels(BitSet labels) {
+        return labels.get(label1) && labels.get(label2);
+    }
+
+    /**
+     * Counts how often the label occurs at the outer nodes of this digram and in all inlined digrams.
+     * @param labelId the id of the label for which the count is executed.
+     * @return the number of occurrences of this label in the digrams.
+     */
+    @Override
+    public int getNumOccurrences(int labelId) {
+        int counter = 0;
+        if (label1 == labelId) counter++;
+        if (label2 == labelId) counter++;
+
+        for (Digram digram : inlinedDigrams) {
+            counter += digram.getNumOccurrences(labelId);
+        }
+        return counter;
     }
 
     @Override
     public String innerToString() {
 
-        String string = label1;
+        String string = getLabel1();
         string +=" "+equivClass1;
         if(direction1==EdgeDirection.INGOING){
             string+= "<- ";
@@ -54,7 +96,10 @@ public class AdjacencyDigram extends Digram {
             string+=" <-";
         }
         string+=equivClass2;
-        string+=label2;
+        string+=getLabel2();
+        if (splitMid) {
+            string += " (split mid)";
+        }
         return string;
 
     }
@@ -64,41 +109,66 @@ public class AdjacencyDigram extends Digram {
         return innerToString();
     }
 
+    /**
+     * Two AdjacencyDigrams are equal if they have the same labels, equivalence classes and directions, possibly with
+     * the first and the second outer node swapped, and both or none of them have a split mid node.
+     */
     @Override
     public boolean equals(Object obj) {
         if (!(obj instanceof AdjacencyDigram)) {
             return false;
         }
-        AdjacencyDigram otherDigram = (AdjacencyDigram) obj;
-        return hashCode() == otherDigram.hashCode();
+        AdjacencyDigram other = (AdjacencyDigram) obj;
+        if (splitMid != other.splitMid) {
+            return false;
+        }
+        return label1 == other.label1 && label2 == other.label2 && equivClass1 == other.equivClass1
+                && equivClass2 == other.equivClass2 && direction1 == other.direction1 && direction2 == other.direction2
+                || label1 == other.label2 && label2 == other.label1 && equivClass1 == other.equivClass2
+                && equivClass2 == other.equivClass1 && direction1 == other.direction2 && direction2 == other.direction1;
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
+        boolean inOrder = compareEnds(label1, equivClass1, direction1, label2, equivClass2, direction2) <= 0;
         int result = 1;
+        result = prime * result + (inOrder ? label1 : label2);
+        result = prime * result + (inOrder ? label2 : label1);
+        result = prime * result + (inOrder ? equivClass1 : equivClass2);
+        result = prime * result + (inOrder ? equivClass2 : equivClass1);
+        result = prime * result + (inOrder ? direction1 : direction2).toInt();
+        result = prime * result + (inOrder ? direction2 : direction1).toInt();
+        result = prime * result + (splitMid ? 1 : 0);
+        return result;
+    }
 
-        int iLabel1 = label1.hashCode();
-        int iLabel2 = label2.hashCode();
-
-        int min = Math.min(iLabel1, iLabel2);
-        int max = Math.max(iLabel1, iLabel2);
-
-        result = prime * result + min;
-        result = prime * result + max;
-
-        if (min == iLabel1) {
-            result = prime * result + equivClass1;
-            result = prime * result + equivClass2;
-            result = prime * result + direction1.toInt();
-            result = prime * result + direction2.toInt();
-        } else {
-            result = prime * result + equivClass2;
-            result = prime * result + equivClass1;
-            result = prime * result + direction2.toInt();
-            result = prime * result + direction1.toInt();
+    /**
+     * Compares the two outer nodes of an AdjacencyDigram by their labels, equivalence classes and directions.
+     * An AdjacencyDigram is in canonical order if its first outer node is not greater than the second one.
+     * The labels are compared by their strings and not by their ids, which depend on the order in which the labels were
+     * interned, so the canonical order is the same for each compression of a graph.
+     * @return a negative number, zero or a positive number if the first outer node is less than, equal to or greater
+     * than the second outer node.
+     */
+    public static int compareEnds(int label1, int equivClass1, EdgeDirection direction1, int label2, int equivClass2, EdgeDirection direction2) {
+        if (label1 != label2) {
+            return LabelDictionary.getLabel(label1).compareTo(LabelDictionary.getLabel(label2));
         }
-        return result;
+        if (equivClass1 != equivClass2) {
+            return Integer.compare(equivClass1, equivClass2);
+        }
+        return Integer.compare(direction1.toInt(), direction2.toInt());
+    }
+
+    /**
+     * Gets the direction of an edge of an AdjacencyDigram relative to the mid node.
+     * @param edge the edge.
+     * @param midNode the mid node, which is a node of the edge.
+     * @return INGOING if the edge starts at the mid node, else OUTGOING.
+     */
+    public static EdgeDirection getDirection(SimpleEdge edge, Node midNode) {
+        return edge.getStartnode().equals(midNode) ? EdgeDirection.INGOING : EdgeDirection.OUTGOING;
     }
 
     public enum EdgeDirection {
@@ -114,10 +184,18 @@ public class AdjacencyDigram extends Digram {
     }
 
     public String getLabel1() {
-        return label1;
+        return LabelDictionary.getLabel(label1);
     }
 
     public String getLabel2() {
+        return LabelDictionary.getLabel(label2);
+    }
+
+    public int getLabelId1() {
+        return label1;
+    }
+
+    public int getLabelId2() {
         return label2;
     }
 
@@ -136,4 +214,26 @@ public class AdjacencyDigram extends Digram {
     public EdgeDirection getDirection2() {
         return direction2;
     }
+
+    /**
+     * Gets the priority of the digram. A digram with a split mid node keeps two edges to the mid node, so each
+     * occurrence removes only one element instead of two, and the digram has to pay for its rule of three elements.
+     * So it is ranked like a digram with half of its occurrences and is not replaced with less than four occurrences.
+     * @return the priority of the digram, 0 if the digram should not be replaced.
+     */
+    @Override
+    public int getPriority() {
+        if (!splitMid) {
+            return getSize();
+        }
+        return getSize() > 3 ? getSize() / 2 : 0;
+    }
+
+    /**
+     * Getter for the split mid node.
+     * @return true if the two edges have different equivalence classes at the mid node, else false.
+     */
+    public boolean isSplitMid() {
+        return splitMid;
+    }
 }
@@ -2,10 +2,7 @@ package model.Digram;
 
 
 
-import model.DigramOccurrence.BasicDigramOccurrence;
-import model.DigramOccurrence.DigramOccurrence;
-import model.Graph.Node;
-import model.Graph.SimpleEdge;
+import model.LabelDictionary;
 
 import java.util.*;
 
@@ -18,13 +15,13 @@ import java.util.*;
  */
 public class BasicDigram extends Digram{
     /**
-     * the labels for the start node.
+     * the label id for the start node.
      */
-    private final String startNodeLabel;
+    private final int startNodeLabel;
     /**
-     * the labels for the end node.
+     * the label id for the end node.
      */
-    private final String endNodeLabel;
+    private final int endNodeLabel;
 
     private final int equivStartNode;
 
@@ -32,12 +29,12 @@ public class BasicDigram extends Digram{
 
     /**
      * Constructor for the BasicDigram.
-     * @param startNodeLabel the label for the start node of the digram.
-     * @param endNodeLabel the label for the end node of the digram.
+     * @param startNodeLabel the label id for the start node of the digram.
+     * @param endNodeLabel the label id for the end node of the digram.
      * @param equivStartNode
      * @param equivEndNode
      */
-    public BasicDigram(String startNodeLabel, String endNodeLabel, int equivStartNode, int equivEndNode, List<Digram> appliedDigrams) {
+    public BasicDigram(int startNodeLabel, int endNodeLabel, int equivStartNode, int equivEndNode, List<Digram> appliedDigrams) {
         this.startNodeLabel = startNodeLabel;
         this.endNodeLabel = endNodeLabel;
         this.equivStartNode = equivStartNode;
@@ -52,40 +49,14 @@ public class BasicDigram extends Digram{
 
 
 
-    /**
-     * Indicates whether there is a node in the associated occurrences with the id 'nodeid'.
-     * @param nodeId the ID for the node we are looking for.
-     * @return true if the node with nodeId contains in the associated occurrences, else false.
-     */
-    public boolean containsNode(int nodeId) {
-        return allNodes.containsKey(nodeId);
-    }
-
-
-
-    /**
-     * Adds a new occurrence for the Edge 'edge' to the associated occurrences.
-     * @param edge the edge for the new occurrence.
-     */
-    public void addOccurrence(SimpleEdge edge) {
-        DigramOccurrence occ = new BasicDigramOccurrence(edge.getStartnode(), edge.getEndnode() ,edge);
-        occurrences.add(occ);
-        for (Node node : occ.getNodes()) {
-            allNodes.put(node.getId(), node);
-        }
-
-
-    }
-
     /**
      * Deletes all associated occurrences of the BasicDigram 'digram' in the associated occurrences.
      * @param digram the digram for which occurrences the deletion is executed.
      */
     public void deleteDigrams(BasicDigram digram) {
-        LinkedList<DigramOccurrence> copiedDigrams = new LinkedList<>(getOccurrences());
-        for (DigramOccurrence occurrence : copiedDigrams) {
-            if (occurrence.containsSomeNodeOfDigram(digram)) {
-                occurrences.remove(occurrence);
+        for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+            if (digram.containsNode(occurrences.getNode1(slot)) || digram.containsNode(occurrences.getNode2(slot))) {
+                removeOccurrence(slot);
             }
         }
     }
@@ -98,16 +69,16 @@ public class BasicDigram extends Digram{
 
     /**
      * Counts how often the label occurs in this digram and all inlined digrams.
-     * @param label the label for which the count is executed.
+     * @param labelId the id of the label for which the count is executed.
      * @return the number of occurrences of this label in the digrams.
      */
-    public int getNumOccurrences(String label) {
+    public int getNumOccurrences(int labelId) {
         int counter = 0;
-        if (startNodeLabel.equals(label)) counter++;
-        if (endNodeLabel.equals(label)) counter++;
+        if (startNodeLabel == labelId) counter++;
+        if (endNodeLabel == labelId) counter++;
 
         for (Digram digram : inlinedDigrams) {
-            counter += digram.getNumOccurrences(label);
+            counter += digram.getNumOccurrences(labelId);
         }
         return counter;
 
@@ -118,14 +89,51 @@ public class BasicDigram extends Digram{
      * @return the start node label of the digram.
      */
     public String getStartNodelabel() {
+        return LabelDictionary.getLabel(startNodeLabel);
+    }
+
+    /**
+     * Getter for the id of the start node label.
+     * @return the id of the start node label of the digram.
+     */
+    public int getStartNodeLabelId() {
         return startNodeLabel;
     }
 
+    /**
+     * Getter for the equivalence class of the start node.
+     * @return the equivalence class of the start node of the digram.
+     */
+    public int getEquivStartNode() {
+        return equivStartNode;
+    }
+
+    /**
+     * Getter for the equivalence class of the end node.
+     * @return the equivalence class of the end node of the digram.
+     */
+    public int getEquivEndNode() {
+        return equivEndNode;
+    }
+
+    @Override
+    public boolean hasNecessaryLabels(BitSet labels) {
+        return labels.get(startNodeLabel) && labels.get(endNodeLabel);
+    }
+
     /**
      * Getter for end node label.
      * @return the end node label of the digram.
      */
     public String getEndNodelabel() {
+        return LabelDictionary.getLabel(endNodeLabel);
+    }
+
+    /**
+     * Getter for the id of the end node label.
+     * @return the id of the end node label of the digram.
+     */
+    public int getEndNodeLabelId() {
         return endNodeLabel;
     }
 
@@ -155,29 +163,29 @@ public class BasicDigram extends Digram{
     public String innerToString() {
         if (!hasInlined) {
 
-            return startNodeLabel + " " + equivStartNode + " -> " + equivEndNode + " " + endNodeLabel;
+            return getStartNodelabel() + " " + equivStartNode + " -> " + equivEndNode + " " + getEndNodelabel();
         } else {
             String text = "";
             boolean added = false;
             for (Digram digram : inlinedDigrams) {
-                if (digram.getNonterminal().equals(startNodeLabel)) {
+                if (digram.getNonterminalId() == startNodeLabel) {
                     text += "(" + digram.innerToString() + ")->";
                     added = true;
                 }
             }
             if (!added) {
-                text += startNodeLabel + "->";
+                text += getStartNodelabel() + "->";
             }
 
             added = false;
             for (Digram digram : inlinedDigrams) {
-                if (digram.getNonterminal().equals(endNodeLabel)) {
+                if (digram.getNonterminalId() == endNodeLabel) {
                     text += "(" + digram.innerToString() + ")";
                     added = true;
                 }
             }
             if (!added) {
-                text += endNodeLabel;
+                text += getEndNodelabel();
             }
             return text;
         }
@@ -189,7 +197,7 @@ public class BasicDigram extends Digram{
      */
     public String toStringUnpruned() {
         String string = nonterminal + ": ";
-        string += startNodeLabel + "->" + endNodeLabel;
+        string += getStartNodelabel() + "->" + getEndNodelabel();
         return string;
     }
 }
@@ -1,7 +1,7 @@
 package model.Digram;
 
-import model.DigramOccurrence.DigramOccurrence;
-import model.Graph.Node;
+import model.DigramOccurrence.OccurrenceTable;
+import model.LabelDictionary;
 import model.Tuple;
 
 import java.util.*;
@@ -9,24 +9,39 @@ import java.util.*;
 public abstract class Digram {
 
     /**
-     * counter for the identifier of a digram.
+     * the associated occurrences.
      */
-    private static int digramCounter = 0;
-
-    protected List<DigramOccurrence> occurrences;
+    protected final OccurrenceTable occurrences = new OccurrenceTable();
     protected final Map<String, List<Tuple<Integer, Integer>>> mapEquivClasses = new HashMap<>();
     /**
      * the non terminal from the digram.
      */
     protected String nonterminal;
+    /**
+     * the label id of the non terminal, -1 as long as the digram has no non terminal.
+     */
+    protected int nonterminalId = -1;
+    /**
+     * the number of the non terminal, which increases in the order of the replacements, -1 as long as the digram has
+     * no non terminal.
+     */
+    protected int nonterminalNumber = -1;
     /**
      * the set of inlined digrams.
      */
     protected final List<Digram> inlinedDigrams = new ArrayList<>();
     /**
-     * set of all nodes from the associated occurrences.
+     * the ids of all nodes from the associated occurrences, so that the overlap of an occurrence is checked in O(1).
      */
-    protected final HashMap<Integer, Node> allNodes = new HashMap<>();
+    protected final NodeIdSet occupiedNodes = new NodeIdSet();
+    /**
+     * the ids of the mid nodes from the associated occurrences, a mid node is counted for each of its occurrences.
+     */
+    protected final NodeIdSet occupiedMidNodes = new NodeIdSet();
+    /**
+     * the possible occurrences in the order in which they were found, from which the occurrences are selected.
+     */
+    protected OccurrenceTable candidates = new OccurrenceTable();
 
     /**
      * indicates whether the digram contain inlinded occurrences.
@@ -39,28 +54,208 @@ public abstract class Digram {
 
     protected int equivClassCounter = 1;
 
+    /**
+     * the rewrite program of the digram, which is compiled when the non terminal is set: the new equivalence class at
+     * the non terminal node for each equivalence class of an edge at the start node and at the end node, -1 for an
+     * unknown class, and the equivalence classes of the edges of the mid node to the first and the second outer node,
+     * which are equal unless the mid node is split, -1 for a basic digram.
+     */
+    private int[] startEquivClasses, endEquivClasses;
+    private int midEquivClass = -1, midEquivClass2 = -1;
+
+    /**
+     * the DigramQueue which contains the digram, null if the digram is not in a queue.
+     */
+    DigramQueue queue;
+
+    /**
+     * the neighbours of the digram in its bucket of the DigramQueue.
+     */
+    Digram queuePrevious, queueNext;
+
+    /**
+     * the bucket of the digram in the DigramQueue.
+     */
+    int queueBucket;
+
     public Digram() {
-        this.occurrences = new ArrayList<>();
     }
 
 
     /**
      * Setter for the Non terminal of the digram.
+     * @param nonterminalId the label id of the non terminal, which is not used by any other label of the graph.
+     * @param nonterminalNumber the number of the non terminal.
+     * @see model.Graph.IdAllocator#nextNonterminal()
+     */
+    public void setNonterminal(int nonterminalId, int nonterminalNumber) {
+        this.nonterminalId = nonterminalId;
+        this.nonterminalNumber = nonterminalNumber;
+        nonterminal = LabelDictionary.getLabel(nonterminalId);
+        startEquivClasses = compileEquivClasses(mapEquivClasses.get("startNode"));
+        endEquivClasses = compileEquivClasses(mapEquivClasses.get("endNode"));
+        List<Tuple<Integer, Integer>> midTuples = mapEquivClasses.get("midNode");
+        midEquivClass = midTuples == null ? -1 : midTuples.get(0).y;
+        midEquivClass2 = midTuples == null ? -1 : midTuples.get(midTuples.size() - 1).y;
+    }
+
+    /**
+     * Compiles the mapping of the equivalence classes of an outer node into a table which is indexed by the old class.
+     * @param tuples the mapping old class -> new class, the first tuple of an old class is taken.
+     * @return the new class for each old class, -1 for an unknown class.
+     */
+    private static int[] compileEquivClasses(List<Tuple<Integer, Integer>> tuples) {
+        int length = 0;
+        for (Tuple<Integer, Integer> tuple : tuples) {
+            length = Math.max(length, tuple.x + 1);
+        }
+        int[] table = new int[length];
+        Arrays.fill(table, -1);
+        for (Tuple<Integer, Integer> tuple : tuples) {
+            if (table[tuple.x] == -1) {
+                table[tuple.x] = tuple.y;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Gets the equivalence class at the non terminal node for an edge which was incident to an outer node.
+     * The non terminal must be set.
+     * @param startNode true for the start node of the digram, false for the end node.
+     * @param equivClass the equivalence class of the edge at the outer node.
+     * @return the equivalence class of the edge at the non terminal node.
+     */
+    public int getNewEquivClass(boolean startNode, int equivClass) {
+        int[] table = startNode ? startEquivClasses : endEquivClasses;
+        if (equivClass < 0 || equivClass >= table.length || table[equivClass] < 0) {
+            // this never happens
+            throw new RuntimeException("unable to compute new equiv class");
+        }
+        return table[equivClass];
+    }
+
+    /**
+     * Getter for the equivalence class at the non terminal node of the edge which connects the mid node.
+     * The non terminal must be set.
+     * @return the equivalence class of the edge of the mid node, -1 for a basic digram.
      */
-    public void setNonterminal() {
-        nonterminal = "A_" + digramCounter++;
+    public int getMidEquivClass() {
+        return midEquivClass;
+    }
 
+    /**
+     * Getter for the equivalence class at the non terminal node of the edge which connects the mid node for the second
+     * outer node. The non terminal must be set.
+     * @return the equivalence class of the edge of the mid node for the second outer node, which differs from
+     * {@link #getMidEquivClass()} only if the edges of the digram have different equivalence classes at the mid node,
+     * -1 for a basic digram.
+     * @see AdjacencyDigram#isSplitMid()
+     */
+    public int getMidEquivClass2() {
+        return midEquivClass2;
     }
 
-    public abstract int getNumOccurrences(String label) ;
+    public abstract int getNumOccurrences(int labelId) ;
+
+    /**
+     * Adds a possible occurrence, which may overlap with other possible occurrences.
+     * The nodes and edges must correspond to the nodes and edges of the digram in this order.
+     * @param node1 the id of the first outer node.
+     * @param node2 the id of the second outer node.
+     * @param edge1 the id of the first edge.
+     * @param edge2 the id of the second edge, {@link OccurrenceTable#NONE} for a basic digram.
+     * @param midNode the id of the mid node, {@link OccurrenceTable#NONE} for a basic digram.
+     * @see #selectOccurrences()
+     */
+    public void addCandidate(int node1, int node2, int edge1, int edge2, int midNode) {
+        candidates.add(node1, node2, edge1, edge2, midNode);
+    }
+
+    /**
+     * Appends the possible occurrences of an equal digram, which were found after the possible occurrences of this digram.
+     * @param digram the equal digram.
+     */
+    public void addCandidates(Digram digram) {
+        candidates.addAll(digram.candidates);
+    }
+
+    /**
+     * Selects the associated occurrences from the possible occurrences.
+     *
+     * The possible occurrences are visited in the order in which they were found and an occurrence is selected if none
+     * of its two nodes belongs to an occurrence which is already selected. So the result only depends on the order of
+     * the possible occurrences.
+     */
+    public void selectOccurrences() {
+        OccurrenceTable table = candidates;
+        for (int slot = table.next(0); slot >= 0; slot = table.next(slot + 1)) {
+            selectOccurrence(table.getNode1(slot), table.getNode2(slot), table.getEdge1(slot), table.getEdge2(slot),
+                    table.getMidNode(slot));
+        }
+        candidates = new OccurrenceTable();
+    }
+
+    /**
+     * Adds a possible occurrence to the associated occurrences if none of its two nodes belongs to an associated
+     * occurrence. Occurrences may share their mid node, but a mid node must not be an outer node of another
+     * occurrence, so that the internal edges of the occurrences are disjoint and each occurrence can be replaced
+     * independently.
+     * @return the slot of the added occurrence, -1 if the possible occurrence overlaps with an associated occurrence.
+     * @see #addCandidate(int, int, int, int, int)
+     */
+    public int selectOccurrence(int node1, int node2, int edge1, int edge2, int midNode) {
+        if (occupiedNodes.contains(node1) || occupiedNodes.contains(node2)
+                || occupiedMidNodes.contains(node1) || occupiedMidNodes.contains(node2)
+                || midNode != OccurrenceTable.NONE && occupiedNodes.contains(midNode)) {
+            return -1;
+        }
+        occupiedNodes.add(node1);
+        occupiedNodes.add(node2);
+        if (midNode != OccurrenceTable.NONE) {
+            occupiedMidNodes.add(midNode);
+        }
+        return occurrences.add(node1, node2, edge1, edge2, midNode);
+    }
+
+    /**
+     * Removes an associated occurrence, e.g. because one of its edges was replaced.
+     * The slots of the other occurrences do not change.
+     * @param slot the slot of the associated occurrence.
+     */
+    public void removeOccurrence(int slot) {
+        occupiedNodes.remove(occurrences.getNode1(slot));
+        occupiedNodes.remove(occurrences.getNode2(slot));
+        if (occurrences.getMidNode(slot) != OccurrenceTable.NONE) {
+            occupiedMidNodes.remove(occurrences.getMidNode(slot));
+        }
+        occurrences.remove(slot);
+    }
+
+    /**
+     * Indicates whether there is a node in the associated occurrences with the id 'nodeid'.
+     * This takes O(1) for both kinds of digrams.
+     * @param nodeId the ID for the node we are looking for.
+     * @return true if the node with nodeId contains in the associated occurrences, else false.
+     */
+    public boolean containsNode(int nodeId) {
+        return occupiedNodes.contains(nodeId);
+    }
+
+    /**
+     * Checks whether the labels of the outer nodes of the digram are necessary.
+     * @param labels the ids of the necessary labels.
+     * @return true if all labels of the outer nodes are necessary, else false.
+     */
+    public abstract boolean hasNecessaryLabels(BitSet labels);
 
     public abstract String innerToString();
 
-    protected void putTuplesForNodeWithLabel(List<Digram> appliedDigrams, String nodeLabel, boolean isStartNode){
+    protected void putTuplesForNodeWithLabel(List<Digram> appliedDigrams, int nodeLabel, boolean isStartNode){
         List<Tuple<Integer, Integer>> lstNewTuples = new ArrayList<>();
         boolean isNonTerminal = false;
         for(Digram appliedDigram : appliedDigrams){
-            if(appliedDigram.getNonterminal().equals(nodeLabel)){
+            if(appliedDigram.getNonterminalId() == nodeLabel){
                 // the startnode is a non terminal, so more complex mapping is needed
                 isNonTerminal = true;
                 Map<String, List<Tuple<Integer, Integer>>> mapEquivClassesAppliedDigr = appliedDigram.getMapEquivClasses();
@@ -102,15 +297,19 @@ public abstract class Digram {
     }
 
     /**
-     * Getter for all associated occurrences.
-     * @return all associated occurrences of the digram.
+     * Getter for the associated occurrences, which must not be changed directly.
+     * @return the associated occurrences of the digram.
      */
-    public HashMap<Integer, Node> getAllNodes() {
-        return allNodes;
+    public OccurrenceTable getOccurrences() {
+        return occurrences;
     }
 
-    public List<DigramOccurrence> getOccurrences() {
-        return occurrences;
+    /**
+     * Getter for the inlined digrams, which must not be changed directly.
+     * @return the digrams which were inlined into this digram by the pruning.
+     */
+    public List<Digram> getInlinedDigrams() {
+        return inlinedDigrams;
     }
 
     public Map<String, List<Tuple<Integer, Integer>>> getMapEquivClasses() {
@@ -125,6 +324,15 @@ public abstract class Digram {
         return occurrences.size();
     }
 
+    /**
+     * Gets the priority of the digram in a DigramQueue, which is the number of associated occurrences unless a
+     * replacement removes fewer elements than usual.
+     * @return the priority of the digram, 0 if the digram should not be replaced.
+     */
+    public int getPriority() {
+        return getSize();
+    }
+
 
     /**
      * Getter for the Non terminal of the digram.
@@ -134,6 +342,22 @@ public abstract class Digram {
         return nonterminal;
     }
 
+    /**
+     * Getter for the label id of the Non terminal of the digram.
+     * @return the label id of the Non terminal, -1 if the digram has no Non terminal.
+     */
+    public int getNonterminalId() {
+        return nonterminalId;
+    }
+
+    /**
+     * Getter for the number of the Non terminal of the digram.
+     * @return the number of the Non terminal, -1 if the digram has no Non terminal.
+     */
+    public int getNonterminalNumber() {
+        return nonterminalNumber;
+    }
+
 
     /**
      * Getter that indicates that digram was applied.
@@ -0,0 +1,145 @@
+package model.Digram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * This is a class for a priority queue of digrams by their number of associated occurrences, like the one of RePair.
+ *
+ * The queue has a bucket for each number of occurrences, which is the priority of most digrams, see
+ * {@link Digram#getPriority()}, and each bucket is a doubly linked list of digrams. The links
+ * are stored in the digrams themselves, so a digram can be in at most one queue at a time. A digram is moved to another bucket in
+ * O(1) when its number of occurrences changes, and the digram with the maximal number of occurrences is found in O(1)
+ * amortized time, because the index of the maximal bucket only decreases when buckets get empty.
+ *
+ * Within a bucket the digrams are ordered by the time since they have got their number of occurrences, so the order of
+ * the queue only depends on the order of the updates.
+ */
+public class DigramQueue {
+
+    /**
+     * the first digram of each bucket, the index is the number of occurrences.
+     */
+    private Digram[] heads = new Digram[16];
+
+    /**
+     * the last digram of each bucket, the index is the number of occurrences.
+     */
+    private Digram[] tails = new Digram[16];
+
+    /**
+     * an upper bound for the index of the maximal bucket which is not empty.
+     */
+    private int maxBucket;
+
+    /**
+     * the number of digrams in the queue.
+     */
+    private int size;
+
+    /**
+     * Adds a digram to the queue or moves it to the bucket of its current number of occurrences.
+     * A digram without occurrences or with the priority 0 is removed from the queue.
+     * @param digram the digram whose number of occurrences may have changed.
+     * @throws IllegalArgumentException if the digram is contained in another queue.
+     */
+    public void update(Digram digram) {
+        if (digram.queue != null && digram.queue != this) {
+            throw new IllegalArgumentException("the digram is contained in another queue");
+        }
+        if (digram.queue == this && digram.queueBucket == digram.getPriority()) {
+            return;
+        }
+        remove(digram);
+        if (digram.getPriority() > 0) {
+            add(digram);
+        }
+    }
+
+    /**
+     * Removes a digram from the queue if it is contained.
+     * @param digram the digram.
+     */
+    public void remove(Digram digram) {
+        if (digram.queue != this) {
+            return;
+        }
+        int bucket = digram.queueBucket;
+        if (digram.queuePrevious == null) {
+            heads[bucket] = digram.queueNext;
+        } else {
+            digram.queuePrevious.queueNext = digram.queueNext;
+        }
+        if (digram.queueNext == null) {
+            tails[bucket] = digram.queuePrevious;
+        } else {
+            digram.queueNext.queuePrevious = digram.queuePrevious;
+        }
+        digram.queuePrevious = null;
+        digram.queueNext = null;
+        digram.queueBucket = 0;
+        digram.queue = null;
+        size--;
+    }
+
+    private void add(Digram digram) {
+        int bucket = digram.getPriority();
+        if (bucket >= heads.length) {
+            int length = Math.max(bucket + 1, heads.length * 2);
+            heads = Arrays.copyOf(heads, length);
+            tails = Arrays.copyOf(tails, length);
+        }
+        digram.queue = this;
+        digram.queueBucket = bucket;
+        digram.queuePrevious = tails[bucket];
+        if (tails[bucket] == null) {
+            heads[bucket] = digram;
+        } else {
+            tails[bucket].queueNext = digram;
+        }
+        tails[bucket] = digram;
+        maxBucket = Math.max(maxBucket, bucket);
+        size++;
+    }
+
+    /**
+     * Gets the digram with the maximal number of occurrences without removing it.
+     * If several digrams have the maximal number of occurrences, the one which has it for the longest time is taken.
+     * @return the digram with the maximal number of occurrences, null if the queue is empty.
+     */
+    public Digram peekMax() {
+        while (maxBucket > 0 && heads[maxBucket] == null) {
+            maxBucket--;
+        }
+        return heads[maxBucket];
+    }
+
+    /**
+     * Gets the digrams with the most occurrences in descending order of their number of occurrences.
+     * The buckets are visited from the maximal one until k digrams are found.
+     * @param k the maximal number of digrams.
+     * @param filter the condition for the digrams which are taken.
+     * @return at most k digrams of the queue which fulfill the condition.
+     */
+    public List<Digram> top(int k, Predicate<Digram> filter) {
+        List<Digram> digrams = new ArrayList<>(Math.min(k, size));
+        for (int bucket = maxBucket; bucket > 0 && digrams.size() < k; bucket--) {
+            for (Digram digram = heads[bucket]; digram != null && digrams.size() < k; digram = digram.queueNext) {
+                if (filter.test(digram)) {
+                    digrams.add(digram);
+                }
+            }
+        }
+        return digrams;
+    }
+
+    /**
+     * Getter for the number of digrams in the queue.
+     * @return the number of digrams.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,124 @@
+package model.Digram;
+
+/**
+ * This is a class for a set of node ids, which is a hash table with open addressing of primitive ints.
+ *
+ * Adding, removing and checking an id takes O(1) expected time without creating objects. The table is kept at most
+ * half full, so it needs about 16 bytes per id.
+ *
+ * An id which is added several times is counted and stays in the set until it is removed as often.
+ */
+class NodeIdSet {
+
+    /**
+     * the hash table, an entry is the id + 1 or 0 if the entry is empty.
+     */
+    private int[] table = new int[8];
+
+    /**
+     * the number of times the id of an entry of the hash table was added.
+     */
+    private int[] counts = new int[8];
+
+    /**
+     * the number of ids in the set.
+     */
+    private int size;
+
+    /**
+     * Checks whether the set contains an id.
+     * @param id the id.
+     * @return true if the set contains the id, else false.
+     */
+    boolean contains(int id) {
+        int mask = table.length - 1;
+        for (int i = hash(id) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == id + 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds an id to the set.
+     * @param id the id.
+     */
+    void add(int id) {
+        add(id, 1);
+    }
+
+    private void add(int id, int count) {
+        if (2 * (size + 1) > table.length) {
+            resize(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int i = hash(id) & mask;
+        while (table[i] != 0) {
+            if (table[i] == id + 1) {
+                counts[i] += count;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = id + 1;
+        counts[i] = count;
+        size++;
+    }
+
+    /**
+     * Removes an id from the set, if it was added as often as it is removed. The following entries of the cluster are
+     * moved back, so that no deleted markers are needed.
+     * @param id the id.
+     */
+    void remove(int id) {
+        int mask = table.length - 1;
+        int i = hash(id) & mask;
+        while (table[i] != id + 1) {
+            if (table[i] == 0) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        if (--counts[i] > 0) {
+            return;
+        }
+        table[i] = 0;
+        size--;
+        for (int k = (i + 1) & mask; table[k] != 0; k = (k + 1) & mask) {
+            int home = hash(table[k] - 1) & mask;
+            // the entry at k can be moved to the gap at i if its home is not in the cyclic interval (i, k]
+            if (((k - home) & mask) >= ((k - i) & mask)) {
+                table[i] = table[k];
+                counts[i] = counts[k];
+                table[k] = 0;
+                i = k;
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of ids in the set.
+     * @return the number of ids.
+     */
+    int size() {
+        return size;
+    }
+
+    private void resize(int length) {
+        int[] oldTable = table;
+        int[] oldCounts = counts;
+        table = new int[length];
+        counts = new int[length];
+        size = 0;
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != 0) {
+                add(oldTable[i] - 1, oldCounts[i]);
+            }
+        }
+    }
+
+    private static int hash(int id) {
+        return id * 0x9E3779B9 >>> 7 ^ id;
+    }
+}
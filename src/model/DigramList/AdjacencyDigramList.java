@@ -2,9 +2,7 @@ package model.DigramList;
 
 import model.Digram.AdjacencyDigram;
 import model.Digram.Digram;
-import model.DigramOccurrence.AdjacencyDigramOccurrence;
-import model.DigramOccurrence.DigramOccurrence;
-import model.Graph.Edge;
+import model.Graph.GraphStore;
 import model.Graph.Node;
 import model.Graph.HyperGraph;
 import model.Graph.SimpleEdge;
@@ -13,102 +11,400 @@ import java.util.*;
 
 public class AdjacencyDigramList extends DigramList {
 
+    /**
+     * the default degree above which a mid node is treated as a hub.
+     */
+    public static final int DEFAULT_HUB_DEGREE = 1024;
+
+    /**
+     * the default number of groups of incident edges of a hub which are paired.
+     */
+    public static final int DEFAULT_MAX_HUB_GROUPS = 64;
 
-    private final Map<AdjacencyDigram,AdjacencyDigram> digrams = new HashMap<>();
+    /**
+     * the number of partners which are tried for a new edge of a hub in each group.
+     */
+    private static final int HUB_TRIES = 4;
+
+    /**
+     * the degree above which a mid node is treated as a hub, see {@link #setHubLimits(int, int)}.
+     */
+    private int hubDegree = DEFAULT_HUB_DEGREE;
+
+    /**
+     * the maximal number of groups of incident edges of a hub which are paired.
+     */
+    private int maxHubGroups = DEFAULT_MAX_HUB_GROUPS;
+
+    /**
+     * the digrams by their packed keys in the order in which they were found, see
+     * {@link #getKey(int, int, int, int, AdjacencyDigram.EdgeDirection, AdjacencyDigram.EdgeDirection, boolean, boolean)}.
+     */
+    private final LongKeyMap<AdjacencyDigram> digrams = new LongKeyMap<>();
 
     /**
      * Constructor for the DigramList.
      *
-     * @param labels the necessary different labels of the nodes in the graph.
+     * @param labels the ids of the necessary different labels of the nodes in the graph.
      */
-    public AdjacencyDigramList(List<String> labels) {
+    public AdjacencyDigramList(BitSet labels) {
         super(labels);
     }
 
+    /**
+     * Setter for the limits of the hub handling.
+     *
+     * The incident edges of a mid node with a degree above hubDegree are not paired with each other. Instead they are
+     * grouped by their equivalence class at the hub, the label and equivalence class of their outer node and their
+     * direction, so that all pairs of two
+     * groups belong to the same digram. For each pair of groups only disjoint pairs of edges are taken, which are at
+     * most as many as the smaller group has edges. If there are more than maxHubGroups groups, only the largest groups
+     * are paired. So a hub takes O(d log d + g * d) instead of O(d^2) for d incident edges and g groups.
+     * <p>
+     * The pairs are materialized as possible occurrences, but only min(|g1|, |g2|) for two groups g1 and g2 and
+     * |g| / 2 within a group g, which is the number of disjoint occurrences of their digram at the hub. The incremental
+     * update tries only HUB_TRIES partners per group for each new edge, so after some rounds a digram can have fewer
+     * occurrences at a hub than a new search would find.
+     * @param hubDegree the degree above which a mid node is treated as a hub.
+     * @param maxHubGroups the maximal number of groups of a hub which are paired.
+     */
+    public void setHubLimits(int hubDegree, int maxHubGroups) {
+        this.hubDegree = hubDegree;
+        this.maxHubGroups = maxHubGroups;
+    }
+
     @Override
     public List<Digram> getAllActiveDigrams() {
-        return new ArrayList<>(digrams.keySet());
+        return new ArrayList<>(digrams.values());
     }
 
-
+    /**
+     * Adds the possible occurrences for all pairs of incident edges of the mid node to the corresponding digrams.
+     * @param midNode the mid node of the possible occurrences.
+     * @see Digram#addCandidate(int, int, int, int, int)
+     */
     public void addDigrams(Node midNode, List<Digram> appliedDigrams, HyperGraph graph) {
-        List<SimpleEdge> incidentEdges = new ArrayList<>();
-        for (Edge edge : graph.getAllEdges().values()) {
-            SimpleEdge simpleEdge = (SimpleEdge) edge;
-            if (simpleEdge.getStartnode().equals(midNode)||simpleEdge.getEndnode().equals(midNode)) {
-                incidentEdges.add(simpleEdge);
-            }
+        addDigrams(midNode.getId(), appliedDigrams, graph.getStore());
+    }
+
+    /**
+     * Adds the possible occurrences for all pairs of incident edges of the mid node of a store to the corresponding
+     * digrams. The store is only accessed by the ids, so no node or edge objects are created.
+     * @param midNode the id of the mid node of the possible occurrences.
+     * @param store the store which contains the mid node.
+     * @see #addDigrams(Node, List, HyperGraph)
+     */
+    public void addDigrams(int midNode, List<Digram> appliedDigrams, GraphStore store) {
+        Incidence incidence = new Incidence(midNode, store);
+        if (incidence.size > hubDegree) {
+            addHubDigrams(incidence, appliedDigrams);
+            return;
         }
 
-        for (int i = 0; i < incidentEdges.size(); i++) {
-            for (int k = i+1; k < incidentEdges.size(); k++) {
+        for (int i = 0; i < incidence.size; i++) {
+            for (int k = i+1; k < incidence.size; k++) {
+                addOccurrence(incidence, i, k, appliedDigrams, false);
+            }
+        }
+    }
 
-                SimpleEdge edge1 = incidentEdges.get(i);
-                SimpleEdge edge2= incidentEdges.get(k);
+    /**
+     * Adds the occurrences for all pairs of incident edges of the mid node which contain a new edge to the
+     * corresponding digrams, if they do not overlap with associated occurrences of the digrams.
+     * @param midNode the mid node of the occurrences.
+     * @param newEdges the ids of the new edges.
+     */
+    public void addDigrams(Node midNode, BitSet newEdges, List<Digram> appliedDigrams, HyperGraph graph) {
+        addDigrams(midNode.getId(), newEdges, appliedDigrams, graph.getStore());
+    }
 
+    /**
+     * Adds the occurrences for all pairs of incident edges of the mid node of a store which contain a new edge to the
+     * corresponding digrams. Only the new edges are paired with the incident edges, so a mid node with n new edges
+     * and d incident edges takes O(n * d) instead of O(d^2).
+     * @param midNode the id of the mid node of the occurrences.
+     * @param newEdges the ids of the new edges.
+     * @param store the store which contains the mid node.
+     * @see #addDigrams(Node, BitSet, List, HyperGraph)
+     */
+    public void addDigrams(int midNode, BitSet newEdges, List<Digram> appliedDigrams, GraphStore store) {
+        Incidence incidence = new Incidence(midNode, store);
+        if (incidence.size > hubDegree) {
+            addHubDigrams(incidence, newEdges, appliedDigrams);
+            return;
+        }
 
-                Node otherNode1;
-                AdjacencyDigram.EdgeDirection dir1;
-                if(edge1.getStartnode().equals(midNode)){
-                    otherNode1 = edge1.getEndnode();
-                    dir1 = AdjacencyDigram.EdgeDirection.INGOING;
-                }else{
-                    otherNode1 = edge1.getStartnode();
-                    dir1 = AdjacencyDigram.EdgeDirection.OUTGOING;
+        for (int i = 0; i < incidence.size; i++) {
+            if (!newEdges.get(incidence.edges[i])) {
+                continue;
+            }
+            for (int k = 0; k < incidence.size; k++) {
+                // a pair of two new edges is added only once, by its first edge
+                if (k == i || k < i && newEdges.get(incidence.edges[k])) {
+                    continue;
+                }
+                addOccurrence(incidence, Math.min(i, k), Math.max(i, k), appliedDigrams, true);
+            }
+        }
+    }
 
+    /**
+     * Adds the possible occurrences of a hub for disjoint pairs of edges of its groups to the corresponding digrams.
+     * @param incidence the incident edges of the hub.
+     * @see #setHubLimits(int, int)
+     */
+    private void addHubDigrams(Incidence incidence, List<Digram> appliedDigrams) {
+        List<HubGroup> groups = getHubGroups(incidence);
+        for (int i = 0; i < groups.size(); i++) {
+            HubGroup group1 = groups.get(i);
+            for (int k = 0; k + 1 < group1.size; k += 2) {
+                addOccurrence(incidence, group1.edges[k], group1.edges[k + 1], appliedDigrams, false);
+            }
+            for (int j = i + 1; j < groups.size(); j++) {
+                HubGroup group2 = groups.get(j);
+                for (int k = 0; k < group1.size && k < group2.size; k++) {
+                    addOccurrence(incidence, group1.edges[k], group2.edges[k], appliedDigrams, false);
                 }
-                Node otherNode2;
-                AdjacencyDigram.EdgeDirection dir2;
+            }
+        }
+    }
 
-                if(edge2.getStartnode().equals(midNode)){
-                    otherNode2 = edge2.getEndnode();
-                    dir2 = AdjacencyDigram.EdgeDirection.INGOING;
+    /**
+     * Adds occurrences for the new edges of a hub. Each new edge is paired with the first edges of each group until an
+     * occurrence does not overlap with the associated occurrences of its digram, at most HUB_TRIES edges per group are
+     * tried.
+     * @param incidence the incident edges of the hub.
+     * @param newEdges the ids of the new edges.
+     * @see #setHubLimits(int, int)
+     */
+    private void addHubDigrams(Incidence incidence, BitSet newEdges, List<Digram> appliedDigrams) {
+        List<HubGroup> groups = getHubGroups(incidence);
+        for (int newEdge = 0; newEdge < incidence.size; newEdge++) {
+            if (!newEdges.get(incidence.edges[newEdge]) || !labels.get(incidence.labels[newEdge])) {
+                continue;
+            }
+            for (HubGroup group : groups) {
+                int tries = 0;
+                for (int k = 0; k < group.size; k++) {
+                    if (group.edges[k] == newEdge) {
+                        continue;
+                    }
+                    if (addOccurrence(incidence, newEdge, group.edges[k], appliedDigrams, true) || ++tries == HUB_TRIES) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
 
-                }else{
-                    otherNode2 = edge2.getStartnode();
-                    dir2 = AdjacencyDigram.EdgeDirection.OUTGOING;
+    /**
+     * Groups the incident edges of a hub whose outer nodes have necessary labels by their equivalence class at the hub,
+     * the label and equivalence class of their outer node and their direction.
+     * @param incidence the incident edges of the hub.
+     * @return at most maxHubGroups largest groups, ordered by their size.
+     */
+    private List<HubGroup> getHubGroups(Incidence incidence) {
+        LongKeyMap<HubGroup> groups = new LongKeyMap<>();
+        for (int i = 0; i < incidence.size; i++) {
+            if (!labels.get(incidence.labels[i])) {
+                continue;
+            }
+            long key = (long) incidence.midClasses[i] << 32
+                    | (long) getEndKey(incidence.labels[i], incidence.outerClasses[i], true) << 1
+                    | incidence.directions[i].ordinal();
+            HubGroup group = groups.get(key);
+            if (group == null) {
+                group = new HubGroup();
+                groups.putIfAbsent(key, group);
+            }
+            group.add(i);
+        }
+        List<HubGroup> largestGroups = groups.values();
+        largestGroups.sort(Comparator.comparingInt((HubGroup group) -> group.size).reversed());
+        return largestGroups.size() > maxHubGroups ? largestGroups.subList(0, maxHubGroups) : largestGroups;
+    }
 
-                }
+    /**
+     * Adds the occurrence for two incident edges of the mid node to its digram, which is created if it does not exist.
+     * The outer nodes and edges are put into the order of the nodes of the digram, whose outer nodes are in canonical
+     * order. No objects are created if the digram exists.
+     * If the two edges have different equivalence classes at the mid node, the occurrence belongs to a digram with a
+     * split mid node, see {@link AdjacencyDigram#isSplitMid()}.
+     * @param incidence the incident edges of the mid node.
+     * @param i the position of the first edge in the incidence.
+     * @param k the position of the second edge in the incidence.
+     * @param select true if the occurrence is added to the associated occurrences, false if it is added to the possible
+     *               occurrences.
+     * @return true if the occurrence was added, false if the outer nodes are not different from each other and from
+     * the mid node, a label of the outer nodes is not
+     * necessary or the occurrence overlaps with an associated occurrence of its digram.
+     * @see AdjacencyDigram#compareEnds(int, int, AdjacencyDigram.EdgeDirection, int, int, AdjacencyDigram.EdgeDirection)
+     */
+    private boolean addOccurrence(Incidence incidence, int i, int k, List<Digram> appliedDigrams, boolean select) {
+        int midNode = incidence.midNode;
+        int node1 = incidence.outerNodes[i];
+        int node2 = incidence.outerNodes[k];
+        if (node1 == node2 || node1 == midNode || node2 == midNode) {
+            return false;
+        }
+        int label1 = incidence.labels[i];
+        int label2 = incidence.labels[k];
+        if (!labels.get(label1) || !labels.get(label2)) {
+            return false;
+        }
+        AdjacencyDigram.EdgeDirection dir1 = incidence.directions[i];
+        AdjacencyDigram.EdgeDirection dir2 = incidence.directions[k];
+        int equivClass1 = incidence.outerClasses[i];
+        int equivClass2 = incidence.outerClasses[k];
+        boolean splitMid = incidence.midClasses[i] != incidence.midClasses[k];
+        boolean inOrder = AdjacencyDigram.compareEnds(label1, equivClass1, dir1, label2, equivClass2, dir2) <= 0;
+        long key = getKey(label1, label2, equivClass1, equivClass2, dir1, dir2, splitMid, true);
 
-                if (!labels.contains(otherNode1.getLabel()) || !labels.contains(otherNode2.getLabel())) {
-                    continue;
-                }
-                AdjacencyDigram foundDigram = new AdjacencyDigram(otherNode1.getLabel(), otherNode2.getLabel(), edge1.getEquivalenceClass(otherNode1)
-                        ,edge2.getEquivalenceClass(otherNode2), dir1,dir2, appliedDigrams);
+        AdjacencyDigram digram = digrams.get(key);
+        if (digram == null) {
+            if (inOrder) {
+                digram = new AdjacencyDigram(label1, label2, equivClass1, equivClass2, dir1, dir2, splitMid, appliedDigrams);
+            } else {
+                digram = new AdjacencyDigram(label2, label1, equivClass2, equivClass1, dir2, dir1, splitMid, appliedDigrams);
+            }
+            digrams.putIfAbsent(key, digram);
+        }
+        int nodeId1 = inOrder ? node1 : node2;
+        int nodeId2 = inOrder ? node2 : node1;
+        int edgeId1 = incidence.edges[inOrder ? i : k];
+        int edgeId2 = incidence.edges[inOrder ? k : i];
+        if (select) {
+            return selectOccurrence(digram, nodeId1, nodeId2, edgeId1, edgeId2, midNode) >= 0;
+        }
+        digram.addCandidate(nodeId1, nodeId2, edgeId1, edgeId2, midNode);
+        return true;
+    }
 
-                AdjacencyDigram digram = digrams.get(foundDigram);
-                if (digram == null) {
-                    digram = foundDigram;
-                }
+    /**
+     * Gets the key of an AdjacencyDigram, which packs the ids and directions of its outer nodes in canonical order and
+     * the split of its mid node into one long. So the key of two AdjacencyDigrams is equal if and only if they are
+     * equal.
+     * @param splitMid true if the edges have different equivalence classes at the mid node.
+     * @param create true if new ids are created for new ends.
+     * @return the key of the digram, -1 if an end is new and no id is created.
+     * @see #getEndKey(int, int, boolean)
+     */
+    private long getKey(int label1, int label2, int equivClass1, int equivClass2,
+                        AdjacencyDigram.EdgeDirection dir1, AdjacencyDigram.EdgeDirection dir2, boolean splitMid,
+                        boolean create) {
+        if (AdjacencyDigram.compareEnds(label1, equivClass1, dir1, label2, equivClass2, dir2) > 0) {
+            return getKey(label2, label1, equivClass2, equivClass1, dir2, dir1, splitMid, create);
+        }
+        int key1 = getEndKey(label1, equivClass1, create);
+        int key2 = getEndKey(label2, equivClass2, create);
+        if (key1 < 0 || key2 < 0) {
+            return -1;
+        }
+        long end1 = (long) key1 << 1 | dir1.ordinal();
+        long end2 = (long) key2 << 1 | dir2.ordinal();
+        // the end ids are dense, so bit 31 is free for the split
+        return end1 << 32 | end2 | (splitMid ? 1L << 31 : 0);
+    }
 
-                // TODO: here the correct mapping from node in occurrence to node in digram must be done. Not sure if this is correct
-                AdjacencyDigramOccurrence occ;
-                if (otherNode1.getLabel().equals(digram.getLabel1()) && edge1.getEquivalenceClass(otherNode1) == digram.getEquivClass1()) {
-                    occ = new AdjacencyDigramOccurrence(otherNode1, otherNode2, edge1, edge2, midNode);
-                } else {
-                    occ = new AdjacencyDigramOccurrence(otherNode2, otherNode1, edge2, edge1, midNode);
-                }
+    private long getKey(AdjacencyDigram digram, boolean create) {
+        return getKey(digram.getLabelId1(), digram.getLabelId2(), digram.getEquivClass1(), digram.getEquivClass2(),
+                digram.getDirection1(), digram.getDirection2(), digram.isSplitMid(), create);
+    }
 
+    @Override
+    protected boolean removeFromList(Digram digram) {
+        if (!(digram instanceof AdjacencyDigram)) {
+            return false;
+        }
+        long key = getKey((AdjacencyDigram) digram, false);
+        return key >= 0 && digrams.remove(key, (AdjacencyDigram) digram);
+    }
 
-                boolean overlappingWithOtherOccurrence = false;
-                for (DigramOccurrence occOld : digram.getOccurrences()) {
-                    if(occOld.getNode1().equals(otherNode1) || occOld.getNode1().equals(otherNode2)||occOld.getNode2().equals(otherNode1) || occOld.getNode2().equals(otherNode2)){
-                        overlappingWithOtherOccurrence=true;
-                        break;
-                    }
-                }
-                if(!overlappingWithOtherOccurrence){
-                    digram.getOccurrences().add(occ);
-                }
-                digrams.put(digram, digram);
-                if (getMaxDigram() == null || getMaxDigram().getSize() < digram.getSize()) {
-                    maxDigram = digram;
-                }
+    /**
+     * Appends the digrams and possible occurrences of another list, which were found after the ones of this list.
+     * The other list must not be used afterwards.
+     * @param other the other list.
+     */
+    public void merge(AdjacencyDigramList other) {
+        for (AdjacencyDigram digram : other.digrams.values()) {
+            AdjacencyDigram existing = digrams.putIfAbsent(getKey(digram, true), digram);
+            if (existing != null) {
+                existing.addCandidates(digram);
             }
         }
+    }
+
+    /**
+     * The incident edges of a mid node with their outer nodes, which are read from the store once, so that the pairs
+     * of the edges are formed without accessing the store. A loop of the mid node is its own outer node.
+     */
+    private static class Incidence {
+
+        private final int midNode;
+        private final int size;
+        private final int[] edges;
+        private final int[] outerNodes;
+
+        /**
+         * the labels of the outer nodes.
+         */
+        private final int[] labels;
+
+        /**
+         * the equivalence classes of the edges at the mid node and at the outer nodes.
+         */
+        private final int[] midClasses, outerClasses;
 
+        private final AdjacencyDigram.EdgeDirection[] directions;
 
+        /**
+         * Reads the incident edges of a mid node, like {@link SimpleEdge#getEquivalenceClass(Node)} and
+         * {@link AdjacencyDigram#getDirection(SimpleEdge, Node)} for edge objects.
+         * @param midNode the id of the mid node.
+         * @param store the store which contains the mid node.
+         */
+        private Incidence(int midNode, GraphStore store) {
+            this.midNode = midNode;
+            edges = store.getIncidentEdgeIds(midNode);
+            size = edges.length;
+            outerNodes = new int[size];
+            labels = new int[size];
+            midClasses = new int[size];
+            outerClasses = new int[size];
+            directions = new AdjacencyDigram.EdgeDirection[size];
+            for (int i = 0; i < size; i++) {
+                int startnode = store.getStartNodeId(edges[i]);
+                int startClass = store.getStartEquivalenceClass(edges[i]);
+                if (startnode == midNode) {
+                    outerNodes[i] = store.getEndNodeId(edges[i]);
+                    midClasses[i] = startClass;
+                    outerClasses[i] = outerNodes[i] == midNode ? startClass : store.getEndEquivalenceClass(edges[i]);
+                    directions[i] = AdjacencyDigram.EdgeDirection.INGOING;
+                } else {
+                    outerNodes[i] = startnode;
+                    midClasses[i] = store.getEndEquivalenceClass(edges[i]);
+                    outerClasses[i] = startClass;
+                    directions[i] = AdjacencyDigram.EdgeDirection.OUTGOING;
+                }
+                labels[i] = store.getNodeLabelId(outerNodes[i]);
+            }
+        }
     }
 
+    /**
+     * The positions of the incident edges of a hub with the same digram end in its incidence, in the order of the
+     * incidence.
+     */
+    private static class HubGroup {
+
+        private int[] edges = new int[4];
+        private int size;
 
+        private void add(int edge) {
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+            }
+            edges[size++] = edge;
+        }
+    }
 }
@@ -2,44 +2,41 @@ package model.DigramList;
 
 import model.Digram.BasicDigram;
 import model.Digram.Digram;
+import model.Graph.GraphStore;
 import model.Graph.SimpleEdge;
-import model.Tuple;
+import model.DigramOccurrence.OccurrenceTable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 
 public class BasicDigramList extends DigramList{
 
     /**
-     * the data structure for DigramList which is realized by a double connected HashMap.
+     * the data structure for DigramList which is realized by a map from the packed keys of the digrams, see
+     * {@link #getKey(int, int, int, int, boolean)}.
+     * The digrams are kept in the order in which they were found, so that the order does not depend on the search.
      */
-    protected Map<Tuple<String,Integer>, Map<Tuple<String,Integer>, BasicDigram>> digramList = new HashMap<>();
+    protected final LongKeyMap<BasicDigram> digramList = new LongKeyMap<>();
 
     /**
      * Constructor for the DigramList.
      *
-     * @param labels the necessary different labels of the nodes in the graph.
+     * @param labels the ids of the necessary different labels of the nodes in the graph.
      */
-    public BasicDigramList(List<String> labels) {
+    public BasicDigramList(BitSet labels) {
         super(labels);
     }
 
     @Override
     public List<Digram> getAllActiveDigrams() {
-        List<Digram> allDigrams = new ArrayList<>();
-        for(Map<Tuple<String,Integer>, BasicDigram> value : digramList.values()){
-            for(Digram digram : value.values()){
-                allDigrams.add(digram);
-            }
-        }
-        return allDigrams;
+        return new ArrayList<>(digramList.values());
     }
 
     /**
      * Gets the BasicDigram for the labels label1,label2.
-     * @return the digram for the two labels.
+     * The digram is only created if its key is new, otherwise no objects are created.
+     * @return the digram for the two labels, null if a label is not necessary or the edge is a loop.
      */
     public BasicDigram getDigram(Object pivot, List<Digram> appliedDigrams) {
 
@@ -48,30 +45,112 @@ public class BasicDigramList extends DigramList{
         }
         SimpleEdge edge = (SimpleEdge) pivot;
 
-        String label1 = edge.getStartnode().getLabel();
-        String label2 = edge.getEndnode().getLabel();
+        return getDigram(edge.getStartnode().getId(), edge.getEndnode().getId(), edge.getStartnode().getLabelId(),
+                edge.getEndnode().getLabelId(), edge.getEquivalenceClass(edge.getStartnode()),
+                edge.getEquivalenceClass(edge.getEndnode()), appliedDigrams);
+    }
 
-        if (!labels.contains(label1) || !labels.contains(label2)) {
+    /**
+     * Gets the BasicDigram for the labels and equivalence classes of the two nodes of an edge.
+     * The digram is only created if its key is new, otherwise no objects are created.
+     * @return the digram for the two labels, null if a label is not necessary or the edge is a loop.
+     */
+    private BasicDigram getDigram(int node1, int node2, int label1, int label2, int equiv1, int equiv2,
+                                  List<Digram> appliedDigrams) {
+        if (!labels.get(label1) || !labels.get(label2) || node1 == node2) {
             return null;
         }
-        int equiv1 = edge.getEquivalenceClass(edge.getStartnode());
-        int equiv2 = edge.getEquivalenceClass(edge.getEndnode());
+        long key = getKey(label1, label2, equiv1, equiv2, true);
+        BasicDigram basicDigram = digramList.get(key);
+        if (basicDigram == null) {
+            basicDigram = new BasicDigram(label1, label2, equiv1, equiv2, appliedDigrams);
+            digramList.putIfAbsent(key, basicDigram);
+        }
+        return basicDigram;
+    }
 
-        Tuple<String, Integer> tuple1 = new Tuple<>(label1, equiv1);
-        Tuple<String, Integer> tuple2 = new Tuple<>(label2, equiv2);
+    /**
+     * Gets the key of a BasicDigram, which packs the ids of its start and end into one long.
+     * @param create true if new ids are created for new ends.
+     * @return the key of the digram, -1 if an end is new and no id is created.
+     * @see #getEndKey(int, int, boolean)
+     */
+    private long getKey(int label1, int label2, int equiv1, int equiv2, boolean create) {
+        int key1 = getEndKey(label1, equiv1, create);
+        int key2 = getEndKey(label2, equiv2, create);
+        if (key1 < 0 || key2 < 0) {
+            return -1;
+        }
+        return (long) key1 << 32 | key2;
+    }
 
-        if (!digramList.containsKey(tuple1)) {
-            digramList.put(tuple1, new HashMap<>());
+    /**
+     * Adds a possible occurrence for the edge to the corresponding digram, if both labels of the edge are necessary.
+     * @param edge the edge for the possible occurrence.
+     * @see model.Digram.Digram#addCandidate(int, int, int, int, int)
+     */
+    public void addCandidate(SimpleEdge edge, List<Digram> appliedDigrams) {
+        BasicDigram digram = getDigram(edge, appliedDigrams);
+        if (digram != null) {
+            digram.addCandidate(edge.getStartnode().getId(), edge.getEndnode().getId(), edge.getId(),
+                    OccurrenceTable.NONE, OccurrenceTable.NONE);
         }
-        if (!digramList.get(tuple1).containsKey(tuple2)) {
+    }
 
-            BasicDigram basicDigram = new BasicDigram(label1, label2, equiv1, equiv2, appliedDigrams);
-            digramList.get(tuple1).put(tuple2, basicDigram);
+    /**
+     * Adds a possible occurrence for a simple edge of a store to the corresponding digram, if both labels of the edge
+     * are necessary. No objects are created if the digram exists.
+     * @param edgeId the id of the simple edge.
+     * @param store the store which contains the edge.
+     * @see #addCandidate(SimpleEdge, List)
+     */
+    public void addCandidate(int edgeId, GraphStore store, List<Digram> appliedDigrams) {
+        int node1 = store.getStartNodeId(edgeId);
+        int node2 = store.getEndNodeId(edgeId);
+        BasicDigram digram = getDigram(node1, node2, store.getNodeLabelId(node1), store.getNodeLabelId(node2),
+                store.getStartEquivalenceClass(edgeId), store.getEndEquivalenceClass(edgeId), appliedDigrams);
+        if (digram != null) {
+            digram.addCandidate(node1, node2, edgeId, OccurrenceTable.NONE, OccurrenceTable.NONE);
+        }
+    }
+
+    /**
+     * Adds an occurrence for a new edge to the corresponding digram, if both labels of the edge are necessary and the
+     * occurrence does not overlap with an associated occurrence of the digram.
+     * @param edge the new edge.
+     */
+    public void addOccurrence(SimpleEdge edge, List<Digram> appliedDigrams) {
+        BasicDigram digram = getDigram(edge, appliedDigrams);
+        if (digram != null) {
+            selectOccurrence(digram, edge.getStartnode().getId(), edge.getEndnode().getId(), edge.getId(),
+                    OccurrenceTable.NONE, OccurrenceTable.NONE);
+        }
+    }
 
-            if (getMaxDigram() == null || getMaxDigram().getSize() < basicDigram.getSize()) {
-                maxDigram = basicDigram;
+    @Override
+    protected boolean removeFromList(Digram digram) {
+        if (!(digram instanceof BasicDigram)) {
+            return false;
+        }
+        BasicDigram basicDigram = (BasicDigram) digram;
+        long key = getKey(basicDigram.getStartNodeLabelId(), basicDigram.getEndNodeLabelId(),
+                basicDigram.getEquivStartNode(), basicDigram.getEquivEndNode(), false);
+        return key >= 0 && digramList.remove(key, basicDigram);
+    }
+
+    /**
+     * Appends the digrams and possible occurrences of another list, which were found after the ones of this list.
+     * The other list must not be used afterwards.
+     * @param other the other list.
+     */
+    public void merge(BasicDigramList other) {
+        for (BasicDigram digram : other.digramList.values()) {
+            long key = getKey(digram.getStartNodeLabelId(), digram.getEndNodeLabelId(),
+                    digram.getEquivStartNode(), digram.getEquivEndNode(), true);
+            BasicDigram existing = digramList.putIfAbsent(key, digram);
+            if (existing != null) {
+                existing.addCandidates(digram);
             }
         }
-        return digramList.get(tuple1).get(tuple2);
     }
 }
@@ -1,6 +1,9 @@
 package model.DigramList;
 
 import model.Digram.Digram;
+import model.Digram.DigramQueue;
+import model.DigramOccurrence.OccurrenceTable;
+import model.Graph.Edge;
 
 import java.util.*;
 
@@ -16,16 +19,30 @@ public abstract class DigramList {
 
 
     /**
-     * a set for the necessary different labels of the nodes in the graph.
+     * a set for the ids of the necessary different labels of the nodes in the graph.
      */
-    protected final List<String> labels;
-    protected Digram maxDigram;
+    protected final BitSet labels;
+
+    /**
+     * the digrams with associated occurrences by their number of occurrences.
+     */
+    protected final DigramQueue queue = new DigramQueue();
+
+    /**
+     * the associated occurrences of the digrams by the ids of their edges, see {@link #indexOccurrences()}.
+     */
+    private final EdgeOccurrenceIndex occurrencesByEdge = new EdgeOccurrenceIndex();
+
+    /**
+     * the dense ids of the ends of the digrams by their packed label id and equivalence class, see {@link #getEndKey(int, int, boolean)}.
+     */
+    private final LongIdMap endKeys = new LongIdMap();
 
     /**
      * Constructor for the DigramList.
-     * @param labels the necessary different labels of the nodes in the graph.
+     * @param labels the ids of the necessary different labels of the nodes in the graph.
      */
-    public DigramList(List<String> labels) {
+    public DigramList(BitSet labels) {
 
         this.labels = labels;
     }
@@ -34,18 +51,41 @@ public abstract class DigramList {
 
     /**
      * Gets the digram with the maximal associated digrams.
-     * @return digram with the maximal associated digrams.
+     * Digrams with a label which is not necessary anymore are removed from the list when they would be the maximum.
+     * @return digram with the maximal associated digrams, null if no digram has an occurrence.
      */
     public Digram getMaxDigram() {
-        return maxDigram;
+        Digram digram = queue.peekMax();
+        while (digram != null && !digram.hasNecessaryLabels(labels)) {
+            removeDigram(digram);
+            digram = queue.peekMax();
+        }
+        return digram;
+    }
+
+    /**
+     * Gets the digrams with the maximal associated digrams.
+     * @param k the maximal number of digrams.
+     * @return at most k digrams with necessary labels in descending order of their number of associated occurrences.
+     */
+    public List<Digram> getTopDigrams(int k) {
+        return queue.top(k, digram -> digram.hasNecessaryLabels(labels));
     }
 
     /**
      * adds a new label for the digram list.
-     * @param label the new label for the digram list.
+     * @param labelId the id of the new label for the digram list.
      */
-    public void addNewLabel(String label) {
-        labels.add(label);
+    public void addNewLabel(int labelId) {
+        labels.set(labelId);
+    }
+
+    /**
+     * removes a label from the digram list, e.g. because only one node with the label is left.
+     * @param labelId the id of the label.
+     */
+    public void removeLabel(int labelId) {
+        labels.clear(labelId);
     }
 
     /**
@@ -54,7 +94,162 @@ public abstract class DigramList {
      */
     public abstract List<Digram> getAllActiveDigrams();
 
+    /**
+     * Selects the occurrences of all active digrams from their possible occurrences and puts the digrams into the
+     * queue in the order of {@link #getAllActiveDigrams()}.
+     *
+     * The digrams are processed in parallel, in the ForkJoinPool of the calling task.
+     * @see Digram#selectOccurrences()
+     */
+    public void selectOccurrences() {
+        List<Digram> digrams = getAllActiveDigrams();
+        digrams.parallelStream().forEach(Digram::selectOccurrences);
+        for (Digram digram : digrams) {
+            queue.update(digram);
+        }
+    }
+
+    /**
+     * Removes a digram from the list. The associated occurrences of the digram are not changed, but they are not
+     * maintained by the list anymore.
+     * @param digram the digram which is removed.
+     */
+    public void removeDigram(Digram digram) {
+        queue.remove(digram);
+        if (removeFromList(digram)) {
+            OccurrenceTable occurrences = digram.getOccurrences();
+            for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+                unindex(digram, slot, OccurrenceTable.NONE);
+            }
+        }
+    }
+
+    /**
+     * Removes a digram from the data structure of the list.
+     * @param digram the digram which is removed.
+     * @return true if the digram was contained in the list, else false.
+     */
+    protected abstract boolean removeFromList(Digram digram);
+
+    /**
+     * Indexes the associated occurrences of all digrams by their edges, so that the list can be updated after a
+     * replacement with {@link #removeOccurrences(Edge, BitSet)} and the methods which add single occurrences.
+     */
+    public void indexOccurrences() {
+        occurrencesByEdge.clear();
+        for (Digram digram : getAllActiveDigrams()) {
+            OccurrenceTable occurrences = digram.getOccurrences();
+            for (int slot = occurrences.next(0); slot >= 0; slot = occurrences.next(slot + 1)) {
+                index(digram, slot);
+            }
+        }
+    }
+
+    /**
+     * Removes all associated occurrences which contain the edge, e.g. because the edge was removed by a replacement.
+     * @param edge the edge.
+     * @param freedNodes the nodes of the removed occurrences are added to it, because an occurrence which overlapped
+     *                   with a removed one can be selected now.
+     */
+    public void removeOccurrences(Edge edge, BitSet freedNodes) {
+        int entry = occurrencesByEdge.detach(edge.getId());
+        while (entry != EdgeOccurrenceIndex.NONE) {
+            Digram digram = occurrencesByEdge.getDigram(entry);
+            int slot = occurrencesByEdge.getSlot(entry);
+            entry = occurrencesByEdge.release(entry);
+            OccurrenceTable table = digram.getOccurrences();
+            freedNodes.set(table.getNode1(slot));
+            freedNodes.set(table.getNode2(slot));
+            if (table.getMidNode(slot) != OccurrenceTable.NONE) {
+                freedNodes.set(table.getMidNode(slot));
+            }
+            unindex(digram, slot, edge.getId());
+            digram.removeOccurrence(slot);
+            if (digram.getSize() == 0) {
+                removeDigram(digram);
+            } else {
+                queue.update(digram);
+            }
+        }
+    }
 
+    /**
+     * Removes an associated occurrence of a digram of the list, e.g. because it overlaps with an occurrence of another
+     * digram. A digram without occurrences is removed from the list.
+     * @param digram the digram.
+     * @param slot the slot of the occurrence.
+     */
+    public void removeOccurrence(Digram digram, int slot) {
+        unindex(digram, slot, OccurrenceTable.NONE);
+        digram.removeOccurrence(slot);
+        if (digram.getSize() == 0) {
+            removeDigram(digram);
+        } else {
+            queue.update(digram);
+        }
+    }
 
+    /**
+     * Adds a possible occurrence to its digram and indexes it if it is added.
+     * @param digram the digram of the possible occurrence.
+     * @return the slot of the added occurrence, -1 if the possible occurrence overlaps with an associated occurrence.
+     * @see Digram#selectOccurrence(int, int, int, int, int)
+     */
+    protected int selectOccurrence(Digram digram, int node1, int node2, int edge1, int edge2, int midNode) {
+        int slot = digram.selectOccurrence(node1, node2, edge1, edge2, midNode);
+        if (slot >= 0) {
+            index(digram, slot);
+            queue.update(digram);
+        }
+        return slot;
+    }
 
+    /**
+     * Gets the dense id of an end of a digram, i.e. of a label id and an equivalence class. The digrams are keyed by
+     * the ids of their two ends, which fit into one long, and the ids are looked up without creating objects.
+     * The ids are only valid within this list.
+     * @param labelId the label id of the node.
+     * @param equivClass the equivalence class of the node.
+     * @param create true if a new id is created for a new end.
+     * @return the id of the end, -1 if the end is new and no id is created.
+     */
+    protected int getEndKey(int labelId, int equivClass, boolean create) {
+        long packed = (long) labelId << 32 | (equivClass & 0xFFFFFFFFL);
+        int key = endKeys.get(packed);
+        if (key < 0 && create) {
+            key = endKeys.add(packed);
+        }
+        return key;
+    }
+
+    private void index(Digram digram, int slot) {
+        OccurrenceTable occurrences = digram.getOccurrences();
+        index(occurrences.getEdge1(slot), digram, slot);
+        if (occurrences.getEdge2(slot) != OccurrenceTable.NONE) {
+            index(occurrences.getEdge2(slot), digram, slot);
+        }
+    }
+
+    private void index(int edgeId, Digram digram, int slot) {
+        occurrencesByEdge.add(edgeId, digram, slot);
+    }
+
+    /**
+     * Removes an occurrence from the index.
+     * @param digram the digram of the occurrence.
+     * @param slot the slot of the occurrence.
+     * @param skippedEdge the id of an edge whose entry is not changed, or NONE.
+     */
+    private void unindex(Digram digram, int slot, int skippedEdge) {
+        OccurrenceTable occurrences = digram.getOccurrences();
+        unindex(occurrences.getEdge1(slot), digram, slot, skippedEdge);
+        unindex(occurrences.getEdge2(slot), digram, slot, skippedEdge);
+    }
+
+    private void unindex(int edgeId, Digram digram, int slot, int skippedEdge) {
+        if (edgeId == OccurrenceTable.NONE || edgeId == skippedEdge) {
+            return;
+        }
+        occurrencesByEdge.remove(edgeId, digram, slot);
+    }
 }
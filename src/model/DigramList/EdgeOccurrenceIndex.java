@@ -0,0 +1,161 @@
+package model.DigramList;
+
+import model.Digram.Digram;
+
+import java.util.Arrays;
+
+/**
+ * This is a class for the index of the associated occurrences of the digrams by the ids of their edges.
+ *
+ * An entry is a pair of a digram and the slot of an occurrence. The entries are stored in arrays and chained for each
+ * edge, so the index creates no objects for an edge. The heads of the chains are indexed by the edge id, because the
+ * ids of a graph are dense, see {@link model.Graph.IdAllocator}. Removed entries are reused for new entries.
+ */
+final class EdgeOccurrenceIndex {
+
+    /**
+     * marks the end of a chain and an edge without entries.
+     */
+    static final int NONE = -1;
+
+    /**
+     * the first entry of each edge id, NONE if the edge has no entry.
+     */
+    private int[] heads = new int[0];
+
+    /**
+     * the next entry of the chain of each entry.
+     */
+    private int[] next = new int[16];
+
+    /**
+     * the digram of each entry, null if the entry is free.
+     */
+    private Digram[] digrams = new Digram[16];
+
+    /**
+     * the slot of the occurrence of each entry.
+     */
+    private int[] slots = new int[16];
+
+    /**
+     * the number of used entries, including the free ones.
+     */
+    private int entries;
+
+    /**
+     * the first free entry, the free entries are chained by next.
+     */
+    private int free = NONE;
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(digrams, 0, entries, null);
+        entries = 0;
+        free = NONE;
+    }
+
+    /**
+     * Adds an occurrence to the entries of an edge.
+     * @param edgeId the id of the edge.
+     * @param digram the digram of the occurrence.
+     * @param slot the slot of the occurrence.
+     */
+    void add(int edgeId, Digram digram, int slot) {
+        if (edgeId >= heads.length) {
+            int length = heads.length;
+            heads = Arrays.copyOf(heads, Math.max(edgeId + 1, 2 * length));
+            Arrays.fill(heads, length, heads.length, NONE);
+        }
+        int entry = free;
+        if (entry != NONE) {
+            free = next[entry];
+        } else {
+            if (entries == next.length) {
+                next = Arrays.copyOf(next, 2 * entries);
+                digrams = Arrays.copyOf(digrams, 2 * entries);
+                slots = Arrays.copyOf(slots, 2 * entries);
+            }
+            entry = entries++;
+        }
+        digrams[entry] = digram;
+        slots[entry] = slot;
+        next[entry] = heads[edgeId];
+        heads[edgeId] = entry;
+    }
+
+    /**
+     * Removes an occurrence from the entries of an edge.
+     * @param edgeId the id of the edge.
+     * @param digram the digram of the occurrence.
+     * @param slot the slot of the occurrence.
+     */
+    void remove(int edgeId, Digram digram, int slot) {
+        if (edgeId >= heads.length) {
+            return;
+        }
+        int previous = NONE;
+        for (int entry = heads[edgeId]; entry != NONE; entry = next[entry]) {
+            if (digrams[entry] == digram && slots[entry] == slot) {
+                if (previous == NONE) {
+                    heads[edgeId] = next[entry];
+                } else {
+                    next[previous] = next[entry];
+                }
+                release(entry);
+                return;
+            }
+            previous = entry;
+        }
+    }
+
+    /**
+     * Removes the chain of an edge from the index. The entries of the chain stay valid until they are released, so
+     * they can be read while other occurrences are removed.
+     * @param edgeId the id of the edge.
+     * @return the first entry of the chain, NONE if the edge has no entry.
+     * @see #release(int)
+     */
+    int detach(int edgeId) {
+        if (edgeId >= heads.length) {
+            return NONE;
+        }
+        int entry = heads[edgeId];
+        heads[edgeId] = NONE;
+        return entry;
+    }
+
+    /**
+     * Frees an entry, which must not be in a chain of an edge anymore.
+     * @param entry the entry.
+     * @return the next entry of the chain of the entry.
+     */
+    int release(int entry) {
+        int nextEntry = next[entry];
+        digrams[entry] = null;
+        next[entry] = free;
+        free = entry;
+        return nextEntry;
+    }
+
+    /**
+     * Getter for the digram of an entry.
+     * @param entry the entry.
+     * @return the digram of the occurrence.
+     */
+    Digram getDigram(int entry) {
+        return digrams[entry];
+    }
+
+    /**
+     * Getter for the slot of an entry.
+     * @param entry the entry.
+     * @return the slot of the occurrence.
+     */
+    int getSlot(int entry) {
+        return slots[entry];
+    }
+}
@@ -0,0 +1,85 @@
+package model.DigramList;
+
+import java.util.Arrays;
+
+/**
+ * This is a class for a map which assigns dense int ids to primitive long keys, which is a hash table with open
+ * addressing.
+ *
+ * The ids are 0, 1, 2, ... in the order in which the keys were added, and keys are never removed. Neither looking up
+ * nor adding a key creates objects.
+ */
+class LongIdMap {
+
+    /**
+     * the key of each id.
+     */
+    private long[] keys = new long[8];
+
+    /**
+     * the number of keys in the map, which is the next id.
+     */
+    private int size;
+
+    /**
+     * the hash table, an entry is the id of a key + 1 or 0 if the entry of the hash table is empty.
+     */
+    private int[] table = new int[16];
+
+    /**
+     * Gets the id of a key.
+     * @param key the key.
+     * @return the id of the key, -1 if the map does not contain the key.
+     */
+    int get(long key) {
+        int mask = table.length - 1;
+        for (int slot = hash(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[table[slot] - 1] == key) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a key which the map does not contain.
+     * @param key the new key.
+     * @return the id of the key.
+     */
+    int add(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            table = new int[4 * size];
+            for (int id = 1; id <= size; id++) {
+                insert(id);
+            }
+        }
+        keys[size] = key;
+        size++;
+        insert(size);
+        return size - 1;
+    }
+
+    /**
+     * Getter for the number of keys in the map.
+     * @return the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    private void insert(int entry) {
+        int mask = table.length - 1;
+        int slot = hash(keys[entry - 1]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+}
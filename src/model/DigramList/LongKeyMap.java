@@ -0,0 +1,191 @@
+package model.DigramList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is a class for a map from primitive long keys to values, which is a hash table with open addressing.
+ *
+ * Looking up a key does not create objects. The entries are stored in the order in which they were added, so that
+ * {@link #values()} does not depend on the hash codes. The hash table only holds the indices of the entries, removed
+ * entries are dropped when the entries are copied to larger arrays.
+ */
+class LongKeyMap<V> {
+
+    /**
+     * the keys of the entries in the order in which they were added.
+     */
+    private long[] keys = new long[8];
+
+    /**
+     * the values of the entries in the order in which they were added, null if the entry was removed.
+     */
+    private Object[] values = new Object[8];
+
+    /**
+     * the number of used entries, including the removed ones.
+     */
+    private int entries;
+
+    /**
+     * the number of keys in the map.
+     */
+    private int size;
+
+    /**
+     * the hash table, an entry is the index of an entry + 1 or 0 if the entry of the hash table is empty.
+     */
+    private int[] table = new int[16];
+
+    /**
+     * Gets the value of a key.
+     * @param key the key.
+     * @return the value of the key, null if the map does not contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[table[slot] - 1];
+    }
+
+    /**
+     * Adds a value for a key if the map does not contain the key.
+     * @param key the key.
+     * @param value the value, not null.
+     * @return the value which the key already has, null if the value was added.
+     */
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(long key, V value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return (V) values[table[slot] - 1];
+        }
+        if (entries == keys.length) {
+            rebuild(size < entries / 2 ? keys.length : keys.length * 2);
+        }
+        keys[entries] = key;
+        values[entries] = value;
+        entries++;
+        insert(entries);
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes a key if it has the given value.
+     * @param key the key.
+     * @param value the value.
+     * @return true if the key was removed, else false.
+     */
+    boolean remove(long key, V value) {
+        int slot = find(key);
+        if (slot < 0 || values[table[slot] - 1] != value) {
+            return false;
+        }
+        values[table[slot] - 1] = null;
+        size--;
+        int mask = table.length - 1;
+        table[slot] = 0;
+        for (int k = (slot + 1) & mask; table[k] != 0; k = (k + 1) & mask) {
+            int home = hash(keys[table[k] - 1]) & mask;
+            // the entry at k can be moved to the gap if its home is not in the cyclic interval (gap, k]
+            if (((k - home) & mask) >= ((k - slot) & mask)) {
+                table[slot] = table[k];
+                table[k] = 0;
+                slot = k;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all keys.
+     */
+    void clear() {
+        Arrays.fill(values, 0, entries, null);
+        Arrays.fill(table, 0);
+        entries = 0;
+        size = 0;
+    }
+
+    /**
+     * Getter for the number of keys in the map.
+     * @return the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Getter for the values in the order in which they were added.
+     * @return a new list of the values.
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        for (int i = 0; i < entries; i++) {
+            if (values[i] != null) {
+                list.add((V) values[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Finds the slot of the hash table for a key.
+     * @return the slot, -1 if the map does not contain the key.
+     */
+    private int find(long key) {
+        int mask = table.length - 1;
+        for (int slot = hash(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[table[slot] - 1] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int entry) {
+        int mask = table.length - 1;
+        int slot = hash(keys[entry - 1]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    /**
+     * Drops the removed entries and rebuilds the hash table, which is kept at most half full.
+     * @param capacity the new number of entries which fit into the arrays.
+     */
+    private void rebuild(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int oldEntries = entries;
+        entries = 0;
+        for (int i = 0; i < oldEntries; i++) {
+            if (oldValues[i] != null) {
+                keys[entries] = oldKeys[i];
+                values[entries] = oldValues[i];
+                entries++;
+            }
+        }
+        if (table.length < 2 * capacity) {
+            table = new int[2 * capacity];
+        } else {
+            Arrays.fill(table, 0);
+        }
+        for (int entry = 1; entry <= entries; entry++) {
+            insert(entry);
+        }
+    }
+
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+}
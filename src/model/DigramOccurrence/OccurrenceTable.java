@@ -0,0 +1,164 @@
+package model.DigramOccurrence;
+
+import java.util.Arrays;
+
+/**
+ * This is a class for the occurrences of a digram, which are stored as ids in parallel int arrays.
+ *
+ * An occurrence consists of its two outer nodes, one edge for a basic digram or two edges and the mid node for an
+ * adjacency digram, missing elements are {@link #NONE}. Each occurrence has a slot which does not change while the
+ * occurrence exists, so that a slot can be referenced from outside. Free slots are reused by new occurrences.
+ *
+ * No objects are created per occurrence. The occurrences are visited with a cursor:
+ * <pre>
+ * for (int slot = table.next(0); slot >= 0; slot = table.next(slot + 1)) { ... }
+ * </pre>
+ * Like the Node and Edge objects of a compact graph store, the objects for an occurrence are only created when they
+ * are needed, by looking up the ids in the graph.
+ */
+public class OccurrenceTable {
+
+    /**
+     * marks a missing node or edge, and a free slot in the column of the first nodes.
+     */
+    public static final int NONE = -1;
+
+    private int[] nodes1 = new int[4];
+    private int[] nodes2 = new int[4];
+    private int[] edges1 = new int[4];
+    private int[] edges2 = new int[4];
+    private int[] midNodes = new int[4];
+
+    /**
+     * the number of slots which were used, including the free ones.
+     */
+    private int slots;
+
+    /**
+     * the free slots below slots, which are reused first.
+     */
+    private int[] freeSlots = new int[0];
+    private int numFreeSlots;
+
+    /**
+     * the number of occurrences.
+     */
+    private int size;
+
+    /**
+     * Adds an occurrence.
+     * @param node1 the id of the first outer node.
+     * @param node2 the id of the second outer node.
+     * @param edge1 the id of the first edge, which is incident to the first outer node.
+     * @param edge2 the id of the second edge or NONE.
+     * @param midNode the id of the mid node or NONE.
+     * @return the slot of the occurrence.
+     */
+    public int add(int node1, int node2, int edge1, int edge2, int midNode) {
+        int slot;
+        if (numFreeSlots > 0) {
+            slot = freeSlots[--numFreeSlots];
+        } else {
+            if (slots == nodes1.length) {
+                grow();
+            }
+            slot = slots++;
+        }
+        nodes1[slot] = node1;
+        nodes2[slot] = node2;
+        edges1[slot] = edge1;
+        edges2[slot] = edge2;
+        midNodes[slot] = midNode;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Appends all occurrences of another table in the order of their slots.
+     * @param other the other table.
+     */
+    public void addAll(OccurrenceTable other) {
+        for (int slot = other.next(0); slot >= 0; slot = other.next(slot + 1)) {
+            add(other.nodes1[slot], other.nodes2[slot], other.edges1[slot], other.edges2[slot], other.midNodes[slot]);
+        }
+    }
+
+    /**
+     * Removes the occurrence of a slot, the slot becomes free.
+     * @param slot the slot of an occurrence.
+     */
+    public void remove(int slot) {
+        nodes1[slot] = NONE;
+        if (--size == 0) {
+            slots = 0;
+            numFreeSlots = 0;
+            return;
+        }
+        if (numFreeSlots == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(4, 2 * freeSlots.length));
+        }
+        freeSlots[numFreeSlots++] = slot;
+    }
+
+    /**
+     * Gets the next slot of an occurrence, which is the cursor for visiting all occurrences.
+     * @param slot the slot where the search starts.
+     * @return the first slot of an occurrence which is at least slot, -1 if there is no such slot.
+     */
+    public int next(int slot) {
+        while (slot < slots) {
+            if (nodes1[slot] != NONE) {
+                return slot;
+            }
+            slot++;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether an occurrence contains an edge.
+     * @param slot the slot of the occurrence.
+     * @param edgeId the id of the edge.
+     * @return true if the edge is an internal edge of the occurrence, else false.
+     */
+    public boolean containsEdge(int slot, int edgeId) {
+        return edges1[slot] == edgeId || edges2[slot] == edgeId;
+    }
+
+    public int getNode1(int slot) {
+        return nodes1[slot];
+    }
+
+    public int getNode2(int slot) {
+        return nodes2[slot];
+    }
+
+    public int getEdge1(int slot) {
+        return edges1[slot];
+    }
+
+    public int getEdge2(int slot) {
+        return edges2[slot];
+    }
+
+    public int getMidNode(int slot) {
+        return midNodes[slot];
+    }
+
+    /**
+     * Getter for the number of occurrences.
+     * @return the number of occurrences.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        int length = 2 * nodes1.length;
+        nodes1 = Arrays.copyOf(nodes1, length);
+        nodes2 = Arrays.copyOf(nodes2, length);
+        edges1 = Arrays.copyOf(edges1, length);
+        edges2 = Arrays.copyOf(edges2, length);
+        midNodes = Arrays.copyOf(midNodes, length);
+    }
+}
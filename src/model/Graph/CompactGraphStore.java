@@ -0,0 +1,654 @@
+package model.Graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This is a GraphStore which keeps the graph in primitive arrays instead of node and edge objects.
+ *
+ * The labels are stored as ids of the LabelDictionary. For each edge the start node, the end node, the two equivalence
+ * classes and the label are held in parallel int arrays which are indexed by the id of the edge, and deleted nodes and
+ * edges are only marked in a bitset. The incident edges of the nodes are stored in compressed sparse rows. Edges which
+ * are added after the last compaction are chained per node until the rows are rebuilt.
+ *
+ * The Node and Edge objects are created on demand, so only the elements which are currently used by the compression
+ * are held as objects. The digram search reads the arrays by the ids and creates no objects, see
+ * {@link GraphStore#getIncidentEdgeIds(int)}. Hyperedges with more than one start node or end node are kept as objects.
+ */
+public class CompactGraphStore implements GraphStore {
+
+    /**
+     * marks a missing label, edge or row entry.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * the minimal number of changes after which the rows are rebuilt.
+     */
+    private static final int MIN_CHANGES_FOR_COMPACTION = 1024;
+
+    /**
+     * the label id for each node id.
+     */
+    private int[] nodeLabels;
+
+    /**
+     * the ids of all nodes of the graph.
+     */
+    private final BitSet liveNodes;
+
+    /**
+     * the start node for each edge id.
+     */
+    private int[] edgeStartNodes;
+
+    /**
+     * the end node for each edge id.
+     */
+    private int[] edgeEndNodes;
+
+    /**
+     * the equivalence class of the start node for each edge id.
+     */
+    private int[] edgeStartClasses;
+
+    /**
+     * the equivalence class of the end node for each edge id.
+     */
+    private int[] edgeEndClasses;
+
+    /**
+     * the label id for each edge id, NONE for a simple edge.
+     */
+    private int[] edgeLabels;
+
+    /**
+     * the ids of all edges of the graph which are stored in the arrays.
+     */
+    private final BitSet liveEdges;
+
+    /**
+     * the hyperedges with more than one start node or end node.
+     */
+    private final HashMap<Integer, Edge> hyperEdges;
+
+    /**
+     * the number of simple edges which are stored in the arrays.
+     */
+    private int numSimpleEdges;
+
+    /**
+     * the rows of the outgoing edges: the outgoing edges of node n are outEdges[outOffsets[n]..outOffsets[n+1]).
+     */
+    private int[] outOffsets, outEdges;
+
+    /**
+     * the rows of the incoming edges: the incoming edges of node n are inEdges[inOffsets[n]..inOffsets[n+1]).
+     */
+    private int[] inOffsets, inEdges;
+
+    /**
+     * the first outgoing and incoming edge of each node which was added after the last compaction.
+     */
+    private int[] outHeads, inHeads;
+
+    /**
+     * the next outgoing and incoming edge in the chains of the edges added after the last compaction.
+     */
+    private int[] nextOut, nextIn;
+
+    /**
+     * the number of added and removed edges since the last compaction.
+     */
+    private int numChanges;
+
+    /**
+     * Empty constructor of CompactGraphStore.
+     */
+    public CompactGraphStore() {
+        nodeLabels = newFilledArray(16);
+        liveNodes = new BitSet();
+        edgeStartNodes = new int[16];
+        edgeEndNodes = new int[16];
+        edgeStartClasses = new int[16];
+        edgeEndClasses = new int[16];
+        edgeLabels = new int[16];
+        liveEdges = new BitSet();
+        hyperEdges = new HashMap<>();
+        outOffsets = new int[1];
+        outEdges = new int[0];
+        inOffsets = new int[1];
+        inEdges = new int[0];
+        outHeads = newFilledArray(16);
+        inHeads = newFilledArray(16);
+        nextOut = new int[16];
+        nextIn = new int[16];
+    }
+
+    /**
+     * Copy constructor of CompactGraphStore.
+     * @param other the store which is copied.
+     */
+    private CompactGraphStore(CompactGraphStore other) {
+        nodeLabels = other.nodeLabels.clone();
+        liveNodes = (BitSet) other.liveNodes.clone();
+        edgeStartNodes = other.edgeStartNodes.clone();
+        edgeEndNodes = other.edgeEndNodes.clone();
+        edgeStartClasses = other.edgeStartClasses.clone();
+        edgeEndClasses = other.edgeEndClasses.clone();
+        edgeLabels = other.edgeLabels.clone();
+        liveEdges = (BitSet) other.liveEdges.clone();
+        hyperEdges = new HashMap<>(other.hyperEdges);
+        numSimpleEdges = other.numSimpleEdges;
+        outOffsets = other.outOffsets.clone();
+        outEdges = other.outEdges.clone();
+        inOffsets = other.inOffsets.clone();
+        inEdges = other.inEdges.clone();
+        outHeads = other.outHeads.clone();
+        inHeads = other.inHeads.clone();
+        nextOut = other.nextOut.clone();
+        nextIn = other.nextIn.clone();
+        numChanges = other.numChanges;
+    }
+
+    @Override
+    public boolean addNode(Node node) {
+        storeNodeLabel(node);
+        boolean added = !liveNodes.get(node.getId());
+        liveNodes.set(node.getId());
+        return added;
+    }
+
+    @Override
+    public void addEdge(Edge edge) {
+        if (edge instanceof SimpleEdge) {
+            SimpleEdge simpleEdge = (SimpleEdge) edge;
+            storeEdge(edge.getId(), simpleEdge.getStartnode(), simpleEdge.getStartEquivalenceClass(),
+                    simpleEdge.getEndnode(), simpleEdge.getEndEquivalenceClass(), NONE);
+            numSimpleEdges++;
+
+            int id = edge.getId();
+            int startnode = edgeStartNodes[id];
+            int endnode = edgeEndNodes[id];
+            nextOut[id] = outHeads[startnode];
+            outHeads[startnode] = id;
+            nextIn[id] = inHeads[endnode];
+            inHeads[endnode] = id;
+            numChanges++;
+            compactIfNecessary();
+        } else {
+            HyperEdge hyperEdge = (HyperEdge) edge;
+            if (hyperEdge.getStartnodes().length == 1 && hyperEdge.getEndnodes().length == 1) {
+                storeEdge(edge.getId(), hyperEdge.getStartnodes()[0], 1, hyperEdge.getEndnodes()[0], 1, hyperEdge.getLabelId());
+            } else {
+                hyperEdges.put(edge.getId(), edge);
+            }
+        }
+    }
+
+    /**
+     * Stores the values of an edge in the arrays.
+     * @param id the id of the edge.
+     * @param startnode the start node of the edge.
+     * @param eqStart the equivalence class of the start node.
+     * @param endnode the end node of the edge.
+     * @param eqEnd the equivalence class of the end node.
+     * @param label the label id of the edge, NONE for a simple edge.
+     */
+    private void storeEdge(int id, Node startnode, int eqStart, Node endnode, int eqEnd, int label) {
+        ensureEdgeCapacity(id);
+        storeNodeLabel(startnode);
+        storeNodeLabel(endnode);
+        edgeStartNodes[id] = startnode.getId();
+        edgeEndNodes[id] = endnode.getId();
+        edgeStartClasses[id] = eqStart;
+        edgeEndClasses[id] = eqEnd;
+        edgeLabels[id] = label;
+        liveEdges.set(id);
+    }
+
+    /**
+     * Stores the label of a node. The label is kept after the node is removed, because edges may still refer to it.
+     * @param node the node for which the label is stored.
+     */
+    private void storeNodeLabel(Node node) {
+        ensureNodeCapacity(node.getId());
+        nodeLabels[node.getId()] = node.getLabelId();
+    }
+
+    @Override
+    public boolean removeNode(int nodeId) {
+        boolean removed = liveNodes.get(nodeId);
+        liveNodes.clear(nodeId);
+        return removed;
+    }
+
+    @Override
+    public boolean removeEdge(int edgeId) {
+        if (hyperEdges.remove(edgeId) != null) {
+            return true;
+        }
+        if (!liveEdges.get(edgeId)) {
+            return false;
+        }
+        liveEdges.clear(edgeId);
+        if (edgeLabels[edgeId] == NONE) {
+            numSimpleEdges--;
+            numChanges++;
+            compactIfNecessary();
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the rows if there were more changes since the last compaction than simple edges are stored.
+     */
+    private void compactIfNecessary() {
+        if (numChanges > Math.max(MIN_CHANGES_FOR_COMPACTION, numSimpleEdges)) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuilds the compressed sparse rows of the incident edges for all current simple edges.
+     */
+    public void compact() {
+        int numNodeIds = nodeLabels.length;
+        outOffsets = new int[numNodeIds + 1];
+        inOffsets = new int[numNodeIds + 1];
+        for (int edge = liveEdges.nextSetBit(0); edge >= 0; edge = liveEdges.nextSetBit(edge + 1)) {
+            if (edgeLabels[edge] == NONE) {
+                outOffsets[edgeStartNodes[edge] + 1]++;
+                inOffsets[edgeEndNodes[edge] + 1]++;
+            }
+        }
+        for (int node = 0; node < numNodeIds; node++) {
+            outOffsets[node + 1] += outOffsets[node];
+            inOffsets[node + 1] += inOffsets[node];
+        }
+
+        outEdges = new int[outOffsets[numNodeIds]];
+        inEdges = new int[inOffsets[numNodeIds]];
+        int[] outPositions = Arrays.copyOf(outOffsets, numNodeIds);
+        int[] inPositions = Arrays.copyOf(inOffsets, numNodeIds);
+        for (int edge = liveEdges.nextSetBit(0); edge >= 0; edge = liveEdges.nextSetBit(edge + 1)) {
+            if (edgeLabels[edge] == NONE) {
+                outEdges[outPositions[edgeStartNodes[edge]]++] = edge;
+                inEdges[inPositions[edgeEndNodes[edge]]++] = edge;
+            }
+        }
+
+        Arrays.fill(outHeads, NONE);
+        Arrays.fill(inHeads, NONE);
+        numChanges = 0;
+    }
+
+    @Override
+    public Map<Integer, Node> getNodes() {
+        return new NodeMap();
+    }
+
+    @Override
+    public Map<Integer, Edge> getEdges() {
+        return new EdgeMap();
+    }
+
+    @Override
+    public List<SimpleEdge> getIncomingEdges(int nodeId) {
+        return getIncidentEdges(nodeId, inOffsets, inEdges, inHeads, nextIn);
+    }
+
+    @Override
+    public List<SimpleEdge> getOutgoingEdges(int nodeId) {
+        return getIncidentEdges(nodeId, outOffsets, outEdges, outHeads, nextOut);
+    }
+
+    /**
+     * Collects the current incident edges of a node out of its row and its chain.
+     * @param nodeId the id of the node.
+     * @param offsets the offsets of the rows.
+     * @param rows the edges of the rows.
+     * @param heads the heads of the chains.
+     * @param next the next edges of the chains.
+     * @return the incident edges of the node.
+     */
+    private List<SimpleEdge> getIncidentEdges(int nodeId, int[] offsets, int[] rows, int[] heads, int[] next) {
+        List<SimpleEdge> edges = new ArrayList<>();
+        if (nodeId + 1 < offsets.length) {
+            for (int i = offsets[nodeId]; i < offsets[nodeId + 1]; i++) {
+                if (liveEdges.get(rows[i])) {
+                    edges.add((SimpleEdge) createEdge(rows[i]));
+                }
+            }
+        }
+        if (nodeId < heads.length) {
+            for (int edge = heads[nodeId]; edge != NONE; edge = next[edge]) {
+                if (liveEdges.get(edge)) {
+                    edges.add((SimpleEdge) createEdge(edge));
+                }
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public int[] getNodeIds() {
+        return liveNodes.stream().toArray();
+    }
+
+    @Override
+    public int[] getEdgeIds() {
+        int[] edgeIds = Arrays.copyOf(liveEdges.stream().toArray(), liveEdges.cardinality() + hyperEdges.size());
+        int i = liveEdges.cardinality();
+        for (int edgeId : hyperEdges.keySet()) {
+            edgeIds[i++] = edgeId;
+        }
+        return edgeIds;
+    }
+
+    @Override
+    public int getNodeLabelId(int nodeId) {
+        return nodeLabels[nodeId];
+    }
+
+    @Override
+    public boolean isSimpleEdge(int edgeId) {
+        return edgeId >= 0 && liveEdges.get(edgeId) && edgeLabels[edgeId] == NONE;
+    }
+
+    @Override
+    public int getStartNodeId(int edgeId) {
+        return edgeStartNodes[edgeId];
+    }
+
+    @Override
+    public int getEndNodeId(int edgeId) {
+        return edgeEndNodes[edgeId];
+    }
+
+    @Override
+    public int getStartEquivalenceClass(int edgeId) {
+        return edgeStartClasses[edgeId];
+    }
+
+    @Override
+    public int getEndEquivalenceClass(int edgeId) {
+        return edgeEndClasses[edgeId];
+    }
+
+    @Override
+    public int[] getIncidentEdgeIds(int nodeId) {
+        int numIncoming = collectEdgeIds(nodeId, inOffsets, inEdges, inHeads, nextIn, false, null, 0);
+        int size = collectEdgeIds(nodeId, outOffsets, outEdges, outHeads, nextOut, true, null, numIncoming);
+        int[] edgeIds = new int[size];
+        collectEdgeIds(nodeId, inOffsets, inEdges, inHeads, nextIn, false, edgeIds, 0);
+        collectEdgeIds(nodeId, outOffsets, outEdges, outHeads, nextOut, true, edgeIds, numIncoming);
+        return edgeIds;
+    }
+
+    /**
+     * Collects the ids of the current incident edges of a node out of its row and its chain.
+     * @param skipLoops true if the loops of the node are skipped.
+     * @param edgeIds the array into which the ids are written, null if they are only counted.
+     * @param size the number of ids in the array before.
+     * @return the number of ids in the array afterwards.
+     * @see #getIncidentEdges(int, int[], int[], int[], int[])
+     */
+    private int collectEdgeIds(int nodeId, int[] offsets, int[] rows, int[] heads, int[] next, boolean skipLoops,
+                               int[] edgeIds, int size) {
+        if (nodeId + 1 < offsets.length) {
+            for (int i = offsets[nodeId]; i < offsets[nodeId + 1]; i++) {
+                size = collectEdgeId(rows[i], nodeId, skipLoops, edgeIds, size);
+            }
+        }
+        if (nodeId < heads.length) {
+            for (int edge = heads[nodeId]; edge != NONE; edge = next[edge]) {
+                size = collectEdgeId(edge, nodeId, skipLoops, edgeIds, size);
+            }
+        }
+        return size;
+    }
+
+    private int collectEdgeId(int edgeId, int nodeId, boolean skipLoops, int[] edgeIds, int size) {
+        if (!liveEdges.get(edgeId) || skipLoops && edgeStartNodes[edgeId] == nodeId && edgeEndNodes[edgeId] == nodeId) {
+            return size;
+        }
+        if (edgeIds != null) {
+            edgeIds[size] = edgeId;
+        }
+        return size + 1;
+    }
+
+    /**
+     * Creates the object for a node of the store.
+     * @param nodeId the id of the node.
+     * @return the node object.
+     */
+    private Node createNode(int nodeId) {
+        return new Node(nodeId, nodeLabels[nodeId]);
+    }
+
+    /**
+     * Creates the object for an edge which is stored in the arrays.
+     * @param edgeId the id of the edge.
+     * @return the edge object.
+     */
+    private Edge createEdge(int edgeId) {
+        Node startnode = createNode(edgeStartNodes[edgeId]);
+        Node endnode = createNode(edgeEndNodes[edgeId]);
+        if (edgeLabels[edgeId] == NONE) {
+            return new SimpleEdge(edgeId, startnode, edgeStartClasses[edgeId], endnode, edgeEndClasses[edgeId]);
+        }
+        return new HyperEdge(edgeId, new Node[]{startnode}, new Node[]{endnode}, edgeLabels[edgeId]);
+    }
+
+    /**
+     * Enlarges the node arrays, so that they can hold the node id.
+     * @param nodeId the id of the node.
+     */
+    private void ensureNodeCapacity(int nodeId) {
+        if (nodeId < nodeLabels.length) return;
+        int capacity = Math.max(nodeId + 1, nodeLabels.length * 2);
+        nodeLabels = growFilledArray(nodeLabels, capacity);
+        outHeads = growFilledArray(outHeads, capacity);
+        inHeads = growFilledArray(inHeads, capacity);
+    }
+
+    /**
+     * Enlarges the edge arrays, so that they can hold the edge id.
+     * @param edgeId the id of the edge.
+     */
+    private void ensureEdgeCapacity(int edgeId) {
+        if (edgeId < edgeStartNodes.length) return;
+        int capacity = Math.max(edgeId + 1, edgeStartNodes.length * 2);
+        edgeStartNodes = Arrays.copyOf(edgeStartNodes, capacity);
+        edgeEndNodes = Arrays.copyOf(edgeEndNodes, capacity);
+        edgeStartClasses = Arrays.copyOf(edgeStartClasses, capacity);
+        edgeEndClasses = Arrays.copyOf(edgeEndClasses, capacity);
+        edgeLabels = Arrays.copyOf(edgeLabels, capacity);
+        nextOut = Arrays.copyOf(nextOut, capacity);
+        nextIn = Arrays.copyOf(nextIn, capacity);
+    }
+
+    /**
+     * Creates an array which is filled with NONE.
+     * @param length the length of the array.
+     * @return the new array.
+     */
+    private static int[] newFilledArray(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    /**
+     * Enlarges an array and fills the new entries with NONE.
+     * @param array the array which is enlarged.
+     * @param length the new length of the array.
+     * @return the enlarged array.
+     */
+    private static int[] growFilledArray(int[] array, int length) {
+        int oldLength = array.length;
+        int[] newArray = Arrays.copyOf(array, length);
+        Arrays.fill(newArray, oldLength, length, NONE);
+        return newArray;
+    }
+
+    @Override
+    public GraphStore copy() {
+        return new CompactGraphStore(this);
+    }
+
+    @Override
+    public GraphStore newInstance() {
+        return new CompactGraphStore();
+    }
+
+    /**
+     * A read only view of the nodes of the store.
+     */
+    private class NodeMap extends AbstractMap<Integer, Node> {
+
+        @Override
+        public Node get(Object key) {
+            return containsKey(key) ? createNode((Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && (Integer) key >= 0 && liveNodes.get((Integer) key);
+        }
+
+        @Override
+        public int size() {
+            return liveNodes.cardinality();
+        }
+
+        @Override
+        public Set<Entry<Integer, Node>> entrySet() {
+            return new AbstractSet<Entry<Integer, Node>>() {
+                @Override
+                public Iterator<Entry<Integer, Node>> iterator() {
+                    return new BitSetIterator<Node>(liveNodes) {
+                        @Override
+                        Node create(int id) {
+                            return createNode(id);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return NodeMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * A read only view of the edges of the store.
+     */
+    private class EdgeMap extends AbstractMap<Integer, Edge> {
+
+        @Override
+        public Edge get(Object key) {
+            if (!(key instanceof Integer) || (Integer) key < 0) return null;
+            if (liveEdges.get((Integer) key)) return createEdge((Integer) key);
+            return hyperEdges.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return liveEdges.cardinality() + hyperEdges.size();
+        }
+
+        @Override
+        public Set<Entry<Integer, Edge>> entrySet() {
+            return new AbstractSet<Entry<Integer, Edge>>() {
+                @Override
+                public Iterator<Entry<Integer, Edge>> iterator() {
+                    Iterator<Entry<Integer, Edge>> storedEdges = new BitSetIterator<Edge>(liveEdges) {
+                        @Override
+                        Edge create(int id) {
+                            return createEdge(id);
+                        }
+                    };
+                    Iterator<Entry<Integer, Edge>> objectEdges = hyperEdges.entrySet().iterator();
+                    return new Iterator<Entry<Integer, Edge>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return storedEdges.hasNext() || objectEdges.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Integer, Edge> next() {
+                            return storedEdges.hasNext() ? storedEdges.next() : objectEdges.next();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return EdgeMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * An iterator over the ids of a bitset which creates the objects for the ids.
+     * @param <V> the type of the created objects.
+     */
+    private abstract static class BitSetIterator<V> implements Iterator<Entry<Integer, V>> {
+
+        /**
+         * the bitset over which is iterated.
+         */
+        private final BitSet ids;
+
+        /**
+         * the next id, -1 if there is none.
+         */
+        private int nextId;
+
+        BitSetIterator(BitSet ids) {
+            this.ids = ids;
+            nextId = ids.nextSetBit(0);
+        }
+
+        /**
+         * Creates the object for an id.
+         * @param id the id.
+         * @return the object for the id.
+         */
+        abstract V create(int id);
+
+        @Override
+        public boolean hasNext() {
+            return nextId >= 0;
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (nextId < 0) throw new NoSuchElementException();
+            int id = nextId;
+            nextId = ids.nextSetBit(id + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(id, create(id));
+        }
+    }
+}
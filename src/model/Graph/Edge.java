@@ -7,11 +7,6 @@ package model.Graph;
  */
 public abstract class Edge {
 
-    /**
-     * counter for the identifier of the edges.
-     */
-    static  int idCounter=0;
-
     /**
      * Gets the ID from the edge.
      * @return the id for the edge.
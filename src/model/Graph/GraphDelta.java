@@ -0,0 +1,145 @@
+package model.Graph;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+
+/**
+ * This is a class for the changes of a HyperGraph, e.g. the changes of one replacement round.
+ *
+ * Only the net changes are stored: an element which is added and removed again within the same delta is not recorded
+ * at all. So a delta takes memory proportional to the changed part of the graph and not to the whole graph.
+ *
+ * @see HyperGraph#recordChanges(GraphDelta)
+ */
+public class GraphDelta {
+
+    /**
+     * the added nodes.
+     */
+    private final LinkedHashMap<Integer, Node> addedNodes = new LinkedHashMap<>();
+
+    /**
+     * the removed nodes.
+     */
+    private final LinkedHashMap<Integer, Node> removedNodes = new LinkedHashMap<>();
+
+    /**
+     * the added edges.
+     */
+    private final LinkedHashMap<Integer, Edge> addedEdges = new LinkedHashMap<>();
+
+    /**
+     * the removed edges.
+     */
+    private final LinkedHashMap<Integer, Edge> removedEdges = new LinkedHashMap<>();
+
+    /**
+     * Records that a node was added.
+     * @param node the added node.
+     */
+    void nodeAdded(Node node) {
+        if (removedNodes.remove(node.getId()) == null) {
+            addedNodes.put(node.getId(), node);
+        }
+    }
+
+    /**
+     * Records that a node was removed.
+     * @param node the removed node.
+     */
+    void nodeRemoved(Node node) {
+        if (addedNodes.remove(node.getId()) == null) {
+            removedNodes.put(node.getId(), node);
+        }
+    }
+
+    /**
+     * Records that an edge was added.
+     * @param edge the added edge.
+     */
+    void edgeAdded(Edge edge) {
+        if (removedEdges.remove(edge.getId()) == null) {
+            addedEdges.put(edge.getId(), edge);
+        }
+    }
+
+    /**
+     * Records that an edge was removed.
+     * @param edge the removed edge.
+     */
+    void edgeRemoved(Edge edge) {
+        if (addedEdges.remove(edge.getId()) == null) {
+            removedEdges.put(edge.getId(), edge);
+        }
+    }
+
+    /**
+     * Appends the changes of a later delta, so that this delta contains the net changes of both.
+     * @param later the delta with the changes after the changes of this delta.
+     */
+    public void append(GraphDelta later) {
+        for (Node node : later.addedNodes.values()) {
+            nodeAdded(node);
+        }
+        for (Edge edge : later.addedEdges.values()) {
+            edgeAdded(edge);
+        }
+        for (Edge edge : later.removedEdges.values()) {
+            edgeRemoved(edge);
+        }
+        for (Node node : later.removedNodes.values()) {
+            nodeRemoved(node);
+        }
+    }
+
+    /**
+     * Applies the changes to a graph.
+     * @param graph the graph which is changed.
+     */
+    public void applyTo(HyperGraph graph) {
+        for (Node node : addedNodes.values()) {
+            graph.add(node);
+        }
+        for (Edge edge : addedEdges.values()) {
+            graph.add(edge);
+        }
+        for (Edge edge : removedEdges.values()) {
+            graph.delete(edge);
+        }
+        for (Node node : removedNodes.values()) {
+            graph.delete(node);
+        }
+    }
+
+    /**
+     * Getter for the added nodes.
+     * @return the added nodes.
+     */
+    public Collection<Node> getAddedNodes() {
+        return addedNodes.values();
+    }
+
+    /**
+     * Getter for the removed nodes.
+     * @return the removed nodes.
+     */
+    public Collection<Node> getRemovedNodes() {
+        return removedNodes.values();
+    }
+
+    /**
+     * Getter for the added edges.
+     * @return the added edges.
+     */
+    public Collection<Edge> getAddedEdges() {
+        return addedEdges.values();
+    }
+
+    /**
+     * Getter for the removed edges.
+     * @return the removed edges.
+     */
+    public Collection<Edge> getRemovedEdges() {
+        return removedEdges.values();
+    }
+}
@@ -0,0 +1,28 @@
+package model.Graph;
+
+/**
+ * This is an interface for a consumer of a graph which is produced piece by piece, e.g. by the decompression.
+ *
+ * The nodes are given by their ids and label ids and the edges by the ids of their nodes, so the producer does not
+ * need to create Node and Edge objects. The methods may be called concurrently and an edge may be given before its
+ * nodes.
+ *
+ * @see HyperGraphBuilder
+ */
+public interface GraphSink {
+
+    /**
+     * Consumes a node.
+     * @param nodeId the id of the node.
+     * @param labelId the label id of the node.
+     */
+    void addNode(int nodeId, int labelId);
+
+    /**
+     * Consumes an edge.
+     * @param labelId the label id of a hyperedge, -1 for a simple edge with one start node and one end node.
+     * @param startNodeIds the ids of the start nodes.
+     * @param endNodeIds the ids of the end nodes.
+     */
+    void addEdge(int labelId, int[] startNodeIds, int[] endNodeIds);
+}
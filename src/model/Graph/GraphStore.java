@@ -0,0 +1,201 @@
+package model.Graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is an interface for the storage of the nodes and edges of a HyperGraph.
+ *
+ * A HyperGraph delegates all accesses to its nodes and edges to a GraphStore, so that the representation of a graph
+ * can be exchanged without changing the compression. Nodes and edges are identified by their ids and the ids must not
+ * be reused for another element.
+ *
+ * @see HyperGraph
+ */
+public interface GraphStore {
+
+    /**
+     * Add a node to the store.
+     * @param node node which is to be added.
+     * @return true if the store did not contain a node with the id of the node, else false.
+     */
+    boolean addNode(Node node);
+
+    /**
+     * Add an edge to the store.
+     * @param edge edge which is to be added.
+     */
+    void addEdge(Edge edge);
+
+    /**
+     * Removes a node from the store. The incident edges are not removed.
+     * @param nodeId the id of the node which should be removed.
+     * @return true if the store contained the node, else false.
+     */
+    boolean removeNode(int nodeId);
+
+    /**
+     * Removes an edge from the store.
+     * @param edgeId the id of the edge which should be removed.
+     * @return true if the store contained the edge, else false.
+     */
+    boolean removeEdge(int edgeId);
+
+    /**
+     * Removes edges from the store, the default implementation removes them one by one.
+     * @param edgeIds the ids of the edges which should be removed, ids which are not contained are ignored.
+     */
+    default void removeEdges(int[] edgeIds) {
+        for (int edgeId : edgeIds) {
+            removeEdge(edgeId);
+        }
+    }
+
+    /**
+     * Getter for all nodes. The map is a read only view on the store.
+     * @return all nodes of the store.
+     */
+    Map<Integer, Node> getNodes();
+
+    /**
+     * Getter for all edges. The map is a read only view on the store.
+     * @return all edges of the store.
+     */
+    Map<Integer, Edge> getEdges();
+
+    /**
+     * Getter for all simple edges which end in the node.
+     * @param nodeId the id of the node for which the request is to be executed.
+     * @return the incoming edges of the node.
+     */
+    List<SimpleEdge> getIncomingEdges(int nodeId);
+
+    /**
+     * Getter for all simple edges which start in the node.
+     * @param nodeId the id of the node for which the request is to be executed.
+     * @return the outgoing edges of the node.
+     */
+    List<SimpleEdge> getOutgoingEdges(int nodeId);
+
+    /**
+     * Getter for the ids of all nodes in the order of {@link #getNodes()}.
+     * @return the ids of all nodes.
+     */
+    default int[] getNodeIds() {
+        return toArray(getNodes().keySet());
+    }
+
+    /**
+     * Getter for the ids of all edges in the order of {@link #getEdges()}.
+     * @return the ids of all edges.
+     */
+    default int[] getEdgeIds() {
+        return toArray(getEdges().keySet());
+    }
+
+    /**
+     * Getter for the label of a node. The following getters access the graph by the ids, so that a store which does
+     * not keep node and edge objects can be searched without creating them. The default implementations use the
+     * objects.
+     * @param nodeId the id of the node.
+     * @return the label id of the node.
+     */
+    default int getNodeLabelId(int nodeId) {
+        return getNodes().get(nodeId).getLabelId();
+    }
+
+    /**
+     * Checks whether an edge is a simple edge of the store.
+     * @param edgeId the id of the edge.
+     * @return true if the store contains a simple edge with the id, else false.
+     */
+    default boolean isSimpleEdge(int edgeId) {
+        return getEdges().get(edgeId) instanceof SimpleEdge;
+    }
+
+    /**
+     * Getter for the start node of a simple edge.
+     * @param edgeId the id of the simple edge.
+     * @return the id of the start node.
+     */
+    default int getStartNodeId(int edgeId) {
+        return ((SimpleEdge) getEdges().get(edgeId)).getStartnode().getId();
+    }
+
+    /**
+     * Getter for the end node of a simple edge.
+     * @param edgeId the id of the simple edge.
+     * @return the id of the end node.
+     */
+    default int getEndNodeId(int edgeId) {
+        return ((SimpleEdge) getEdges().get(edgeId)).getEndnode().getId();
+    }
+
+    /**
+     * Getter for the equivalence class of the start node of a simple edge.
+     * @param edgeId the id of the simple edge.
+     * @return the equivalence class of the start node.
+     */
+    default int getStartEquivalenceClass(int edgeId) {
+        return ((SimpleEdge) getEdges().get(edgeId)).getStartEquivalenceClass();
+    }
+
+    /**
+     * Getter for the equivalence class of the end node of a simple edge.
+     * @param edgeId the id of the simple edge.
+     * @return the equivalence class of the end node.
+     */
+    default int getEndEquivalenceClass(int edgeId) {
+        return ((SimpleEdge) getEdges().get(edgeId)).getEndEquivalenceClass();
+    }
+
+    /**
+     * Getter for the ids of all simple edges which are incident to the node. The incoming edges are listed before the
+     * outgoing edges and a loop is listed only once, like in {@link HyperGraph#getAllIncidentEdges(Node)}.
+     * @param nodeId the id of the node.
+     * @return the ids of the incident edges.
+     */
+    default int[] getIncidentEdgeIds(int nodeId) {
+        List<SimpleEdge> incomingEdges = getIncomingEdges(nodeId);
+        List<SimpleEdge> outgoingEdges = getOutgoingEdges(nodeId);
+        int[] edgeIds = new int[incomingEdges.size() + outgoingEdges.size()];
+        int size = 0;
+        for (SimpleEdge edge : incomingEdges) {
+            edgeIds[size++] = edge.getId();
+        }
+        for (SimpleEdge edge : outgoingEdges) {
+            if (edge.getEndnode().getId() != nodeId) {
+                edgeIds[size++] = edge.getId();
+            }
+        }
+        return size == edgeIds.length ? edgeIds : Arrays.copyOf(edgeIds, size);
+    }
+
+    /**
+     * Copies the store, so that the copy can be changed independently of this store.
+     * @return the copied store.
+     */
+    GraphStore copy();
+
+    /**
+     * Creates an empty store of the same kind as this store.
+     * @return an empty store.
+     */
+    GraphStore newInstance();
+
+    /**
+     * Copies ids into an array.
+     * @param ids the ids.
+     * @return the ids in the order of the collection.
+     */
+    private static int[] toArray(Collection<Integer> ids) {
+        int[] array = new int[ids.size()];
+        int i = 0;
+        for (int id : ids) {
+            array[i++] = id;
+        }
+        return array;
+    }
+}
@@ -0,0 +1,233 @@
+package model.Graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * This is the default GraphStore which keeps the nodes and edges as objects in HashMaps.
+ *
+ * Additionally the incoming and outgoing simple edges of each node are stored, so that the incident edges of a node
+ * can be found in O(degree).
+ */
+public class HashGraphStore implements GraphStore {
+
+    /**
+     * set of nodes.
+     */
+    private final HashMap<Integer, Node> nodes;
+
+    /**
+     * set of edges.
+     */
+    private final HashMap<Integer, Edge> edges;
+
+    /**
+     * the incoming simple edges for each node id.
+     */
+    private final HashMap<Integer, List<SimpleEdge>> incomingEdges;
+
+    /**
+     * the outgoing simple edges for each node id.
+     */
+    private final HashMap<Integer, List<SimpleEdge>> outgoingEdges;
+
+    /**
+     * Empty constructor of HashGraphStore.
+     */
+    public HashGraphStore() {
+        this(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * Constructor of HashGraphStore.
+     * @param nodes the set of nodes.
+     * @param edges the set of edges.
+     * @param incomingEdges the incoming simple edges for each node id.
+     * @param outgoingEdges the outgoing simple edges for each node id.
+     */
+    private HashGraphStore(HashMap<Integer, Node> nodes, HashMap<Integer, Edge> edges,
+                           HashMap<Integer, List<SimpleEdge>> incomingEdges, HashMap<Integer, List<SimpleEdge>> outgoingEdges) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.incomingEdges = incomingEdges;
+        this.outgoingEdges = outgoingEdges;
+    }
+
+    @Override
+    public boolean addNode(Node node) {
+        return nodes.put(node.getId(), node) == null;
+    }
+
+    @Override
+    public void addEdge(Edge edge) {
+        edges.put(edge.getId(), edge);
+        if (edge instanceof SimpleEdge) {
+            SimpleEdge simpleEdge = (SimpleEdge) edge;
+            outgoingEdges.computeIfAbsent(simpleEdge.getStartnode().getId(), id -> new ArrayList<>()).add(simpleEdge);
+            incomingEdges.computeIfAbsent(simpleEdge.getEndnode().getId(), id -> new ArrayList<>()).add(simpleEdge);
+        }
+    }
+
+    @Override
+    public boolean removeNode(int nodeId) {
+        return nodes.remove(nodeId) != null;
+    }
+
+    @Override
+    public boolean removeEdge(int edgeId) {
+        Edge edge = edges.remove(edgeId);
+        if (edge instanceof SimpleEdge) {
+            SimpleEdge simpleEdge = (SimpleEdge) edge;
+            removeIncidentEdge(outgoingEdges, simpleEdge.getStartnode().getId(), edgeId);
+            removeIncidentEdge(incomingEdges, simpleEdge.getEndnode().getId(), edgeId);
+        }
+        return edge != null;
+    }
+
+    /**
+     * Removes edges, the incidence lists of each node are filtered only once. So removing many edges of the same node
+     * takes time linear in its degree and not quadratic as by {@link #removeEdge(int)}.
+     * @param edgeIds the ids of the edges which should be removed, ids which are not contained are ignored.
+     */
+    @Override
+    public void removeEdges(int[] edgeIds) {
+        BitSet removedEdges = new BitSet();
+        Set<Integer> startNodes = new HashSet<>();
+        Set<Integer> endNodes = new HashSet<>();
+        for (int edgeId : edgeIds) {
+            Edge edge = edges.remove(edgeId);
+            if (edge instanceof SimpleEdge) {
+                removedEdges.set(edgeId);
+                startNodes.add(((SimpleEdge) edge).getStartnode().getId());
+                endNodes.add(((SimpleEdge) edge).getEndnode().getId());
+            }
+        }
+        removeIncidentEdges(outgoingEdges, startNodes, removedEdges);
+        removeIncidentEdges(incomingEdges, endNodes, removedEdges);
+    }
+
+    /**
+     * Removes edges from the incidence lists of some nodes.
+     * @param incidence the incidence lists in which the edges are stored.
+     * @param nodeIds the ids of the nodes whose incidence lists contain the edges.
+     * @param edgeIds the ids of the edges which should be removed.
+     */
+    private static void removeIncidentEdges(HashMap<Integer, List<SimpleEdge>> incidence, Set<Integer> nodeIds, BitSet edgeIds) {
+        for (int nodeId : nodeIds) {
+            List<SimpleEdge> incidentEdges = incidence.get(nodeId);
+            if (incidentEdges == null) continue;
+            incidentEdges.removeIf(edge -> edgeIds.get(edge.getId()));
+            if (incidentEdges.isEmpty()) {
+                incidence.remove(nodeId);
+            }
+        }
+    }
+
+    /**
+     * Removes an edge from the incidence list of a node.
+     *
+     * The edge is matched by its id, because SimpleEdge.equals compares the labels only. The last edge of the list is
+     * moved to the gap, so no edges are shifted.
+     * @param incidence the incidence lists in which the edge is stored.
+     * @param nodeId the id of the node for which the edge is stored.
+     * @param edgeId the id of the edge which should be removed.
+     */
+    private static void removeIncidentEdge(HashMap<Integer, List<SimpleEdge>> incidence, int nodeId, int edgeId) {
+        List<SimpleEdge> incidentEdges = incidence.get(nodeId);
+        if (incidentEdges == null) return;
+        for (int i = 0; i < incidentEdges.size(); i++) {
+            if (incidentEdges.get(i).getId() == edgeId) {
+                SimpleEdge last = incidentEdges.remove(incidentEdges.size() - 1);
+                if (i < incidentEdges.size()) {
+                    incidentEdges.set(i, last);
+                }
+                break;
+            }
+        }
+        if (incidentEdges.isEmpty()) {
+            incidence.remove(nodeId);
+        }
+    }
+
+    @Override
+    public Map<Integer, Node> getNodes() {
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    @Override
+    public Map<Integer, Edge> getEdges() {
+        return Collections.unmodifiableMap(edges);
+    }
+
+    @Override
+    public List<SimpleEdge> getIncomingEdges(int nodeId) {
+        List<SimpleEdge> edges = incomingEdges.get(nodeId);
+        return edges == null ? Collections.emptyList() : Collections.unmodifiableList(edges);
+    }
+
+    @Override
+    public List<SimpleEdge> getOutgoingEdges(int nodeId) {
+        List<SimpleEdge> edges = outgoingEdges.get(nodeId);
+        return edges == null ? Collections.emptyList() : Collections.unmodifiableList(edges);
+    }
+
+    @Override
+    public int getNodeLabelId(int nodeId) {
+        return nodes.get(nodeId).getLabelId();
+    }
+
+    @Override
+    public boolean isSimpleEdge(int edgeId) {
+        return edges.get(edgeId) instanceof SimpleEdge;
+    }
+
+    @Override
+    public int getStartNodeId(int edgeId) {
+        return ((SimpleEdge) edges.get(edgeId)).getStartnode().getId();
+    }
+
+    @Override
+    public int getEndNodeId(int edgeId) {
+        return ((SimpleEdge) edges.get(edgeId)).getEndnode().getId();
+    }
+
+    @Override
+    public int getStartEquivalenceClass(int edgeId) {
+        return ((SimpleEdge) edges.get(edgeId)).getStartEquivalenceClass();
+    }
+
+    @Override
+    public int getEndEquivalenceClass(int edgeId) {
+        return ((SimpleEdge) edges.get(edgeId)).getEndEquivalenceClass();
+    }
+
+    @Override
+    public GraphStore copy() {
+        return new HashGraphStore(new HashMap<>(nodes), new HashMap<>(edges), copyIncidence(incomingEdges), copyIncidence(outgoingEdges));
+    }
+
+    /**
+     * Copies the incidence lists, so that the copy can be changed independently of the current store.
+     * @param incidence the incidence lists which should be copied.
+     * @return the copied incidence lists.
+     */
+    private static HashMap<Integer, List<SimpleEdge>> copyIncidence(HashMap<Integer, List<SimpleEdge>> incidence) {
+        HashMap<Integer, List<SimpleEdge>> copy = new HashMap<>();
+        for (Entry<Integer, List<SimpleEdge>> entry : incidence.entrySet()) {
+            copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    @Override
+    public GraphStore newInstance() {
+        return new HashGraphStore();
+    }
+}
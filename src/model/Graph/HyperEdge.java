@@ -1,5 +1,7 @@
 package model.Graph;
 
+import model.LabelDictionary;
+
 /**
  * This is a class for a HyperEdge which extends the class Edge.
  *
@@ -25,32 +27,60 @@ public class HyperEdge extends Edge {
     private final Node[] endnodes;
 
     /**
-     * the label of the edge.
+     * the label id of the edge.
      */
-    private final String label;
+    private final int labelId;
 
 
     /**
      * Constructor for the HyperEdge.
+     * @param ids the id allocator of the graph of the edge.
      * @param startnodes the start nodes of the edge.
      * @param endnodes  the end nodes of the edge.
      * @param label the label of the edge.
      */
-    public HyperEdge(Node[] startnodes, Node[] endnodes, String label) {
+    public HyperEdge(IdAllocator ids, Node[] startnodes, Node[] endnodes, String label) {
+        this(ids.nextEdgeId(), startnodes, endnodes, label);
+    }
+
+    /**
+     * Constructor for the HyperEdge with a given id.
+     *
+     * The identifier have to be unique, it is used by stores which create the edge objects on demand.
+     * @param id identifier of the edge.
+     * @param startnodes the start nodes of the edge.
+     * @param endnodes  the end nodes of the edge.
+     * @param label the label of the edge.
+     */
+    HyperEdge(int id, Node[] startnodes, Node[] endnodes, String label) {
+        this(id, startnodes, endnodes, LabelDictionary.getId(label));
+    }
+
+    /**
+     * Constructor for the HyperEdge with a given id and label id.
+     *
+     * The identifier have to be unique, it is used by stores which create the edge objects on demand.
+     * @param id identifier of the edge.
+     * @param startnodes the start nodes of the edge.
+     * @param endnodes  the end nodes of the edge.
+     * @param labelId the label id of the edge.
+     */
+    HyperEdge(int id, Node[] startnodes, Node[] endnodes, int labelId) {
+        this.id = id;
         this.startnodes = startnodes;
         this.endnodes = endnodes;
-        this.label = label;
-        id = idCounter++;
+        this.labelId = labelId;
     }
 
     /**
      * Constructor for the HyperEdge.
+     * @param ids the id allocator of the graph of the edge.
      * @param startnode the start node of the edge.
      * @param endnode  the end node of the edge.
      * @param label the label of the edge.
      */
-    public HyperEdge(Node startnode, Node endnode, String label) {
-       this(new Node[]{startnode}, new Node[]{endnode}, label);
+    public HyperEdge(IdAllocator ids, Node startnode, Node endnode, String label) {
+       this(ids, new Node[]{startnode}, new Node[]{endnode}, label);
     }
 
     /**
@@ -82,6 +112,14 @@ public class HyperEdge extends Edge {
      * @return label of the edge.
      */
     public String getLabel() {
-        return label;
+        return LabelDictionary.getLabel(labelId);
+    }
+
+    /**
+     * Getter for the label id.
+     * @return id of the label of the edge.
+     */
+    public int getLabelId() {
+        return labelId;
     }
 }
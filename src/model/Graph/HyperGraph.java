@@ -1,7 +1,12 @@
 package model.Graph;
 
-import java.util.HashMap;
+import model.LabelDictionary;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -9,37 +14,75 @@ import java.util.Map.Entry;
  * This is a class for a Graph called HyperGraph.
  *
  *A Graph consists of two sets, the nodes and edges. On an Object of HyperGraph object the graph compression can be executed.
+ *The nodes and edges are held by a GraphStore, so that different representations of a graph can be used.
  *
  * @author Matthias Duerksen
+ * @see GraphStore
  */
 public class HyperGraph {
 
     /**
-     * set of nodes.
+     * the store for the nodes and edges.
      */
-    private final HashMap<Integer, Node> nodes;
+    private final GraphStore store;
 
     /**
-     * set of edges.
+     * the number of nodes for each label id.
      */
-    private final HashMap<Integer, Edge> edges;
+    private int[] labelCounts;
+
+    /**
+     * the ids of all labels which occur at least twice in the graph.
+     */
+    private final BitSet duplicatedLabels;
+
+    /**
+     * the delta which records the changes of the graph, null if the changes are not recorded.
+     */
+    private GraphDelta delta;
+
+    /**
+     * the allocator for the ids of the nodes and edges and for the numbers of the non terminals of the graph.
+     */
+    private final IdAllocator ids;
 
     /**
      * Empty constructor of HyperGraph.
      */
     public HyperGraph() {
-        nodes = new HashMap<>();
-        edges = new HashMap<>();
+        this(new HashGraphStore());
     }
 
     /**
      * Constructor of HyperGraph.
-     * @param nodes the set of nodes.
-     * @param edges the set of edges.
+     * @param store the store for the nodes and edges.
+     */
+    public HyperGraph(GraphStore store) {
+        this.store = store;
+        ids = new IdAllocator();
+        labelCounts = new int[LabelDictionary.size()];
+        duplicatedLabels = new BitSet();
+        for (Node node : store.getNodes().values()) {
+            countLabel(node.getLabelId(), 1);
+            ids.reserveNodeId(node.getId());
+        }
+        for (Integer edgeId : store.getEdges().keySet()) {
+            ids.reserveEdgeId(edgeId);
+        }
+    }
+
+    /**
+     * Constructor of HyperGraph with already counted labels.
+     * @param store the store for the nodes and edges.
+     * @param labelCounts the number of nodes for each label id.
+     * @param duplicatedLabels the ids of all labels which occur at least twice.
+     * @param ids the allocator for the ids.
      */
-    private HyperGraph(HashMap<Integer, Node> nodes, HashMap<Integer, Edge> edges) {
-        this.nodes = nodes;
-        this.edges = edges;
+    private HyperGraph(GraphStore store, int[] labelCounts, BitSet duplicatedLabels, IdAllocator ids) {
+        this.store = store;
+        this.ids = ids;
+        this.labelCounts = labelCounts;
+        this.duplicatedLabels = duplicatedLabels;
     }
 
     /**
@@ -48,12 +91,46 @@ public class HyperGraph {
      * @return true if the graph contains a node with label 'l', else false.
      */
     public boolean containsNode(String l) {
-        for (Entry<Integer, Node> entry : nodes.entrySet()) {
-            Node node = entry.getValue();
-            if (node.getLabel().equals(l)) return true;
+        return containsNode(LabelDictionary.getId(l));
+    }
+
+    /**
+     * Checks whether the graph contains a node with the label id 'labelId'.
+     * @param labelId the label id for which we perform the check.
+     * @return true if the graph contains a node with the label id, else false.
+     */
+    public boolean containsNode(int labelId) {
+        return getLabelCount(labelId) > 0;
+    }
+
+    /**
+     * Getter for the number of nodes with a label.
+     * @param labelId the id of the label.
+     * @return the number of nodes with the label.
+     */
+    public int getLabelCount(int labelId) {
+        return labelId < labelCounts.length ? labelCounts[labelId] : 0;
+    }
+
+    /**
+     * Getter for the ids of all labels which occur at least twice in the graph.
+     * @return a copy of the set of the duplicated label ids.
+     */
+    public BitSet getDuplicatedLabels() {
+        return (BitSet) duplicatedLabels.clone();
+    }
 
+    /**
+     * Changes the number of nodes with a label.
+     * @param labelId the id of the label.
+     * @param delta the number of added (positive) or removed (negative) nodes.
+     */
+    private void countLabel(int labelId, int delta) {
+        if (labelId >= labelCounts.length) {
+            labelCounts = Arrays.copyOf(labelCounts, Math.max(labelId + 1, labelCounts.length * 2));
         }
-        return false;
+        labelCounts[labelId] += delta;
+        duplicatedLabels.set(labelId, labelCounts[labelId] > 1);
     }
 
     /**
@@ -61,7 +138,11 @@ public class HyperGraph {
      * @param node node which is to be added.
      */
     public void add(Node node) {
-        nodes.put(node.getId(), node);
+        ids.reserveNodeId(node.getId());
+        if (store.addNode(node)) {
+            countLabel(node.getLabelId(), 1);
+            if (delta != null) delta.nodeAdded(node);
+        }
     }
 
     /**
@@ -69,7 +150,9 @@ public class HyperGraph {
      * @param edge edge which is to be added.
      */
     public void add(Edge edge) {
-        edges.put(edge.getId(), edge);
+        ids.reserveEdgeId(edge.getId());
+        store.addEdge(edge);
+        if (delta != null) delta.edgeAdded(edge);
     }
 
     /**
@@ -77,7 +160,9 @@ public class HyperGraph {
      * @param newNodes nodes which are be added.
      */
     public void addAll(Map<Integer, Node> newNodes) {
-        nodes.putAll(newNodes);
+        for (Node node : newNodes.values()) {
+            add(node);
+        }
     }
 
     /**
@@ -85,44 +170,93 @@ public class HyperGraph {
      * @param node node which should be deleted.
      */
     public void delete(Node node) {
-        nodes.remove(node.getId());
+        if (store.removeNode(node.getId())) {
+            countLabel(node.getLabelId(), -1);
+            if (delta != null) delta.nodeRemoved(node);
+        }
     }
 
     /**
      * Deletes an edge from the graph.
      * @param edge edge which should be deleted.
      */
-    public void delete(SimpleEdge edge) {
-        edges.remove(edge.getId());
+    public void delete(Edge edge) {
+        if (store.removeEdge(edge.getId()) && delta != null) {
+            delta.edgeRemoved(edge);
+        }
+    }
+
+    /**
+     * Deletes edges from the graph, which is faster than deleting them one by one if the store supports it.
+     * @param edges edges which should be deleted.
+     * @see GraphStore#removeEdges(int[])
+     */
+    public void deleteAll(Collection<? extends Edge> edges) {
+        int[] edgeIds = new int[edges.size()];
+        int i = 0;
+        Map<Integer, Edge> storedEdges = store.getEdges();
+        for (Edge edge : edges) {
+            if (delta != null && storedEdges.containsKey(edge.getId())) {
+                delta.edgeRemoved(edge);
+            }
+            edgeIds[i++] = edge.getId();
+        }
+        store.removeEdges(edgeIds);
+    }
+
+    /**
+     * Sets the delta which records all following changes of the graph.
+     * @param delta the delta which records the changes, null to stop the recording.
+     */
+    public void recordChanges(GraphDelta delta) {
+        this.delta = delta;
     }
 
     /**
      * Getter for all nodes.
+     *
+     * The map is read only, nodes must be added and deleted via add and delete.
      * @return all nodes of the graph.
      */
-    public HashMap<Integer, Node> getAllNodes() {
-        return nodes;
+    public Map<Integer, Node> getAllNodes() {
+        return store.getNodes();
     }
 
     /**
      * Getter for all edges.
+     *
+     * The map is read only, edges must be added and deleted via add and delete.
      * @return all edges of the graph.
      */
-    public HashMap<Integer, Edge> getAllEdges() {
-        return edges;
+    public Map<Integer, Edge> getAllEdges() {
+        return store.getEdges();
+    }
+
+    /**
+     * Getter for the id allocator of the graph.
+     *
+     * New nodes and edges of the graph get their ids from this allocator, and new non terminals their numbers.
+     * @return the allocator for the ids of the graph.
+     */
+    public IdAllocator getIdAllocator() {
+        return ids;
+    }
+
+    /**
+     * Getter for the store of the graph.
+     * @return the store which holds the nodes and edges of the graph.
+     */
+    public GraphStore getStore() {
+        return store;
     }
 
     public String toString() {
-        String string = "HyperGraph: Nodesize: " + nodes.size() + ", Edgesize: " + edges.size() + "\n";
-        for (Entry<Integer, Node> entry : nodes.entrySet()) {
+        String string = "HyperGraph: Nodesize: " + getAllNodes().size() + ", Edgesize: " + getAllEdges().size() + "\n";
+        for (Entry<Integer, Node> entry : getAllNodes().entrySet()) {
             Node node = entry.getValue();
             string += "Node " + node.toString() + ": ";
-            for (Entry<Integer, Edge> entry2 : edges.entrySet()) {
-                Edge edge = entry2.getValue();
-                if (edge instanceof SimpleEdge && ((SimpleEdge) edge).getStartnode().getId() == node.getId()) {
-                    string += ((SimpleEdge) edge).getEndnode().toString() + ", ";
-                }
-
+            for (SimpleEdge edge : getOutgoingEdges(node)) {
+                string += edge.getEndnode().toString() + ", ";
             }
             string += "\n";
         }
@@ -132,25 +266,46 @@ public class HyperGraph {
 
     /**
      * Clones the current graph.
+     *
+     * The clone shares the id allocator with the current graph.
      * @return cloned graph of the current graph.
      */
     public HyperGraph clone() {
-        return new HyperGraph((HashMap<Integer, Node>) getAllNodes().clone(), (HashMap<Integer, Edge>) getAllEdges().clone());
+        return new HyperGraph(store.copy(), labelCounts.clone(), (BitSet) duplicatedLabels.clone(), ids);
     }
 
     /**
      * Getter for all incident edges of a node.
+     *
+     * The incoming edges are listed before the outgoing edges and a loop is listed only once.
      * @param node the node for which the request is to be executed.
      * @return all incident edges of the node.
      */
     public LinkedList<SimpleEdge> getAllIncidentEdges(Node node) {
-        LinkedList<SimpleEdge> edges = new LinkedList<>();
-        for (Entry<Integer, Edge> entry : getAllEdges().entrySet()) {
-            SimpleEdge edge = (SimpleEdge) entry.getValue();
-            if (edge.getStartnode().equals(node) || edge.getEndnode().equals(node)) {
+        LinkedList<SimpleEdge> edges = new LinkedList<>(getIncomingEdges(node));
+        for (SimpleEdge edge : getOutgoingEdges(node)) {
+            if (!edge.getEndnode().equals(node)) {
                 edges.add(edge);
             }
         }
         return edges;
     }
+
+    /**
+     * Getter for all simple edges which end in the node.
+     * @param node the node for which the request is to be executed.
+     * @return the incoming edges of the node.
+     */
+    public List<SimpleEdge> getIncomingEdges(Node node) {
+        return store.getIncomingEdges(node.getId());
+    }
+
+    /**
+     * Getter for all simple edges which start in the node.
+     * @param node the node for which the request is to be executed.
+     * @return the outgoing edges of the node.
+     */
+    public List<SimpleEdge> getOutgoingEdges(Node node) {
+        return store.getOutgoingEdges(node.getId());
+    }
 }
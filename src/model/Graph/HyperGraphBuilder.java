@@ -0,0 +1,99 @@
+package model.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is a class for a GraphSink which collects the nodes and edges and builds a HyperGraph from them.
+ *
+ * The nodes keep their ids, so the ids should be dense. The edges get new ids in the order in which they were given,
+ * which may differ between two runs if the sink is used concurrently.
+ */
+public class HyperGraphBuilder implements GraphSink {
+
+    /**
+     * the store for the nodes and edges of the built graph.
+     */
+    private final GraphStore store;
+
+    /**
+     * the label id of each node id, -1 for a missing node.
+     */
+    private int[] nodeLabels = new int[16];
+
+    /**
+     * the label id, start node ids and end node ids of each edge.
+     */
+    private final List<Object[]> edges = new ArrayList<>();
+
+    /**
+     * Constructor of HyperGraphBuilder, the graph is built in a HashGraphStore.
+     */
+    public HyperGraphBuilder() {
+        this(new HashGraphStore());
+    }
+
+    /**
+     * Constructor of HyperGraphBuilder.
+     * @param store the empty store for the nodes and edges of the built graph.
+     */
+    public HyperGraphBuilder(GraphStore store) {
+        this.store = store;
+        Arrays.fill(nodeLabels, -1);
+    }
+
+    @Override
+    public synchronized void addNode(int nodeId, int labelId) {
+        if (nodeId >= nodeLabels.length) {
+            int length = nodeLabels.length;
+            nodeLabels = Arrays.copyOf(nodeLabels, Math.max(2 * length, nodeId + 1));
+            Arrays.fill(nodeLabels, length, nodeLabels.length, -1);
+        }
+        nodeLabels[nodeId] = labelId;
+    }
+
+    @Override
+    public synchronized void addEdge(int labelId, int[] startNodeIds, int[] endNodeIds) {
+        edges.add(new Object[]{labelId, startNodeIds, endNodeIds});
+    }
+
+    /**
+     * Builds the graph from all nodes and edges which were given so far.
+     * @return the new graph.
+     * @throws IllegalStateException if an edge has a node which was not given.
+     */
+    public synchronized HyperGraph getGraph() {
+        HyperGraph graph = new HyperGraph(store);
+        Node[] nodes = new Node[nodeLabels.length];
+        for (int id = 0; id < nodeLabels.length; id++) {
+            if (nodeLabels[id] >= 0) {
+                nodes[id] = new Node(id, nodeLabels[id]);
+                graph.add(nodes[id]);
+            }
+        }
+        IdAllocator ids = graph.getIdAllocator();
+        for (Object[] edge : edges) {
+            int labelId = (Integer) edge[0];
+            Node[] startNodes = getNodes(nodes, (int[]) edge[1]);
+            Node[] endNodes = getNodes(nodes, (int[]) edge[2]);
+            if (labelId < 0) {
+                graph.add(new SimpleEdge(ids, startNodes[0], endNodes[0]));
+            } else {
+                graph.add(new HyperEdge(ids.nextEdgeId(), startNodes, endNodes, labelId));
+            }
+        }
+        return graph;
+    }
+
+    private static Node[] getNodes(Node[] nodes, int[] nodeIds) {
+        Node[] result = new Node[nodeIds.length];
+        for (int i = 0; i < nodeIds.length; i++) {
+            if (nodeIds[i] >= nodes.length || nodes[nodeIds[i]] == null) {
+                throw new IllegalStateException("missing node " + nodeIds[i]);
+            }
+            result[i] = nodes[nodeIds[i]];
+        }
+        return result;
+    }
+}
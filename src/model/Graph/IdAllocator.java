@@ -0,0 +1,100 @@
+package model.Graph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is a class for the allocation of the identifiers of a graph.
+ *
+ * Each HyperGraph owns an IdAllocator, which hands out dense node ids, edge ids and the numbers of the non terminals.
+ * Because the ids start at 0 for each graph, they can be used as indices of arrays. Explicitly given ids are reserved
+ * when the element is added to the graph, so the allocated ids never collide with them.
+ *
+ * @see HyperGraph
+ */
+public class IdAllocator {
+
+    /**
+     * the next free node id.
+     */
+    private final AtomicInteger nextNodeId = new AtomicInteger();
+
+    /**
+     * the next free edge id.
+     */
+    private final AtomicInteger nextEdgeId = new AtomicInteger();
+
+    /**
+     * the number of the next non terminal.
+     */
+    private final AtomicInteger nextNonterminal = new AtomicInteger();
+
+    /**
+     * Allocates a new node id.
+     * @return the new node id.
+     */
+    public int nextNodeId() {
+        return nextNodeId.getAndIncrement();
+    }
+
+    /**
+     * Allocates a new edge id.
+     * @return the new edge id.
+     */
+    public int nextEdgeId() {
+        return nextEdgeId.getAndIncrement();
+    }
+
+    /**
+     * Allocates the number of a new non terminal. The numbers increase in the order of the replacements, so a
+     * compression of the same graph gets the same non terminals regardless of the compressions which ran before.
+     * @return the new non terminal number.
+     */
+    public int nextNonterminal() {
+        return nextNonterminal.getAndIncrement();
+    }
+
+    /**
+     * Allocates a block of consecutive node ids.
+     * @param count the number of node ids.
+     * @return the first node id of the block.
+     */
+    public int nextNodeIds(int count) {
+        return nextNodeId.getAndAdd(count);
+    }
+
+    /**
+     * Reserves a node id, so that it will not be allocated.
+     * @param id the node id which is used.
+     */
+    public void reserveNodeId(int id) {
+        if (id >= nextNodeId.get()) {
+            nextNodeId.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    /**
+     * Reserves an edge id, so that it will not be allocated.
+     * @param id the edge id which is used.
+     */
+    public void reserveEdgeId(int id) {
+        if (id >= nextEdgeId.get()) {
+            nextEdgeId.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    /**
+     * Getter for the upper bound of all node ids.
+     * @return a number which is greater than all allocated and reserved node ids.
+     */
+    public int getNodeIdBound() {
+        return nextNodeId.get();
+    }
+
+    /**
+     * Getter for the upper bound of all edge ids.
+     * @return a number which is greater than all allocated and reserved edge ids.
+     */
+    public int getEdgeIdBound() {
+        return nextEdgeId.get();
+    }
+}
@@ -0,0 +1,745 @@
+package model.Graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This is a GraphStore which keeps the graph in memory-mapped files, so that graphs larger than the heap can be compressed.
+ *
+ * The nodes and edges are stored as fixed-width int records in two files, which are indexed by the ids. A node record
+ * holds the label and the heads of the outgoing and incoming edges, an edge record holds the start node, the end node,
+ * the two equivalence classes, the label and the next edges of the two adjacency chains. Deleted edges are skipped in
+ * the chains until they are rebuilt. Only the counters, the labels in the LabelDictionary and the hyperedges with more
+ * than one start node or end node are held in the heap, the Node and Edge objects are created on demand. The digram
+ * search reads the records by the ids and creates no objects, see {@link GraphStore#getIncidentEdgeIds(int)}.
+ * The digram lists are still held in the heap. They index the occurrences by the edge ids in primitive arrays, but the
+ * possible occurrences of the first search take a few hundred bytes per edge, so the heap and not the files limits
+ * the size of a graph which can be compressed.
+ *
+ * Because the records are indexed by the ids, the ids of the graph should be dense, see {@link IdAllocator}.
+ */
+public class MappedGraphStore implements GraphStore, Closeable {
+
+    /**
+     * marks a missing label or edge. The values of the records, except for the flags, are stored with an offset of one,
+     * so that the zeros of a new file are NONE.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * the number of ints of a node record and the positions of its fields.
+     */
+    private static final int NODE_RECORD = 4, NODE_LABEL = 0, NODE_FLAGS = 1, NODE_OUT_HEAD = 2, NODE_IN_HEAD = 3;
+
+    /**
+     * the number of ints of an edge record and the positions of its fields.
+     */
+    private static final int EDGE_RECORD = 8, EDGE_START = 0, EDGE_END = 1, EDGE_EQ_START = 2, EDGE_EQ_END = 3,
+            EDGE_LABEL = 4, EDGE_NEXT_OUT = 5, EDGE_NEXT_IN = 6, EDGE_FLAGS = 7;
+
+    /**
+     * the flag of a node or an edge which is contained in the graph.
+     */
+    private static final int LIVE = 1;
+
+    /**
+     * the flag of an edge which is contained in the adjacency chains.
+     */
+    private static final int LINKED = 2;
+
+    /**
+     * the minimal number of deleted edges in the chains after which the chains are rebuilt.
+     */
+    private static final int MIN_CHANGES_FOR_COMPACTION = 1024;
+
+    /**
+     * the directory of the files.
+     */
+    private final Path directory;
+
+    /**
+     * the node records.
+     */
+    private final MappedIntArray nodes;
+
+    /**
+     * the edge records.
+     */
+    private final MappedIntArray edges;
+
+    /**
+     * the hyperedges with more than one start node or end node.
+     */
+    private final HashMap<Integer, Edge> hyperEdges;
+
+    /**
+     * a number which is greater than all stored node ids and edge ids.
+     */
+    private int nodeBound, edgeBound;
+
+    /**
+     * the number of nodes and of the edges which are stored in the records.
+     */
+    private int numNodes, numStoredEdges;
+
+    /**
+     * the number of simple edges of the graph.
+     */
+    private int numSimpleEdges;
+
+    /**
+     * the number of deleted edges which are still contained in the chains.
+     */
+    private int numDeletedLinks;
+
+    /**
+     * Empty constructor of MappedGraphStore, the files are created in a new temporary directory.
+     */
+    public MappedGraphStore() {
+        this(createTempDirectory());
+    }
+
+    /**
+     * Constructor of MappedGraphStore.
+     * @param directory the directory in which the files of the store are created.
+     */
+    public MappedGraphStore(Path directory) {
+        this.directory = directory;
+        nodes = new MappedIntArray(directory.resolve("nodes.bin"));
+        edges = new MappedIntArray(directory.resolve("edges.bin"));
+        hyperEdges = new HashMap<>();
+    }
+
+    /**
+     * Creates a temporary directory for the files of a store.
+     * @return the new directory.
+     */
+    private static Path createTempDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("graphstore");
+            directory.toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean addNode(Node node) {
+        storeNodeLabel(node);
+        int flags = getNodeFlags(node.getId());
+        if ((flags & LIVE) != 0) {
+            return false;
+        }
+        setNodeFlags(node.getId(), flags | LIVE);
+        numNodes++;
+        return true;
+    }
+
+    @Override
+    public void addEdge(Edge edge) {
+        if (edge instanceof SimpleEdge) {
+            SimpleEdge simpleEdge = (SimpleEdge) edge;
+            storeEdge(edge.getId(), simpleEdge.getStartnode(), simpleEdge.getStartEquivalenceClass(),
+                    simpleEdge.getEndnode(), simpleEdge.getEndEquivalenceClass(), NONE);
+        } else {
+            HyperEdge hyperEdge = (HyperEdge) edge;
+            if (hyperEdge.getStartnodes().length == 1 && hyperEdge.getEndnodes().length == 1) {
+                storeEdge(edge.getId(), hyperEdge.getStartnodes()[0], 1, hyperEdge.getEndnodes()[0], 1, hyperEdge.getLabelId());
+            } else {
+                hyperEdges.put(edge.getId(), edge);
+            }
+        }
+    }
+
+    /**
+     * Stores the values of an edge in its record and links a simple edge into the chains of its nodes.
+     * @param id the id of the edge.
+     * @param startnode the start node of the edge.
+     * @param eqStart the equivalence class of the start node.
+     * @param endnode the end node of the edge.
+     * @param eqEnd the equivalence class of the end node.
+     * @param label the label id of the edge, NONE for a simple edge.
+     */
+    private void storeEdge(int id, Node startnode, int eqStart, Node endnode, int eqEnd, int label) {
+        edges.ensureCapacity((long) id * EDGE_RECORD + EDGE_RECORD - 1);
+        edgeBound = Math.max(edgeBound, id + 1);
+        storeNodeLabel(startnode);
+        storeNodeLabel(endnode);
+        int flags = getEdgeFlags(id);
+        if ((flags & LIVE) != 0) {
+            removeEdge(id);
+            flags = getEdgeFlags(id);
+        }
+        if ((flags & LINKED) != 0 && (label != NONE || getEdgeField(id, EDGE_START) != startnode.getId()
+                || getEdgeField(id, EDGE_END) != endnode.getId())) {
+            // the old values of the edge are still linked, so the chains are rebuilt before they are changed
+            rebuildChains();
+            flags = getEdgeFlags(id);
+        }
+        setEdgeField(id, EDGE_START, startnode.getId());
+        setEdgeField(id, EDGE_END, endnode.getId());
+        setEdgeField(id, EDGE_EQ_START, eqStart);
+        setEdgeField(id, EDGE_EQ_END, eqEnd);
+        setEdgeField(id, EDGE_LABEL, label);
+        numStoredEdges++;
+
+        if (label != NONE) {
+            setEdgeFlags(id, LIVE);
+            return;
+        }
+        numSimpleEdges++;
+        if ((flags & LINKED) != 0) {
+            // the edge is still contained in the chains of its nodes
+            numDeletedLinks--;
+        } else {
+            link(id);
+        }
+        setEdgeFlags(id, LIVE | LINKED);
+    }
+
+    /**
+     * Links an edge into the chain of the outgoing edges of its start node and of the incoming edges of its end node.
+     * @param id the id of the edge.
+     */
+    private void link(int id) {
+        int startnode = getEdgeField(id, EDGE_START);
+        int endnode = getEdgeField(id, EDGE_END);
+        setEdgeField(id, EDGE_NEXT_OUT, getNodeField(startnode, NODE_OUT_HEAD));
+        setNodeField(startnode, NODE_OUT_HEAD, id);
+        setEdgeField(id, EDGE_NEXT_IN, getNodeField(endnode, NODE_IN_HEAD));
+        setNodeField(endnode, NODE_IN_HEAD, id);
+    }
+
+    /**
+     * Stores the label of a node. The label is kept after the node is removed, because edges may still refer to it.
+     * @param node the node for which the label is stored.
+     */
+    private void storeNodeLabel(Node node) {
+        nodes.ensureCapacity((long) node.getId() * NODE_RECORD + NODE_RECORD - 1);
+        nodeBound = Math.max(nodeBound, node.getId() + 1);
+        setNodeField(node.getId(), NODE_LABEL, node.getLabelId());
+    }
+
+    @Override
+    public boolean removeNode(int nodeId) {
+        if (nodeId < 0 || nodeId >= nodeBound) {
+            return false;
+        }
+        int flags = getNodeFlags(nodeId);
+        if ((flags & LIVE) == 0) {
+            return false;
+        }
+        setNodeFlags(nodeId, flags & ~LIVE);
+        numNodes--;
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(int edgeId) {
+        if (hyperEdges.remove(edgeId) != null) {
+            return true;
+        }
+        if (!isStoredEdge(edgeId)) {
+            return false;
+        }
+        int flags = getEdgeFlags(edgeId);
+        setEdgeFlags(edgeId, flags & ~LIVE);
+        numStoredEdges--;
+        if (getEdgeField(edgeId, EDGE_LABEL) == NONE) {
+            numSimpleEdges--;
+            numDeletedLinks++;
+            if (numDeletedLinks > Math.max(MIN_CHANGES_FOR_COMPACTION, numSimpleEdges)) {
+                rebuildChains();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the chains of the incident edges for all current simple edges.
+     */
+    public void rebuildChains() {
+        for (int node = 0; node < nodeBound; node++) {
+            setNodeField(node, NODE_OUT_HEAD, NONE);
+            setNodeField(node, NODE_IN_HEAD, NONE);
+        }
+        for (int edge = edgeBound - 1; edge >= 0; edge--) {
+            int flags = getEdgeFlags(edge);
+            if ((flags & LIVE) != 0 && getEdgeField(edge, EDGE_LABEL) == NONE) {
+                link(edge);
+                setEdgeFlags(edge, LIVE | LINKED);
+            } else {
+                setEdgeFlags(edge, flags & ~LINKED);
+            }
+        }
+        numDeletedLinks = 0;
+    }
+
+    @Override
+    public Map<Integer, Node> getNodes() {
+        return new NodeMap();
+    }
+
+    @Override
+    public Map<Integer, Edge> getEdges() {
+        return new EdgeMap();
+    }
+
+    @Override
+    public List<SimpleEdge> getIncomingEdges(int nodeId) {
+        return getIncidentEdges(nodeId, NODE_IN_HEAD, EDGE_NEXT_IN);
+    }
+
+    @Override
+    public List<SimpleEdge> getOutgoingEdges(int nodeId) {
+        return getIncidentEdges(nodeId, NODE_OUT_HEAD, EDGE_NEXT_OUT);
+    }
+
+    /**
+     * Collects the current incident edges of a node out of its chain.
+     * @param nodeId the id of the node.
+     * @param head the field of the node record with the head of the chain.
+     * @param next the field of the edge records with the next edge of the chain.
+     * @return the incident edges of the node.
+     */
+    private List<SimpleEdge> getIncidentEdges(int nodeId, int head, int next) {
+        List<SimpleEdge> incidentEdges = new ArrayList<>();
+        if (nodeId < 0 || nodeId >= nodeBound) {
+            return incidentEdges;
+        }
+        for (int edge = getNodeField(nodeId, head); edge != NONE; edge = getEdgeField(edge, next)) {
+            if ((getEdgeFlags(edge) & LIVE) != 0) {
+                incidentEdges.add((SimpleEdge) createEdge(edge));
+            }
+        }
+        return incidentEdges;
+    }
+
+    @Override
+    public int[] getNodeIds() {
+        int[] nodeIds = new int[numNodes];
+        int i = 0;
+        for (int node = 0; node < nodeBound; node++) {
+            if (isLiveNode(node)) {
+                nodeIds[i++] = node;
+            }
+        }
+        return nodeIds;
+    }
+
+    @Override
+    public int[] getEdgeIds() {
+        int[] edgeIds = new int[numStoredEdges + hyperEdges.size()];
+        int i = 0;
+        for (int edge = 0; edge < edgeBound; edge++) {
+            if (isStoredEdge(edge)) {
+                edgeIds[i++] = edge;
+            }
+        }
+        for (int edgeId : hyperEdges.keySet()) {
+            edgeIds[i++] = edgeId;
+        }
+        return edgeIds;
+    }
+
+    @Override
+    public int getNodeLabelId(int nodeId) {
+        return getNodeField(nodeId, NODE_LABEL);
+    }
+
+    @Override
+    public boolean isSimpleEdge(int edgeId) {
+        return isStoredEdge(edgeId) && getEdgeField(edgeId, EDGE_LABEL) == NONE;
+    }
+
+    @Override
+    public int getStartNodeId(int edgeId) {
+        return getEdgeField(edgeId, EDGE_START);
+    }
+
+    @Override
+    public int getEndNodeId(int edgeId) {
+        return getEdgeField(edgeId, EDGE_END);
+    }
+
+    @Override
+    public int getStartEquivalenceClass(int edgeId) {
+        return getEdgeField(edgeId, EDGE_EQ_START);
+    }
+
+    @Override
+    public int getEndEquivalenceClass(int edgeId) {
+        return getEdgeField(edgeId, EDGE_EQ_END);
+    }
+
+    @Override
+    public int[] getIncidentEdgeIds(int nodeId) {
+        if (nodeId < 0 || nodeId >= nodeBound) {
+            return new int[0];
+        }
+        int numIncoming = collectEdgeIds(nodeId, NODE_IN_HEAD, EDGE_NEXT_IN, false, null, 0);
+        int size = collectEdgeIds(nodeId, NODE_OUT_HEAD, EDGE_NEXT_OUT, true, null, numIncoming);
+        int[] edgeIds = new int[size];
+        collectEdgeIds(nodeId, NODE_IN_HEAD, EDGE_NEXT_IN, false, edgeIds, 0);
+        collectEdgeIds(nodeId, NODE_OUT_HEAD, EDGE_NEXT_OUT, true, edgeIds, numIncoming);
+        return edgeIds;
+    }
+
+    /**
+     * Collects the ids of the current incident edges of a node out of its chain.
+     * @param head the field of the node record with the head of the chain.
+     * @param next the field of the edge records with the next edge of the chain.
+     * @param skipLoops true if the loops of the node are skipped.
+     * @param edgeIds the array into which the ids are written, null if they are only counted.
+     * @param size the number of ids in the array before.
+     * @return the number of ids in the array afterwards.
+     */
+    private int collectEdgeIds(int nodeId, int head, int next, boolean skipLoops, int[] edgeIds, int size) {
+        for (int edge = getNodeField(nodeId, head); edge != NONE; edge = getEdgeField(edge, next)) {
+            if ((getEdgeFlags(edge) & LIVE) == 0 || skipLoops && getEdgeField(edge, EDGE_START) == nodeId
+                    && getEdgeField(edge, EDGE_END) == nodeId) {
+                continue;
+            }
+            if (edgeIds != null) {
+                edgeIds[size] = edge;
+            }
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether an edge is stored in the records.
+     * @param edgeId the id of the edge.
+     * @return true if the edge is stored in the records and not deleted, else false.
+     */
+    private boolean isStoredEdge(int edgeId) {
+        return edgeId >= 0 && edgeId < edgeBound && (getEdgeFlags(edgeId) & LIVE) != 0;
+    }
+
+    /**
+     * Checks whether a node is contained in the graph.
+     * @param nodeId the id of the node.
+     * @return true if the node is contained, else false.
+     */
+    private boolean isLiveNode(int nodeId) {
+        return nodeId >= 0 && nodeId < nodeBound && (getNodeFlags(nodeId) & LIVE) != 0;
+    }
+
+    /**
+     * Creates the object for a node of the store.
+     * @param nodeId the id of the node.
+     * @return the node object.
+     */
+    private Node createNode(int nodeId) {
+        return new Node(nodeId, getNodeField(nodeId, NODE_LABEL));
+    }
+
+    /**
+     * Creates the object for an edge which is stored in the records.
+     * @param edgeId the id of the edge.
+     * @return the edge object.
+     */
+    private Edge createEdge(int edgeId) {
+        Node startnode = createNode(getEdgeField(edgeId, EDGE_START));
+        Node endnode = createNode(getEdgeField(edgeId, EDGE_END));
+        int label = getEdgeField(edgeId, EDGE_LABEL);
+        if (label == NONE) {
+            return new SimpleEdge(edgeId, startnode, getEdgeField(edgeId, EDGE_EQ_START), endnode,
+                    getEdgeField(edgeId, EDGE_EQ_END));
+        }
+        return new HyperEdge(edgeId, new Node[]{startnode}, new Node[]{endnode}, label);
+    }
+
+    /**
+     * Getter for the flags of a node record.
+     * @param nodeId the id of the node.
+     * @return the flags of the node.
+     */
+    private int getNodeFlags(int nodeId) {
+        return nodes.get((long) nodeId * NODE_RECORD + NODE_FLAGS);
+    }
+
+    /**
+     * Setter for the flags of a node record.
+     * @param nodeId the id of the node.
+     * @param flags the new flags of the node.
+     */
+    private void setNodeFlags(int nodeId, int flags) {
+        nodes.set((long) nodeId * NODE_RECORD + NODE_FLAGS, flags);
+    }
+
+    /**
+     * Getter for the flags of an edge record.
+     * @param edgeId the id of the edge.
+     * @return the flags of the edge.
+     */
+    private int getEdgeFlags(int edgeId) {
+        return edges.get((long) edgeId * EDGE_RECORD + EDGE_FLAGS);
+    }
+
+    /**
+     * Setter for the flags of an edge record.
+     * @param edgeId the id of the edge.
+     * @param flags the new flags of the edge.
+     */
+    private void setEdgeFlags(int edgeId, int flags) {
+        edges.set((long) edgeId * EDGE_RECORD + EDGE_FLAGS, flags);
+    }
+
+    /**
+     * Getter for a field of a node record.
+     * @param nodeId the id of the node.
+     * @param field the position of the field.
+     * @return the value of the field.
+     */
+    private int getNodeField(int nodeId, int field) {
+        return nodes.get((long) nodeId * NODE_RECORD + field) - 1;
+    }
+
+    /**
+     * Setter for a field of a node record.
+     * @param nodeId the id of the node.
+     * @param field the position of the field.
+     * @param value the new value of the field.
+     */
+    private void setNodeField(int nodeId, int field, int value) {
+        nodes.set((long) nodeId * NODE_RECORD + field, value + 1);
+    }
+
+    /**
+     * Getter for a field of an edge record.
+     * @param edgeId the id of the edge.
+     * @param field the position of the field.
+     * @return the value of the field.
+     */
+    private int getEdgeField(int edgeId, int field) {
+        return edges.get((long) edgeId * EDGE_RECORD + field) - 1;
+    }
+
+    /**
+     * Setter for a field of an edge record.
+     * @param edgeId the id of the edge.
+     * @param field the position of the field.
+     * @param value the new value of the field.
+     */
+    private void setEdgeField(int edgeId, int field, int value) {
+        edges.set((long) edgeId * EDGE_RECORD + field, value + 1);
+    }
+
+    /**
+     * Copies the store into new files in a new temporary directory. The copy must be closed on its own.
+     * @return the copy of the store.
+     */
+    @Override
+    public GraphStore copy() {
+        MappedGraphStore copy = new MappedGraphStore();
+        nodes.copyTo(copy.nodes, (long) nodeBound * NODE_RECORD);
+        edges.copyTo(copy.edges, (long) edgeBound * EDGE_RECORD);
+        copy.hyperEdges.putAll(hyperEdges);
+        copy.nodeBound = nodeBound;
+        copy.edgeBound = edgeBound;
+        copy.numNodes = numNodes;
+        copy.numStoredEdges = numStoredEdges;
+        copy.numSimpleEdges = numSimpleEdges;
+        copy.numDeletedLinks = numDeletedLinks;
+        return copy;
+    }
+
+    @Override
+    public GraphStore newInstance() {
+        return new MappedGraphStore();
+    }
+
+    /**
+     * Closes and deletes the files of the store. The store must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        nodes.close();
+        edges.close();
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // the directory is not empty, so it was not created by the store
+        }
+    }
+
+    /**
+     * A read only view of the nodes of the store.
+     */
+    private class NodeMap extends AbstractMap<Integer, Node> {
+
+        @Override
+        public Node get(Object key) {
+            return containsKey(key) ? createNode((Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && isLiveNode((Integer) key);
+        }
+
+        @Override
+        public int size() {
+            return numNodes;
+        }
+
+        @Override
+        public Set<Entry<Integer, Node>> entrySet() {
+            return new AbstractSet<Entry<Integer, Node>>() {
+                @Override
+                public Iterator<Entry<Integer, Node>> iterator() {
+                    return new RecordIterator<Node>(nodeBound) {
+                        @Override
+                        boolean isLive(int id) {
+                            return isLiveNode(id);
+                        }
+
+                        @Override
+                        Node create(int id) {
+                            return createNode(id);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return NodeMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * A read only view of the edges of the store.
+     */
+    private class EdgeMap extends AbstractMap<Integer, Edge> {
+
+        @Override
+        public Edge get(Object key) {
+            if (!(key instanceof Integer)) return null;
+            if (isStoredEdge((Integer) key)) return createEdge((Integer) key);
+            return hyperEdges.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return numStoredEdges + hyperEdges.size();
+        }
+
+        @Override
+        public Set<Entry<Integer, Edge>> entrySet() {
+            return new AbstractSet<Entry<Integer, Edge>>() {
+                @Override
+                public Iterator<Entry<Integer, Edge>> iterator() {
+                    Iterator<Entry<Integer, Edge>> storedEdges = new RecordIterator<Edge>(edgeBound) {
+                        @Override
+                        boolean isLive(int id) {
+                            return isStoredEdge(id);
+                        }
+
+                        @Override
+                        Edge create(int id) {
+                            return createEdge(id);
+                        }
+                    };
+                    Iterator<Entry<Integer, Edge>> objectEdges = hyperEdges.entrySet().iterator();
+                    return new Iterator<Entry<Integer, Edge>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return storedEdges.hasNext() || objectEdges.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Integer, Edge> next() {
+                            return storedEdges.hasNext() ? storedEdges.next() : objectEdges.next();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return EdgeMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * An iterator over the ids of the live records which creates the objects for the ids.
+     * @param <V> the type of the created objects.
+     */
+    private abstract static class RecordIterator<V> implements Iterator<Entry<Integer, V>> {
+
+        /**
+         * a number which is greater than all ids of the records.
+         */
+        private final int bound;
+
+        /**
+         * the next id, bound if there is none.
+         */
+        private int nextId = -1;
+
+        RecordIterator(int bound) {
+            this.bound = bound;
+        }
+
+        /**
+         * Checks whether the record of an id is live.
+         * @param id the id.
+         * @return true if the record is live, else false.
+         */
+        abstract boolean isLive(int id);
+
+        /**
+         * Creates the object for an id.
+         * @param id the id.
+         * @return the object for the id.
+         */
+        abstract V create(int id);
+
+        /**
+         * Moves nextId to the next live record.
+         */
+        private void advance() {
+            do {
+                nextId++;
+            } while (nextId < bound && !isLive(nextId));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextId < 0) advance();
+            return nextId < bound;
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int id = nextId;
+            advance();
+            return new AbstractMap.SimpleImmutableEntry<>(id, create(id));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package model.Graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a class for a growable int array which is held in a memory-mapped file.
+ *
+ * The file is mapped in segments of a fixed size, because a single mapping is limited to 2 GB. New files are filled
+ * with zeros, so all entries are 0 until they are set. The data is held by the page cache of the operating system and
+ * not by the heap of the JVM.
+ *
+ * @see MappedGraphStore
+ */
+class MappedIntArray implements Closeable {
+
+    /**
+     * the number of ints of a segment as a power of two.
+     */
+    private static final int SEGMENT_SHIFT = 22;
+
+    /**
+     * the number of ints of a segment.
+     */
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    /**
+     * the file of the array.
+     */
+    private final Path file;
+
+    /**
+     * the channel of the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * the mapped segments of the file.
+     */
+    private final List<IntBuffer> segments = new ArrayList<>();
+
+    /**
+     * Constructor of MappedIntArray.
+     *
+     * The file is deleted when the array is closed, or else when the JVM terminates.
+     * @param file the file of the array, which is created or emptied.
+     */
+    MappedIntArray(Path file) {
+        this.file = file;
+        file.toFile().deleteOnExit();
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Getter for an entry.
+     * @param index the index of the entry, which must be less than the capacity.
+     * @return the value of the entry.
+     */
+    int get(long index) {
+        return segments.get((int) (index >>> SEGMENT_SHIFT)).get((int) (index & (SEGMENT_SIZE - 1)));
+    }
+
+    /**
+     * Setter for an entry.
+     * @param index the index of the entry, which must be less than the capacity.
+     * @param value the new value of the entry.
+     */
+    void set(long index, int value) {
+        segments.get((int) (index >>> SEGMENT_SHIFT)).put((int) (index & (SEGMENT_SIZE - 1)), value);
+    }
+
+    /**
+     * Getter for the number of entries which can be accessed.
+     * @return the capacity of the array.
+     */
+    long capacity() {
+        return (long) segments.size() << SEGMENT_SHIFT;
+    }
+
+    /**
+     * Maps new segments until the array can hold the entry with the index.
+     * @param index the index of the entry.
+     */
+    void ensureCapacity(long index) {
+        while (index >= capacity()) {
+            long position = capacity() * Integer.BYTES;
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_SIZE * Integer.BYTES);
+                segments.add(buffer.order(ByteOrder.nativeOrder()).asIntBuffer());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Copies the first entries of this array into another array.
+     * @param other the array which gets the entries.
+     * @param length the number of copied entries.
+     */
+    void copyTo(MappedIntArray other, long length) {
+        other.ensureCapacity(Math.max(length - 1, 0));
+        for (int segment = 0; (long) segment << SEGMENT_SHIFT < length; segment++) {
+            IntBuffer source = segments.get(segment).duplicate();
+            source.position(0).limit((int) Math.min(SEGMENT_SIZE, length - ((long) segment << SEGMENT_SHIFT)));
+            IntBuffer target = other.segments.get(segment).duplicate();
+            target.position(0);
+            target.put(source);
+        }
+    }
+
+    /**
+     * Closes the file and deletes it. The array must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        segments.clear();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
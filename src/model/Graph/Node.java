@@ -1,5 +1,7 @@
 package model.Graph;
 
+import model.LabelDictionary;
+
 /**
  * This is a class for a Node called Node.
  *
@@ -10,14 +12,9 @@ package model.Graph;
 public class Node {
 
     /**
-     * counter for the identifiers of the nodes.
+     * label id of the node.
      */
-    private static  int idCounter=0;
-
-    /**
-     * label of the node.
-     */
-    private final String label;
+    private final int labelId;
 
     /**
      * id of the node.
@@ -26,11 +23,11 @@ public class Node {
 
     /**
      * Constructor of Node.
+     * @param ids the id allocator of the graph of the node.
      * @param label the label of the node.
      */
-    public Node(String label) {
-        this.label = label;
-        id = idCounter++;
+    public Node(IdAllocator ids, String label) {
+        this(ids.nextNodeId(), label);
     }
 
     /**
@@ -42,7 +39,20 @@ public class Node {
      * @param label label of the node.
      */
     public Node(int id, String label) {
-        this.label = label;
+        this(id, LabelDictionary.getId(label));
+    }
+
+    /**
+     * Constructor of Node.
+     *
+     * The identifier have to be unique.
+     *
+     * @param id identifier of the node.
+     * @param labelId id of the label of the node.
+     * @see LabelDictionary
+     */
+    public Node(int id, int labelId) {
+        this.labelId = labelId;
         this.id = id;
     }
 
@@ -51,7 +61,15 @@ public class Node {
      * @return label of the node.
      */
     public String getLabel() {
-        return label;
+        return LabelDictionary.getLabel(labelId);
+    }
+
+    /**
+     * Getter for the label id.
+     * @return id of the label of the node.
+     */
+    public int getLabelId() {
+        return labelId;
     }
 
     @Override
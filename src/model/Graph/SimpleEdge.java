@@ -38,36 +38,53 @@ public class SimpleEdge extends Edge {
     /**
      * Constructor for SimpleEdge.
      *
+     * @param ids the id allocator of the graph of the edge.
      * @param startnode the start node of the edge.
      * @param eq_start the equivalence class from the start node.
      * @param endnode the end node of the edge.
      * @param eq_end the equivalence class from the end node.
      */
-    public SimpleEdge(Node startnode, int eq_start, Node endnode, int eq_end) {
+    public SimpleEdge(IdAllocator ids, Node startnode, int eq_start, Node endnode, int eq_end) {
+        this(ids.nextEdgeId(), startnode, eq_start, endnode, eq_end);
+    }
+
+    /**
+     * Constructor for SimpleEdge with a given id.
+     *
+     * The identifier have to be unique, it is used by stores which create the edge objects on demand.
+     *
+     * @param id identifier of the edge.
+     * @param startnode the start node of the edge.
+     * @param eq_start the equivalence class from the start node.
+     * @param endnode the end node of the edge.
+     * @param eq_end the equivalence class from the end node.
+     */
+    SimpleEdge(int id, Node startnode, int eq_start, Node endnode, int eq_end) {
+        this.id = id;
         this.startnode = startnode;
         this.eq_start = eq_start;
         this.endnode = endnode;
         this.eq_end = eq_end;
-        id = idCounter++;
     }
 
     /**
      * Constructor for SimpleEdge.
      *
+     * @param ids the id allocator of the graph of the edge.
      * @param startnode the start node of the edge.
      * @param endnode the end node of the edge.
      */
-    public SimpleEdge(Node startnode, Node endnode) {
-        this(startnode,1,endnode,1);
+    public SimpleEdge(IdAllocator ids, Node startnode, Node endnode) {
+        this(ids, startnode,1,endnode,1);
     }
 
     /**
-     * Check if an internal node have the label 'label'.
-     * @param label the label for which the check is executed.
-     * @return true if an internal node of the edge have the label 'label', else false.
+     * Check if an internal node have the label with the id 'labelId'.
+     * @param labelId the label id for which the check is executed.
+     * @return true if an internal node of the edge have the label with the id 'labelId', else false.
      */
-    public boolean containsLabel(String label) {
-        return startnode.getLabel().equals(label) || endnode.getLabel().equals(label);
+    public boolean containsLabel(int labelId) {
+        return startnode.getLabelId() == labelId || endnode.getLabelId() == labelId;
     }
 
     /**
@@ -81,6 +98,22 @@ public class SimpleEdge extends Edge {
         return -1;
     }
 
+    /**
+     * Getter for the equivalence class of the start node.
+     * @return the equivalence class of the start node, also if the edge is a loop.
+     */
+    public int getStartEquivalenceClass() {
+        return eq_start;
+    }
+
+    /**
+     * Getter for the equivalence class of the end node.
+     * @return the equivalence class of the end node, also if the edge is a loop.
+     */
+    public int getEndEquivalenceClass() {
+        return eq_end;
+    }
+
     /**
      * Getter for the start node.
      * @return the start node of the edge.
@@ -101,8 +134,8 @@ public class SimpleEdge extends Edge {
     public boolean equals(Object obj) {
         if (obj instanceof SimpleEdge) {
             SimpleEdge otherEdge = (SimpleEdge) obj;
-            return startnode.getLabel().equals(otherEdge.getStartnode().getLabel()) &&
-                    endnode.getLabel().equals(otherEdge.getEndnode().getLabel()) &&
+            return startnode.getLabelId() == otherEdge.getStartnode().getLabelId() &&
+                    endnode.getLabelId() == otherEdge.getEndnode().getLabelId() &&
                     eq_start == otherEdge.eq_start &&
                     eq_end == otherEdge.eq_end;
         }
@@ -0,0 +1,498 @@
+package model.Graph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This is a GraphStore which is a lazy view of the transformation of a graph with labelled (hyper)edges.
+ *
+ * The transformation replaces each hyperedge by a node with the label of the edge, which is connected by a simple edge
+ * with each start node and each end node. This store does not create these elements. Instead the binary edges of the
+ * untransformed graph are copied into int arrays, and the nodes and simple edges of the transformation are derived
+ * from them when they are requested:
+ * <ul>
+ * <li>the nodes of the untransformed graph keep their ids,</li>
+ * <li>the node for the edge with the id e gets the id {@code nodeOffset + e},</li>
+ * <li>the simple edge from the start node to this node gets the id {@code 2e} and the simple edge from this node to
+ * the end node gets the id {@code 2e + 1}.</li>
+ * </ul>
+ * Deleted elements of the view are marked in bitsets and added elements are kept in an overlay store. Hyperedges with
+ * more than one start node or end node are transformed into the overlay when the view is created. All arrays of the
+ * view are never changed, so copies of the view share them and only copy the marks and the overlay.
+ *
+ * @see model.Graph.HyperGraph
+ */
+public class TransformedGraphStore implements GraphStore, Closeable {
+
+    /**
+     * marks a missing label.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * the id of the first node which stands for an edge of the untransformed graph.
+     */
+    private final int nodeOffset;
+
+    /**
+     * the label id of each node of the untransformed graph and of each node which stands for an edge, NONE if the
+     * node is not contained in the view.
+     */
+    private final int[] nodeLabels;
+
+    /**
+     * the start node and the end node of each binary edge of the untransformed graph.
+     */
+    private final int[] edgeStartNodes, edgeEndNodes;
+
+    /**
+     * the edges of the untransformed graph which start in each node: edges outEdges[outOffsets[n]..outOffsets[n+1]).
+     */
+    private final int[] outOffsets, outEdges;
+
+    /**
+     * the edges of the untransformed graph which end in each node: edges inEdges[inOffsets[n]..inOffsets[n+1]).
+     */
+    private final int[] inOffsets, inEdges;
+
+    /**
+     * the ids of the nodes and the simple edges of the view which are deleted.
+     */
+    private final BitSet deletedNodes, deletedEdges;
+
+    /**
+     * the number of nodes and simple edges of the view which are not deleted.
+     */
+    private int numNodes, numEdges;
+
+    /**
+     * the store for all added elements.
+     */
+    private final GraphStore overlay;
+
+    /**
+     * Constructor of TransformedGraphStore.
+     *
+     * The untransformed store is only read while the view is created, so it can be used independently afterwards.
+     * @param untransformed the store of the untransformed graph, which contains only hyperedges.
+     */
+    public TransformedGraphStore(GraphStore untransformed) {
+        int nodeBound = 0;
+        for (Integer nodeId : untransformed.getNodes().keySet()) {
+            nodeBound = Math.max(nodeBound, nodeId + 1);
+        }
+        int edgeBound = 0;
+        for (Integer edgeId : untransformed.getEdges().keySet()) {
+            edgeBound = Math.max(edgeBound, edgeId + 1);
+        }
+        nodeOffset = nodeBound;
+        nodeLabels = new int[nodeOffset + edgeBound];
+        Arrays.fill(nodeLabels, NONE);
+        edgeStartNodes = new int[edgeBound];
+        edgeEndNodes = new int[edgeBound];
+        deletedNodes = new BitSet();
+        deletedEdges = new BitSet();
+        overlay = untransformed.newInstance();
+
+        for (Node node : untransformed.getNodes().values()) {
+            nodeLabels[node.getId()] = node.getLabelId();
+        }
+        deletedEdges.set(0, 2 * edgeBound);
+        int nextOverlayEdgeId = 2 * edgeBound;
+        outOffsets = new int[nodeOffset + 1];
+        inOffsets = new int[nodeOffset + 1];
+        for (Edge edge : untransformed.getEdges().values()) {
+            HyperEdge hyperEdge = (HyperEdge) edge;
+            int id = hyperEdge.getId();
+            Node node = new Node(nodeOffset + id, hyperEdge.getLabelId());
+            if (hyperEdge.getStartnodes().length == 1 && hyperEdge.getEndnodes().length == 1) {
+                nodeLabels[node.getId()] = node.getLabelId();
+                edgeStartNodes[id] = hyperEdge.getStartnodes()[0].getId();
+                edgeEndNodes[id] = hyperEdge.getEndnodes()[0].getId();
+                outOffsets[edgeStartNodes[id] + 1]++;
+                inOffsets[edgeEndNodes[id] + 1]++;
+                deletedEdges.clear(2 * id, 2 * id + 2);
+            } else {
+                overlay.addNode(node);
+                for (Node startnode : hyperEdge.getStartnodes()) {
+                    overlay.addEdge(new SimpleEdge(nextOverlayEdgeId++, startnode, 1, node, 1));
+                }
+                for (Node endnode : hyperEdge.getEndnodes()) {
+                    overlay.addEdge(new SimpleEdge(nextOverlayEdgeId++, node, 1, endnode, 1));
+                }
+            }
+        }
+        for (int nodeId = 0; nodeId < nodeOffset; nodeId++) {
+            outOffsets[nodeId + 1] += outOffsets[nodeId];
+            inOffsets[nodeId + 1] += inOffsets[nodeId];
+        }
+        outEdges = new int[outOffsets[nodeOffset]];
+        inEdges = new int[inOffsets[nodeOffset]];
+        int[] outPositions = Arrays.copyOf(outOffsets, nodeOffset);
+        int[] inPositions = Arrays.copyOf(inOffsets, nodeOffset);
+        for (int id = deletedEdges.nextClearBit(0); id < 2 * edgeBound; id = deletedEdges.nextClearBit(id + 2)) {
+            int edgeId = id / 2;
+            outEdges[outPositions[edgeStartNodes[edgeId]]++] = edgeId;
+            inEdges[inPositions[edgeEndNodes[edgeId]]++] = edgeId;
+        }
+
+        for (int nodeId = 0; nodeId < nodeLabels.length; nodeId++) {
+            if (nodeLabels[nodeId] == NONE) {
+                deletedNodes.set(nodeId);
+            }
+        }
+        numNodes = nodeLabels.length - deletedNodes.cardinality();
+        numEdges = 2 * edgeBound - deletedEdges.cardinality();
+    }
+
+    /**
+     * Copy constructor of TransformedGraphStore.
+     * @param other the store which is copied.
+     */
+    private TransformedGraphStore(TransformedGraphStore other) {
+        nodeOffset = other.nodeOffset;
+        nodeLabels = other.nodeLabels;
+        edgeStartNodes = other.edgeStartNodes;
+        edgeEndNodes = other.edgeEndNodes;
+        outOffsets = other.outOffsets;
+        outEdges = other.outEdges;
+        inOffsets = other.inOffsets;
+        inEdges = other.inEdges;
+        deletedNodes = (BitSet) other.deletedNodes.clone();
+        deletedEdges = (BitSet) other.deletedEdges.clone();
+        numNodes = other.numNodes;
+        numEdges = other.numEdges;
+        overlay = other.overlay.copy();
+    }
+
+    /**
+     * Checks whether a node id belongs to the view.
+     * @param nodeId the id of the node.
+     * @return true if the id belongs to a node of the view, which may be deleted, else false.
+     */
+    private boolean isViewNode(int nodeId) {
+        return nodeId >= 0 && nodeId < nodeLabels.length && nodeLabels[nodeId] != NONE;
+    }
+
+    /**
+     * Checks whether an edge id belongs to the view.
+     * @param edgeId the id of the edge.
+     * @return true if the id belongs to a simple edge of the view, which may be deleted, else false.
+     */
+    private boolean isViewEdge(int edgeId) {
+        return edgeId >= 0 && edgeId < 2 * edgeStartNodes.length && nodeLabels[nodeOffset + edgeId / 2] != NONE;
+    }
+
+    /**
+     * Checks whether a node id belongs to a node which stands for an edge of the untransformed graph.
+     * @param nodeId the id of the node.
+     * @return true if the node stands for an edge of the untransformed graph, else false.
+     */
+    private boolean isEdgeNode(int nodeId) {
+        return nodeId >= nodeOffset && nodeId < nodeOffset + edgeStartNodes.length;
+    }
+
+    @Override
+    public boolean addNode(Node node) {
+        if (isViewNode(node.getId())) {
+            if (!deletedNodes.get(node.getId())) {
+                return false;
+            }
+            deletedNodes.clear(node.getId());
+            numNodes++;
+            return true;
+        }
+        return overlay.addNode(node);
+    }
+
+    @Override
+    public void addEdge(Edge edge) {
+        if (isViewEdge(edge.getId())) {
+            if (deletedEdges.get(edge.getId())) {
+                deletedEdges.clear(edge.getId());
+                numEdges++;
+            }
+            return;
+        }
+        overlay.addEdge(edge);
+    }
+
+    @Override
+    public boolean removeNode(int nodeId) {
+        if (isViewNode(nodeId)) {
+            if (deletedNodes.get(nodeId)) {
+                return false;
+            }
+            deletedNodes.set(nodeId);
+            numNodes--;
+            return true;
+        }
+        return overlay.removeNode(nodeId);
+    }
+
+    @Override
+    public boolean removeEdge(int edgeId) {
+        if (isViewEdge(edgeId)) {
+            if (deletedEdges.get(edgeId)) {
+                return false;
+            }
+            deletedEdges.set(edgeId);
+            numEdges--;
+            return true;
+        }
+        return overlay.removeEdge(edgeId);
+    }
+
+    @Override
+    public Map<Integer, Node> getNodes() {
+        return new NodeMap();
+    }
+
+    @Override
+    public Map<Integer, Edge> getEdges() {
+        return new EdgeMap();
+    }
+
+    @Override
+    public List<SimpleEdge> getIncomingEdges(int nodeId) {
+        List<SimpleEdge> edges = new ArrayList<>();
+        if (isEdgeNode(nodeId)) {
+            addViewEdge(edges, 2 * (nodeId - nodeOffset));
+        } else if (nodeId >= 0 && nodeId < nodeOffset) {
+            for (int i = inOffsets[nodeId]; i < inOffsets[nodeId + 1]; i++) {
+                addViewEdge(edges, 2 * inEdges[i] + 1);
+            }
+        }
+        edges.addAll(overlay.getIncomingEdges(nodeId));
+        return edges;
+    }
+
+    @Override
+    public List<SimpleEdge> getOutgoingEdges(int nodeId) {
+        List<SimpleEdge> edges = new ArrayList<>();
+        if (isEdgeNode(nodeId)) {
+            addViewEdge(edges, 2 * (nodeId - nodeOffset) + 1);
+        } else if (nodeId >= 0 && nodeId < nodeOffset) {
+            for (int i = outOffsets[nodeId]; i < outOffsets[nodeId + 1]; i++) {
+                addViewEdge(edges, 2 * outEdges[i]);
+            }
+        }
+        edges.addAll(overlay.getOutgoingEdges(nodeId));
+        return edges;
+    }
+
+    /**
+     * Adds a simple edge of the view to a list if it is not deleted.
+     * @param edges the list of edges.
+     * @param edgeId the id of the simple edge.
+     */
+    private void addViewEdge(List<SimpleEdge> edges, int edgeId) {
+        if (isViewEdge(edgeId) && !deletedEdges.get(edgeId)) {
+            edges.add(createEdge(edgeId));
+        }
+    }
+
+    /**
+     * Creates the object for a node of the view.
+     * @param nodeId the id of the node.
+     * @return the node object.
+     */
+    private Node createNode(int nodeId) {
+        return new Node(nodeId, nodeLabels[nodeId]);
+    }
+
+    /**
+     * Creates the object for a simple edge of the view.
+     * @param edgeId the id of the simple edge.
+     * @return the edge object.
+     */
+    private SimpleEdge createEdge(int edgeId) {
+        int edge = edgeId / 2;
+        Node edgeNode = createNode(nodeOffset + edge);
+        if (edgeId % 2 == 0) {
+            return new SimpleEdge(edgeId, createNode(edgeStartNodes[edge]), 1, edgeNode, 1);
+        }
+        return new SimpleEdge(edgeId, edgeNode, 1, createNode(edgeEndNodes[edge]), 1);
+    }
+
+    @Override
+    public GraphStore copy() {
+        return new TransformedGraphStore(this);
+    }
+
+    @Override
+    public GraphStore newInstance() {
+        return overlay.newInstance();
+    }
+
+    /**
+     * Closes the overlay store if it holds resources, e.g. the files of a MappedGraphStore. The untransformed store is
+     * not closed. The store must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        if (overlay instanceof Closeable) {
+            ((Closeable) overlay).close();
+        }
+    }
+
+    /**
+     * A read only view of the nodes of the store.
+     */
+    private class NodeMap extends AbstractMap<Integer, Node> {
+
+        @Override
+        public Node get(Object key) {
+            if (!(key instanceof Integer)) return null;
+            int nodeId = (Integer) key;
+            if (isViewNode(nodeId)) {
+                return deletedNodes.get(nodeId) ? null : createNode(nodeId);
+            }
+            return overlay.getNodes().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return numNodes + overlay.getNodes().size();
+        }
+
+        @Override
+        public Set<Entry<Integer, Node>> entrySet() {
+            return new AbstractSet<Entry<Integer, Node>>() {
+                @Override
+                public Iterator<Entry<Integer, Node>> iterator() {
+                    return new ViewIterator<Node>(deletedNodes, nodeLabels.length, overlay.getNodes()) {
+                        @Override
+                        Node create(int id) {
+                            return createNode(id);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return NodeMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * A read only view of the edges of the store.
+     */
+    private class EdgeMap extends AbstractMap<Integer, Edge> {
+
+        @Override
+        public Edge get(Object key) {
+            if (!(key instanceof Integer)) return null;
+            int edgeId = (Integer) key;
+            if (isViewEdge(edgeId)) {
+                return deletedEdges.get(edgeId) ? null : createEdge(edgeId);
+            }
+            return overlay.getEdges().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return numEdges + overlay.getEdges().size();
+        }
+
+        @Override
+        public Set<Entry<Integer, Edge>> entrySet() {
+            return new AbstractSet<Entry<Integer, Edge>>() {
+                @Override
+                public Iterator<Entry<Integer, Edge>> iterator() {
+                    return new ViewIterator<Edge>(deletedEdges, 2 * edgeStartNodes.length, overlay.getEdges()) {
+                        @Override
+                        Edge create(int id) {
+                            return createEdge(id);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return EdgeMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * An iterator over the elements of the view which are not deleted, followed by the elements of the overlay.
+     * @param <V> the type of the elements.
+     */
+    private abstract static class ViewIterator<V> implements Iterator<Entry<Integer, V>> {
+
+        /**
+         * the ids of the deleted elements of the view.
+         */
+        private final BitSet deleted;
+
+        /**
+         * a number which is greater than all ids of the view.
+         */
+        private final int bound;
+
+        /**
+         * the iterator over the elements of the overlay.
+         */
+        private final Iterator<Entry<Integer, V>> overlayElements;
+
+        /**
+         * the next id of the view, bound if there is none.
+         */
+        private int nextId;
+
+        ViewIterator(BitSet deleted, int bound, Map<Integer, V> overlayElements) {
+            this.deleted = deleted;
+            this.bound = bound;
+            this.overlayElements = overlayElements.entrySet().iterator();
+            nextId = Math.min(deleted.nextClearBit(0), bound);
+        }
+
+        /**
+         * Creates the object for an id of the view.
+         * @param id the id.
+         * @return the object for the id.
+         */
+        abstract V create(int id);
+
+        @Override
+        public boolean hasNext() {
+            return nextId < bound || overlayElements.hasNext();
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (nextId >= bound) {
+                if (!overlayElements.hasNext()) throw new NoSuchElementException();
+                return overlayElements.next();
+            }
+            int id = nextId;
+            nextId = Math.min(deleted.nextClearBit(id + 1), bound);
+            return new AbstractMap.SimpleImmutableEntry<>(id, create(id));
+        }
+    }
+}
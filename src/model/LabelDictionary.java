@@ -0,0 +1,78 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This is the global symbol table for the labels of nodes, edges and non terminals.
+ *
+ * Each label is interned to a dense int id when it is read in. The compression compares and hashes only these ids,
+ * the labels themselves are only needed for the output and for the canonical order of the digrams. The ids are never released, so they are valid for all graphs
+ * in the process. The dictionary can be used by several threads.
+ */
+public final class LabelDictionary {
+
+    /**
+     * the id for each label.
+     */
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * the label for each id.
+     */
+    private static volatile String[] labels = new String[64];
+
+    /**
+     * the number of interned labels.
+     */
+    private static int size = 0;
+
+    private LabelDictionary() {
+    }
+
+    /**
+     * Getter for the id of a label, an unknown label gets the next free id.
+     * @param label the label for which the id is requested.
+     * @return the id of the label.
+     */
+    public static int getId(String label) {
+        Integer id = ids.get(label);
+        return id != null ? id : intern(label);
+    }
+
+    /**
+     * Assigns the next free id to a label if no other thread did it before.
+     * @param label the label which is to be interned.
+     * @return the id of the label.
+     */
+    private static synchronized int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) return id;
+
+        String[] currentLabels = labels;
+        if (size == currentLabels.length) {
+            currentLabels = Arrays.copyOf(currentLabels, size * 2);
+        }
+        currentLabels[size] = label;
+        labels = currentLabels;
+        ids.put(label, size);
+        return size++;
+    }
+
+    /**
+     * Getter for the label of an id.
+     * @param id the id of the label.
+     * @return the label for the id.
+     */
+    public static String getLabel(int id) {
+        return labels[id];
+    }
+
+    /**
+     * Getter for the number of interned labels, all ids are smaller than this number.
+     * @return the number of interned labels.
+     */
+    public static synchronized int size() {
+        return size;
+    }
+}
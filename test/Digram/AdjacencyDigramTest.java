@@ -24,4 +24,44 @@ public class AdjacencyDigramTest {
         Assert.assertNotEquals(digram1, digram3);
         Assert.assertNotEquals(digram2, digram3);
     }
+
+    @Test
+    public void testEquals() {
+        // the old hash codes of these digrams were equal
+        AdjacencyDigram digram1 = new AdjacencyDigram("a", "b", 1, 33,
+                AdjacencyDigram.EdgeDirection.INGOING, AdjacencyDigram.EdgeDirection.OUTGOING, new ArrayList<>());
+        AdjacencyDigram digram2 = new AdjacencyDigram("a", "b", 2, 2,
+                AdjacencyDigram.EdgeDirection.INGOING, AdjacencyDigram.EdgeDirection.OUTGOING, new ArrayList<>());
+        Assert.assertNotEquals(digram1, digram2);
+
+        AdjacencyDigram digram3 = new AdjacencyDigram("a", "a", 1, 1,
+                AdjacencyDigram.EdgeDirection.INGOING, AdjacencyDigram.EdgeDirection.OUTGOING, new ArrayList<>());
+        AdjacencyDigram digram4 = new AdjacencyDigram("a", "a", 1, 1,
+                AdjacencyDigram.EdgeDirection.OUTGOING, AdjacencyDigram.EdgeDirection.INGOING, new ArrayList<>());
+        Assert.assertEquals(digram3, digram4);
+        Assert.assertEquals(digram3.hashCode(), digram4.hashCode());
+    }
+
+    @Test
+    public void testSelectOccurrence() {
+        AdjacencyDigram digram = new AdjacencyDigram("a", "b", 1, 1,
+                AdjacencyDigram.EdgeDirection.INGOING, AdjacencyDigram.EdgeDirection.OUTGOING, new ArrayList<>());
+        int slot = digram.selectOccurrence(1, 2, 10, 11, 5);
+        Assert.assertNotEquals(-1, slot);
+        // an outer node of another occurrence
+        Assert.assertEquals(-1, digram.selectOccurrence(2, 3, 12, 13, 6));
+        // the mid node of another occurrence as an outer node
+        Assert.assertEquals(-1, digram.selectOccurrence(5, 3, 12, 13, 6));
+        // an outer node of another occurrence as the mid node
+        Assert.assertEquals(-1, digram.selectOccurrence(3, 4, 12, 13, 1));
+        // occurrences may share their mid node
+        int slot2 = digram.selectOccurrence(3, 4, 12, 13, 5);
+        Assert.assertNotEquals(-1, slot2);
+        Assert.assertEquals(2, digram.getSize());
+
+        digram.removeOccurrence(slot);
+        Assert.assertEquals(-1, digram.selectOccurrence(5, 6, 14, 15, 7));
+        digram.removeOccurrence(slot2);
+        Assert.assertNotEquals(-1, digram.selectOccurrence(5, 6, 14, 15, 7));
+    }
 }
@@ -0,0 +1,64 @@
+package Digram;
+
+import model.Digram.BasicDigram;
+import model.Digram.DigramQueue;
+import model.DigramOccurrence.OccurrenceTable;
+import model.Graph.IdAllocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class DigramQueueTest {
+
+    private static final IdAllocator ids = new IdAllocator();
+
+    private static void addOccurrences(BasicDigram digram, int number) {
+        for (int i = 0; i < number; i++) {
+            Assert.assertNotEquals(-1, digram.selectOccurrence(ids.nextNodeId(), ids.nextNodeId(), ids.nextEdgeId(),
+                    OccurrenceTable.NONE, OccurrenceTable.NONE));
+        }
+    }
+
+    @Test
+    public void testMaxAndTop() {
+        BasicDigram digram1 = new BasicDigram(1, 2, 1, 1, new ArrayList<>());
+        BasicDigram digram2 = new BasicDigram(1, 3, 1, 1, new ArrayList<>());
+        BasicDigram digram3 = new BasicDigram(2, 3, 1, 1, new ArrayList<>());
+        DigramQueue queue = new DigramQueue();
+        Assert.assertNull(queue.peekMax());
+
+        addOccurrences(digram1, 2);
+        addOccurrences(digram2, 3);
+        addOccurrences(digram3, 2);
+        queue.update(digram1);
+        queue.update(digram2);
+        queue.update(digram3);
+        Assert.assertEquals(3, queue.size());
+        Assert.assertSame(digram2, queue.peekMax());
+        Assert.assertEquals(Arrays.asList(digram2, digram1, digram3), queue.top(5, digram -> true));
+
+        digram2.removeOccurrence(digram2.getOccurrences().next(0));
+        digram2.removeOccurrence(digram2.getOccurrences().next(0));
+        queue.update(digram2);
+        Assert.assertSame(digram1, queue.peekMax());
+        Assert.assertEquals(Arrays.asList(digram1, digram3), queue.top(2, digram -> true));
+
+        queue.remove(digram1);
+        addOccurrences(digram2, 5);
+        queue.update(digram2);
+        Assert.assertSame(digram2, queue.peekMax());
+        Assert.assertEquals(6, digram2.getSize());
+        Assert.assertEquals(2, queue.size());
+
+        digram2.removeOccurrence(digram2.getOccurrences().next(0));
+        queue.update(digram2);
+        while (digram3.getSize() > 0) {
+            digram3.removeOccurrence(digram3.getOccurrences().next(0));
+        }
+        queue.update(digram3);
+        Assert.assertEquals(1, queue.size());
+        Assert.assertEquals(Arrays.asList(digram2), queue.top(5, digram -> true));
+    }
+}
@@ -0,0 +1,65 @@
+package DigramList;
+
+import model.Digram.AdjacencyDigram;
+import model.Digram.Digram;
+import model.DigramList.AdjacencyDigramList;
+import model.Graph.HyperGraph;
+import model.Graph.IdAllocator;
+import model.Graph.Node;
+import model.Graph.SimpleEdge;
+import model.LabelDictionary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class AdjacencyDigramListTest {
+
+    @Test
+    public void testHubGroups() {
+        HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
+        Node hub = new Node(ids, "h");
+        graph.add(hub);
+        addNeighbours(graph, hub, "a", 5);
+        addNeighbours(graph, hub, "b", 3);
+        BitSet labels = new BitSet();
+        labels.set(LabelDictionary.getId("a"));
+        labels.set(LabelDictionary.getId("b"));
+
+        AdjacencyDigramList allPairs = new AdjacencyDigramList(labels);
+        allPairs.addDigrams(hub, new ArrayList<>(), graph);
+        AdjacencyDigramList hubPairs = new AdjacencyDigramList(labels);
+        hubPairs.setHubLimits(4, AdjacencyDigramList.DEFAULT_MAX_HUB_GROUPS);
+        hubPairs.addDigrams(hub, new ArrayList<>(), graph);
+
+        // each pair of groups has as many disjoint occurrences as the smaller group has edges
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("a a", 2);
+        expected.put("a b", 3);
+        expected.put("b b", 1);
+        Assert.assertEquals(expected, getSizes(allPairs));
+        Assert.assertEquals(expected, getSizes(hubPairs));
+    }
+
+    private static void addNeighbours(HyperGraph graph, Node hub, String label, int number) {
+        for (int i = 0; i < number; i++) {
+            Node node = new Node(graph.getIdAllocator(), label);
+            graph.add(node);
+            graph.add(new SimpleEdge(graph.getIdAllocator(), hub, node));
+        }
+    }
+
+    private static Map<String, Integer> getSizes(AdjacencyDigramList list) {
+        Map<String, Integer> sizes = new TreeMap<>();
+        for (Digram digram : list.getAllActiveDigrams()) {
+            digram.selectOccurrences();
+            AdjacencyDigram adjacencyDigram = (AdjacencyDigram) digram;
+            sizes.put(adjacencyDigram.getLabel1() + " " + adjacencyDigram.getLabel2(), digram.getSize());
+        }
+        return sizes;
+    }
+}
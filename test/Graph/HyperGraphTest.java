@@ -0,0 +1,191 @@
+package Graph;
+
+import model.Graph.CompactGraphStore;
+import model.Graph.GraphDelta;
+import model.Graph.GraphStore;
+import model.Graph.HyperEdge;
+import model.Graph.HyperGraph;
+import model.Graph.IdAllocator;
+import model.Graph.MappedGraphStore;
+import model.Graph.Node;
+import model.Graph.SimpleEdge;
+import model.Graph.TransformedGraphStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HyperGraphTest {
+
+    @Test
+    public void testIncidentEdges() {
+        checkIncidentEdges(new HyperGraph());
+    }
+
+    @Test
+    public void testIncidentEdgesCompactStore() {
+        checkIncidentEdges(new HyperGraph(new CompactGraphStore()));
+    }
+
+    @Test
+    public void testIncidentEdgesMappedStore() {
+        MappedGraphStore store = new MappedGraphStore();
+        checkIncidentEdges(new HyperGraph(store));
+        store.close();
+    }
+
+    private void checkIncidentEdges(HyperGraph graph) {
+        IdAllocator ids = graph.getIdAllocator();
+        Node a = new Node(ids, "a");
+        Node b = new Node(ids, "b");
+        Node c = new Node(ids, "a");
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+
+        SimpleEdge ab = new SimpleEdge(ids, a, b);
+        SimpleEdge cb = new SimpleEdge(ids, c, b);
+        SimpleEdge bb = new SimpleEdge(ids, b, b);
+        graph.add(ab);
+        graph.add(cb);
+        graph.add(bb);
+
+        Assert.assertEquals(3, graph.getAllIncidentEdges(b).size());
+        Assert.assertEquals(1, graph.getAllIncidentEdges(a).size());
+        Assert.assertEquals(2, graph.getOutgoingEdges(a).size() + graph.getOutgoingEdges(b).size());
+        checkIncidentEdgeIds(graph, b);
+
+        GraphStore store = graph.getStore();
+        Assert.assertTrue(store.isSimpleEdge(ab.getId()));
+        Assert.assertEquals(a.getId(), store.getStartNodeId(ab.getId()));
+        Assert.assertEquals(b.getId(), store.getEndNodeId(ab.getId()));
+        Assert.assertEquals(ab.getEndEquivalenceClass(), store.getEndEquivalenceClass(ab.getId()));
+        Assert.assertEquals(a.getLabelId(), store.getNodeLabelId(a.getId()));
+
+        // ab and cb are equal by their labels, but only ab has to be removed
+        graph.delete(ab);
+        Assert.assertEquals(0, graph.getAllIncidentEdges(a).size());
+        Assert.assertEquals(2, graph.getAllIncidentEdges(b).size());
+        Assert.assertTrue(graph.getIncomingEdges(b).stream().anyMatch(edge -> edge.getId() == cb.getId()));
+        checkIncidentEdgeIds(graph, b);
+        Assert.assertFalse(graph.getStore().isSimpleEdge(ab.getId()));
+
+        HyperGraph clone = graph.clone();
+        clone.delete(cb);
+        Assert.assertEquals(2, graph.getAllIncidentEdges(b).size());
+        Assert.assertEquals(1, clone.getAllIncidentEdges(b).size());
+    }
+
+    /**
+     * Checks that the store gives the ids of the incident edges of a node in the order of the edge objects.
+     */
+    private void checkIncidentEdgeIds(HyperGraph graph, Node node) {
+        int[] expected = graph.getAllIncidentEdges(node).stream().mapToInt(SimpleEdge::getId).toArray();
+        Assert.assertArrayEquals(expected, graph.getStore().getIncidentEdgeIds(node.getId()));
+    }
+
+    @Test
+    public void testDeleteAll() {
+        checkDeleteAll(new HyperGraph());
+    }
+
+    @Test
+    public void testDeleteAllCompactStore() {
+        checkDeleteAll(new HyperGraph(new CompactGraphStore()));
+    }
+
+    private void checkDeleteAll(HyperGraph graph) {
+        IdAllocator ids = graph.getIdAllocator();
+        Node hub = new Node(ids, "a");
+        graph.add(hub);
+        List<SimpleEdge> edges = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Node node = new Node(ids, "b");
+            graph.add(node);
+            SimpleEdge edge = i % 2 == 0 ? new SimpleEdge(ids, hub, node) : new SimpleEdge(ids, node, hub);
+            graph.add(edge);
+            edges.add(edge);
+        }
+
+        GraphDelta delta = new GraphDelta();
+        graph.recordChanges(delta);
+        graph.deleteAll(edges.subList(0, 6));
+        graph.recordChanges(null);
+
+        Assert.assertEquals(4, graph.getAllIncidentEdges(hub).size());
+        Assert.assertEquals(4, graph.getAllEdges().size());
+        Assert.assertEquals(6, delta.getRemovedEdges().size());
+        for (SimpleEdge edge : edges.subList(6, 10)) {
+            Assert.assertTrue(graph.getAllIncidentEdges(hub).stream().anyMatch(incident -> incident.getId() == edge.getId()));
+        }
+    }
+
+    @Test
+    public void testLabelCounts() {
+        HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
+        Node a = new Node(ids, "a");
+        Node b = new Node(ids, "b");
+        Node c = new Node(ids, "a");
+        graph.add(a);
+        graph.add(b);
+        graph.add(c);
+        graph.add(c);
+
+        Assert.assertEquals(2, graph.getLabelCount(a.getLabelId()));
+        Assert.assertTrue(graph.getDuplicatedLabels().get(a.getLabelId()));
+        Assert.assertFalse(graph.getDuplicatedLabels().get(b.getLabelId()));
+
+        graph.delete(c);
+        graph.delete(c);
+        Assert.assertEquals(1, graph.getLabelCount(a.getLabelId()));
+        Assert.assertTrue(graph.getDuplicatedLabels().isEmpty());
+        Assert.assertTrue(graph.containsNode("b"));
+
+        graph.delete(b);
+        Assert.assertFalse(graph.containsNode("b"));
+    }
+
+    @Test
+    public void testIdAllocation() {
+        HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
+        Node a = new Node(ids, "a");
+        Node b = new Node(5, "b");
+        graph.add(a);
+        graph.add(b);
+        Assert.assertEquals(0, a.getId());
+        Assert.assertEquals(6, new Node(ids, "c").getId());
+        Assert.assertEquals(0, new SimpleEdge(ids, a, b).getId());
+
+        // each graph has its own ids
+        Assert.assertEquals(0, new Node(new HyperGraph().getIdAllocator(), "a").getId());
+        Assert.assertEquals(7, graph.clone().getIdAllocator().nextNodeId());
+    }
+
+    @Test
+    public void testTransformedStore() {
+        HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
+        Node a = new Node(ids, "a");
+        Node b = new Node(ids, "b");
+        graph.add(a);
+        graph.add(b);
+        graph.add(new HyperEdge(ids, a, b, "e"));
+
+        HyperGraph transformed = new HyperGraph(new TransformedGraphStore(graph.getStore()));
+        Assert.assertEquals(3, transformed.getAllNodes().size());
+        Assert.assertEquals(2, transformed.getAllEdges().size());
+        SimpleEdge edge = transformed.getOutgoingEdges(a).get(0);
+        Assert.assertEquals("e", edge.getEndnode().getLabel());
+        Assert.assertEquals(b, transformed.getOutgoingEdges(edge.getEndnode()).get(0).getEndnode());
+
+        HyperGraph clone = transformed.clone();
+        clone.delete(edge);
+        clone.add(new SimpleEdge(clone.getIdAllocator(), a, b));
+        Assert.assertEquals(1, transformed.getOutgoingEdges(a).size());
+        Assert.assertEquals(b, clone.getOutgoingEdges(a).get(0).getEndnode());
+        Assert.assertEquals(0, clone.getIncomingEdges(edge.getEndnode()).size());
+    }
+}
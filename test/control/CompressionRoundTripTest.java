@@ -0,0 +1,300 @@
+package control;
+
+import model.Digram.AdjacencyDigram;
+import model.Digram.Digram;
+import model.Graph.Edge;
+import model.Graph.HyperEdge;
+import model.Graph.HyperGraph;
+import model.Graph.IdAllocator;
+import model.Graph.Node;
+import model.Graph.SimpleEdge;
+import model.LabelDictionary;
+import model.Tuple;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class CompressionRoundTripTest {
+
+    @Test
+    public void testSampleGraph() {
+        checkRoundTrip(Util.createSampleGraph(), new CompressionControl(Util.createSampleGraph()));
+    }
+
+    /**
+     * The compression of this graph applies a digram with a split mid node and keeps former edges with other
+     * equivalence classes than 1 in the edge optimization.
+     */
+    @Test
+    public void testRandomGraph() {
+        CompressionControl compressionControl = new CompressionControl(createRandomGraph(27));
+        compressionControl.setSeed(27);
+        Tuple<HyperGraph, List<Digram>> result = checkRoundTrip(createRandomGraph(27), compressionControl);
+
+        int splitDigrams = 0;
+        for (Digram digram : result.y) {
+            if (digram instanceof AdjacencyDigram && ((AdjacencyDigram) digram).isSplitMid()) {
+                splitDigrams++;
+            }
+        }
+        Assert.assertTrue(splitDigrams > 0);
+        Assert.assertTrue(getNumKeptFormerEdges(result.x, compressionControl.getEdgeLabels()) > 0);
+    }
+
+    /**
+     * The incremental update of the digram lists finds fewer occurrences than a full rescan, but the grammar must be
+     * lossless and only slightly larger.
+     */
+    @Test
+    public void testIncrementalSearch() {
+        CompressionControl incremental = new CompressionControl(createRandomGraph(27));
+        incremental.setSeed(27);
+        CompressionControl fullRescan = new CompressionControl(createRandomGraph(27));
+        fullRescan.setSeed(27);
+        fullRescan.setIncrementalSearch(false);
+
+        int incrementalSize = getSize(checkRoundTrip(createRandomGraph(27), incremental));
+        int fullRescanSize = getSize(checkRoundTrip(createRandomGraph(27), fullRescan));
+        Assert.assertTrue(incrementalSize <= fullRescanSize * 1.05);
+    }
+
+    /**
+     * A batch replaces several digrams in one round, so it needs fewer rounds than the replacement of one digram per
+     * round. The batch takes digrams whose occurrences a replacement of the round before would have changed, so its
+     * grammar may be larger, but at most by 10%.
+     */
+    @Test
+    public void testBatch() {
+        CompressionControl unbatched = new CompressionControl(createRandomGraph(27));
+        unbatched.setSeed(27);
+        CompressionControl batched = new CompressionControl(createRandomGraph(27));
+        batched.setSeed(27);
+        batched.setBatchSize(4);
+        int[] numRounds = new int[2];
+        unbatched.addCompressionListener(new CompressionListener() {
+            @Override
+            public void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta, int edgeDelta,
+                                      HyperGraph graph) {
+                numRounds[0] = round + 1;
+            }
+        });
+        batched.addCompressionListener(new CompressionListener() {
+            @Override
+            public void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta, int edgeDelta,
+                                      HyperGraph graph) {
+                numRounds[1] = round + 1;
+            }
+        });
+
+        int unbatchedSize = getSize(checkRoundTrip(createRandomGraph(27), unbatched));
+        int batchedSize = getSize(checkRoundTrip(createRandomGraph(27), batched));
+        Assert.assertTrue(numRounds[1] < numRounds[0]);
+        Assert.assertTrue(batchedSize <= unbatchedSize * 1.1);
+    }
+
+    /**
+     * The search and the parallel replacement must not depend on the number of threads.
+     */
+    @Test
+    public void testParallelism() {
+        for (boolean parallelReplacement : new boolean[]{false, true}) {
+            List<String> rounds = null;
+            for (int parallelism : new int[]{1, 4}) {
+                CompressionControl compressionControl = new CompressionControl(createRandomGraph(27));
+                compressionControl.setSeed(27);
+                compressionControl.setParallelism(parallelism);
+                compressionControl.setParallelReplacement(parallelReplacement);
+                List<String> roundsOfParallelism = new ArrayList<>();
+                compressionControl.addCompressionListener(new CompressionListener() {
+                    @Override
+                    public void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta,
+                                              int edgeDelta, HyperGraph graph) {
+                        roundsOfParallelism.add(round + ": " + numOccurrences + " " + nodeDelta + " " + edgeDelta);
+                    }
+                });
+                checkRoundTrip(createRandomGraph(27), compressionControl);
+                if (rounds != null) {
+                    Assert.assertEquals(rounds, roundsOfParallelism);
+                }
+                rounds = roundsOfParallelism;
+            }
+        }
+    }
+
+    /**
+     * A cancellation only stops the running compression, a further compression of the graph runs to the end.
+     */
+    @Test
+    public void testCancel() {
+        CompressionControl compressionControl = new CompressionControl(createRandomGraph(27));
+        boolean[] cancel = {true};
+        compressionControl.addCompressionListener(new CompressionListener() {
+            @Override
+            public void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta, int edgeDelta,
+                                      HyperGraph graph) {
+                if (cancel[0]) {
+                    compressionControl.cancel();
+                }
+            }
+        });
+        compressionControl.graphCompression(true);
+        Assert.assertFalse(compressionControl.isComplete());
+        Assert.assertEquals(1, compressionControl.getRounds());
+
+        cancel[0] = false;
+        compressionControl.graphCompression(false);
+        Assert.assertTrue(compressionControl.isComplete());
+        Assert.assertTrue(compressionControl.getRounds() > 0);
+    }
+
+    /**
+     * The compression must not depend on the order in which the labels were interned, so a compression can be re-run
+     * with the same result in another process.
+     */
+    @Test
+    public void testLabelOrder() {
+        Assert.assertEquals(getRounds(createRandomGraph(27, "p", false)), getRounds(createRandomGraph(27, "q", true)));
+    }
+
+    /**
+     * The non terminals must not have a label of the input graph.
+     */
+    @Test
+    public void testReservedLabels() {
+        HyperGraph input = createRandomGraph(27);
+        IdAllocator ids = input.getIdAllocator();
+        for (int i = 0; i < 4; i++) {
+            Node node = new Node(ids, "A_" + i % 2);
+            input.add(node);
+            input.add(new HyperEdge(ids, node, input.getAllNodes().get(i), "e0"));
+        }
+        CompressionControl compressionControl = new CompressionControl(input);
+        compressionControl.setSeed(27);
+        Tuple<HyperGraph, List<Digram>> result = checkRoundTrip(input, compressionControl);
+        for (Digram digram : result.y) {
+            Assert.assertNotEquals("A_0", digram.getNonterminal());
+            Assert.assertNotEquals("A_1", digram.getNonterminal());
+        }
+    }
+
+    private static List<String> getRounds(HyperGraph input) {
+        CompressionControl compressionControl = new CompressionControl(input);
+        compressionControl.setSeed(27);
+        List<String> rounds = new ArrayList<>();
+        compressionControl.addCompressionListener(new CompressionListener() {
+            @Override
+            public void roundFinished(int round, Digram digram, int numOccurrences, int nodeDelta, int edgeDelta,
+                                      HyperGraph graph) {
+                rounds.add(round + ": " + digram.getNonterminal() + " " + numOccurrences + " " + nodeDelta + " " + edgeDelta);
+            }
+        });
+        compressionControl.graphCompression(true);
+        return rounds;
+    }
+
+    private static Tuple<HyperGraph, List<Digram>> checkRoundTrip(HyperGraph input, CompressionControl compressionControl) {
+        compressionControl.setRoundTripCheck(true);
+        List<Tuple<HyperGraph, List<Digram>>> results = compressionControl.graphCompression(true);
+        Tuple<HyperGraph, List<Digram>> result = results.get(results.size() - 1);
+        HyperGraph decompressed = new DecompressionControl(result.y, compressionControl.getEdgeLabels()).decompress(result.x);
+
+        Assert.assertEquals(input.getAllNodes().size(), decompressed.getAllNodes().size());
+        Assert.assertEquals(input.getAllEdges().size(), decompressed.getAllEdges().size());
+        Assert.assertEquals(getLabelCounts(input), getLabelCounts(decompressed));
+        Assert.assertEquals(DecompressionControl.fingerprint(input), DecompressionControl.fingerprint(decompressed));
+        return result;
+    }
+
+    /**
+     * Gets the size of a grammar, which is the number of nodes and edges of the graph and of the applied digrams.
+     */
+    private static int getSize(Tuple<HyperGraph, List<Digram>> grammar) {
+        int size = grammar.x.getAllNodes().size() + grammar.x.getAllEdges().size();
+        for (Digram digram : grammar.y) {
+            Tuple<Integer, Integer> numInternalElements = digram.getNumInternalElements();
+            size += numInternalElements.x + numInternalElements.y;
+        }
+        return size;
+    }
+
+    /**
+     * Counts the labels of the nodes and of the hyperedges, which are negated.
+     */
+    private static Map<Integer, Integer> getLabelCounts(HyperGraph graph) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (Node node : graph.getAllNodes().values()) {
+            counts.merge(node.getLabelId(), 1, Integer::sum);
+        }
+        for (Edge edge : graph.getAllEdges().values()) {
+            if (edge instanceof HyperEdge) {
+                counts.merge(-1 - ((HyperEdge) edge).getLabelId(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the nodes of former edges with one incoming and one outgoing edge, which the edge optimization did not
+     * replace because an edge has another equivalence class than 1.
+     */
+    private static int getNumKeptFormerEdges(HyperGraph graph, BitSet edgeLabels) {
+        int number = 0;
+        for (Node node : graph.getAllNodes().values()) {
+            if (!edgeLabels.get(node.getLabelId())) {
+                continue;
+            }
+            int in = 0;
+            int out = 0;
+            boolean defaultClasses = true;
+            for (SimpleEdge edge : graph.getAllIncidentEdges(node)) {
+                if (edge.getEndnode().getId() == node.getId()) {
+                    in++;
+                }
+                if (edge.getStartnode().getId() == node.getId()) {
+                    out++;
+                }
+                defaultClasses &= edge.getStartEquivalenceClass() == 1 && edge.getEndEquivalenceClass() == 1;
+            }
+            if (in == 1 && out == 1 && !defaultClasses) {
+                number++;
+            }
+        }
+        return number;
+    }
+
+    private static HyperGraph createRandomGraph(long seed) {
+        return createRandomGraph(seed, "", false);
+    }
+
+    /**
+     * Creates a random graph with the labels prefix + "n" + i for the nodes and prefix + "e" + i for the edges.
+     * @param reversed true if the labels are interned in the reversed order.
+     */
+    private static HyperGraph createRandomGraph(long seed, String prefix, boolean reversed) {
+        for (int i = 0; i < 3; i++) {
+            LabelDictionary.getId(prefix + (reversed ? "e" + (2 - i) : "n" + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            LabelDictionary.getId(prefix + (reversed ? "n" + (2 - i) : "e" + i));
+        }
+        Random random = new Random(seed);
+        HyperGraph graph = new HyperGraph();
+        IdAllocator ids = graph.getIdAllocator();
+        Node[] nodes = new Node[300];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(ids, prefix + "n" + random.nextInt(2));
+            graph.add(nodes[i]);
+        }
+        for (int i = 0; i < 450; i++) {
+            graph.add(new HyperEdge(ids, nodes[random.nextInt(nodes.length)], nodes[random.nextInt(nodes.length)],
+                    prefix + "e" + random.nextInt(3)));
+        }
+        return graph;
+    }
+}